@@ -0,0 +1,154 @@
+package co.edu.uptc.notification.service;
+
+import co.edu.uptc.notification.dto.ReportViewedEventDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executor;
+
+// Arma los servicios a mano, sin contexto de Spring, para medir cada etapa aislada
+final class BenchmarkFixtures {
+
+    static final String FROM = "notificaciones@quejas-boyaca.local";
+
+    private BenchmarkFixtures() {
+    }
+
+    static ReportViewedEventDTO sampleEvent() {
+        ReportViewedEventDTO event = new ReportViewedEventDTO();
+        event.setEventId("evt-000001");
+        event.setEventType("REPORT_VIEWED");
+        event.setIpAddress("190.24.10.15");
+        event.setTimestamp(LocalDateTime.of(2025, 11, 3, 14, 25, 7));
+        event.setUserAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 Chrome/120.0 Safari/537.36");
+        event.setTotalComplaints(42);
+        event.setReportType("REPORTE_MENSUAL");
+        event.setSource("report-service");
+        return event;
+    }
+
+    static String[] recipients(int count) {
+        String[] recipients = new String[count];
+        for (int i = 0; i < count; i++) {
+            recipients[i] = "admin" + i + "@quejas-boyaca.local";
+        }
+        return recipients;
+    }
+
+    static EmailNotificationService emailService(JavaMailSenderImpl mailSender, SmtpTransportPool transportPool,
+                                                 String fanOutMode, String[] adminEmails) {
+        EmailTemplateEngine templateEngine = new EmailTemplateEngine(new DefaultResourceLoader());
+        ReflectionTestUtils.setField(templateEngine, "location", "classpath:/templates/");
+        ReflectionTestUtils.setField(templateEngine, "suffix", ".html");
+
+        EmailNotificationService service = new EmailNotificationService();
+        ReflectionTestUtils.setField(service, "mailSender", mailSender);
+        ReflectionTestUtils.setField(service, "transportPool", transportPool);
+        ReflectionTestUtils.setField(service, "templateEngine", templateEngine);
+        ReflectionTestUtils.setField(service, "emailEnabled", true);
+        ReflectionTestUtils.setField(service, "adminEmails", adminEmails);
+        ReflectionTestUtils.setField(service, "fromEmail", FROM);
+        ReflectionTestUtils.setField(service, "fromName", "Sistema de Quejas Boyacá");
+        ReflectionTestUtils.setField(service, "fanOutMode", fanOutMode);
+        ReflectionTestUtils.setField(service, "renderCacheSize", 256);
+        service.compileTemplates();
+        return service;
+    }
+
+    static EmailNotificationService emailService() {
+        return emailService(new NoOpMailSender(), null, "copies", recipients(3));
+    }
+
+    static ThreadPoolTaskExecutor executor(String prefix, int core, int max, int queue) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(core);
+        executor.setMaxPoolSize(max);
+        executor.setQueueCapacity(queue);
+        executor.setThreadNamePrefix(prefix);
+        executor.initialize();
+        return executor;
+    }
+
+    // Pipeline completo con el envio SMTP reemplazado por NoOpMailSender y sin limites de tasa
+    static NotificationPipeline pipeline(EmailNotificationService emailService, Executor emailSenderExecutor,
+                                         Executor eventProcessorExecutor, ThreadPoolTaskScheduler taskScheduler,
+                                         NotificationMetrics metrics) throws IOException {
+        SendScheduler sendScheduler = new SendScheduler(emailSenderExecutor);
+        ReflectionTestUtils.setField(sendScheduler, "enabled", false);
+        ReflectionTestUtils.setField(sendScheduler, "maxTrackedRecipients", 1);
+        sendScheduler.init();
+
+        SmtpCircuitBreaker circuitBreaker = new SmtpCircuitBreaker();
+        ReflectionTestUtils.setField(circuitBreaker, "failureThreshold", 5);
+        ReflectionTestUtils.setField(circuitBreaker, "openMs", 30_000L);
+
+        DeadLetterStore deadLetterStore = new DeadLetterStore();
+        ReflectionTestUtils.setField(deadLetterStore, "directory",
+                Files.createTempDirectory("jmh-dead-letters").toString());
+        ReflectionTestUtils.setField(deadLetterStore, "maxEntries", 1000);
+        deadLetterStore.init();
+
+        EventAuditRing auditRing = new EventAuditRing();
+        ReflectionTestUtils.setField(auditRing, "capacity", 65536);
+        ReflectionTestUtils.setField(auditRing, "directory", "target/jmh-audit");
+        ReflectionTestUtils.setField(auditRing, "logSampleRate", 0);
+        auditRing.init();
+
+        ReliableEmailSender reliableSender = new ReliableEmailSender(sendScheduler, circuitBreaker,
+                deadLetterStore, taskScheduler, auditRing);
+        ReflectionTestUtils.setField(reliableSender, "maxAttempts", 1);
+        ReflectionTestUtils.setField(reliableSender, "initialBackoffMs", 1L);
+        ReflectionTestUtils.setField(reliableSender, "maxBackoffMs", 1L);
+        ReflectionTestUtils.setField(reliableSender, "maxDeliveryMs", 1_000L);
+
+        // Sin carriles: todos los eventos van por NORMAL y no hay permisos reservados
+        PriorityLanes priorityLanes = new PriorityLanes(emailSenderExecutor, eventProcessorExecutor, sendScheduler);
+        ReflectionTestUtils.setField(priorityLanes, "enabled", false);
+        for (String field : new String[]{"urgentReportTypes", "urgentSources", "highReportTypes", "highSources"}) {
+            ReflectionTestUtils.setField(priorityLanes, field, new String[0]);
+        }
+        priorityLanes.init();
+
+        // Sin reglas de enrutamiento: cada evento va a todos los destinatarios configurados
+        RecipientRouter recipientRouter = new RecipientRouter(emailService, new ObjectMapper());
+        ReflectionTestUtils.setField(recipientRouter, "enabled", false);
+        ReflectionTestUtils.setField(recipientRouter, "rulesFile", "target/jmh-routing-rules.json");
+        recipientRouter.init();
+
+        NotificationPipeline pipeline = new NotificationPipeline(emailService, eventProcessorExecutor,
+                reliableSender, metrics, auditRing, priorityLanes, recipientRouter);
+        ReflectionTestUtils.setField(pipeline, "maxInFlight", 10_000);
+        ReflectionTestUtils.setField(pipeline, "retryAfterSeconds", 1);
+        pipeline.init();
+        return pipeline;
+    }
+
+    static SmtpTransportPool unpooledTransport(JavaMailSenderImpl mailSender, Executor emailSenderExecutor,
+                                               NotificationMetrics metrics) {
+        DownstreamConcurrencyLimiter limiter = new DownstreamConcurrencyLimiter();
+        ReflectionTestUtils.setField(limiter, "smtpMaxConcurrency", 64);
+        ReflectionTestUtils.setField(limiter, "brokerMaxConcurrency", 1);
+        limiter.init();
+
+        SmtpTransportPool pool = new SmtpTransportPool(mailSender, emailSenderExecutor, limiter, metrics);
+        ReflectionTestUtils.setField(pool, "enabled", false);
+        pool.init();
+        return pool;
+    }
+
+    // Sender que descarta el mensaje ya codificado: mide todo menos la red
+    static final class NoOpMailSender extends JavaMailSenderImpl {
+
+        @Override
+        protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) {
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package co.edu.uptc.notification.service;
+
+import co.edu.uptc.notification.dto.ReportViewedEventDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+// Contenido HTML y asunto: con la cache de cuerpos (mismo segundo) y sin ella (timestamp distinto)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EmailRenderingBenchmark {
+
+    private EmailNotificationService emailService;
+    private ReportViewedEventDTO event;
+    private ReportViewedEventDTO changingEvent;
+
+    @Setup
+    public void setup() {
+        emailService = BenchmarkFixtures.emailService();
+        event = BenchmarkFixtures.sampleEvent();
+        changingEvent = BenchmarkFixtures.sampleEvent();
+    }
+
+    @Benchmark
+    public RenderedEmail renderCachedBody() {
+        return emailService.renderReportViewed(event);
+    }
+
+    @Benchmark
+    public RenderedEmail renderUncachedBody() {
+        changingEvent.setTimestamp(changingEvent.getTimestamp().plusSeconds(1));
+        return emailService.renderReportViewed(changingEvent);
+    }
+}
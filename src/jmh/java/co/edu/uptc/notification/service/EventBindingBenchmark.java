@@ -0,0 +1,90 @@
+package co.edu.uptc.notification.service;
+
+import co.edu.uptc.notification.dto.ReportViewedEventDTO;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+// Binding de Jackson del payload del broker, incluido el LocalDateTime con @JsonFormat.
+// bindReflective desactiva ReportViewedEventDeserializer para comparar; con -Djmh.args="-prof gc" se ve la asignacion por op.
+// bindCbor y bindSmile leen el mismo evento en las codificaciones binarias que aceptan los endpoints de ingesta
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EventBindingBenchmark {
+
+    private ObjectMapper objectMapper;
+    private ObjectReader eventReader;
+    private ObjectReader reflectiveReader;
+    private ObjectReader cborReader;
+    private ObjectReader smileReader;
+    private byte[] payload;
+    private byte[] cborPayload;
+    private byte[] smilePayload;
+
+    @Setup
+    public void setup() throws Exception {
+        // Misma configuracion que el ObjectMapper de Spring Boot (JavaTimeModule incluido)
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        eventReader = objectMapper.readerFor(ReportViewedEventDTO.class);
+        reflectiveReader = objectMapper.copy()
+                .addMixIn(ReportViewedEventDTO.class, ReflectiveBinding.class)
+                .readerFor(ReportViewedEventDTO.class);
+        payload = objectMapper.writeValueAsBytes(BenchmarkFixtures.sampleEvent());
+
+        ObjectMapper cborMapper = objectMapper.copyWith(new CBORFactory());
+        cborReader = cborMapper.readerFor(ReportViewedEventDTO.class);
+        cborPayload = cborMapper.writeValueAsBytes(BenchmarkFixtures.sampleEvent());
+
+        ObjectMapper smileMapper = objectMapper.copyWith(new SmileFactory());
+        smileReader = smileMapper.readerFor(ReportViewedEventDTO.class);
+        smilePayload = smileMapper.writeValueAsBytes(BenchmarkFixtures.sampleEvent());
+    }
+
+    @Benchmark
+    public ReportViewedEventDTO bindWithObjectMapper() throws Exception {
+        return objectMapper.readValue(payload, ReportViewedEventDTO.class);
+    }
+
+    @Benchmark
+    public ReportViewedEventDTO bindWithObjectReader() throws Exception {
+        return eventReader.readValue(payload);
+    }
+
+    @Benchmark
+    public ReportViewedEventDTO bindReflective() throws Exception {
+        return reflectiveReader.readValue(payload);
+    }
+
+    @Benchmark
+    public ReportViewedEventDTO bindCbor() throws Exception {
+        return cborReader.readValue(cborPayload);
+    }
+
+    @Benchmark
+    public ReportViewedEventDTO bindSmile() throws Exception {
+        return smileReader.readValue(smilePayload);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(BenchmarkFixtures.sampleEvent());
+    }
+
+    @JsonDeserialize(using = JsonDeserializer.None.class)
+    private abstract static class ReflectiveBinding {
+    }
+}
@@ -0,0 +1,71 @@
+package co.edu.uptc.notification.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.util.concurrent.TimeUnit;
+
+// Fan-out de un correo ya renderizado a N destinatarios contra un sender que no toca la red
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FanOutBenchmark {
+
+    @Param({"3", "20"})
+    private int recipientCount;
+
+    @Param({"copies", "bcc"})
+    private String fanOutMode;
+
+    private ThreadPoolTaskExecutor emailSenderExecutor;
+    private ThreadPoolTaskExecutor eventProcessorExecutor;
+    private ThreadPoolTaskExecutor taskExecutor;
+    private ThreadPoolTaskScheduler taskScheduler;
+    private NotificationPipeline pipeline;
+    private RenderedEmail email;
+    private String[] recipients;
+
+    @Setup
+    public void setup() throws Exception {
+        // Mismos tamanos que AsyncConfiguration, con colas amplias para no medir rechazos
+        emailSenderExecutor = BenchmarkFixtures.executor("email-sender-", 3, 10, 10_000);
+        eventProcessorExecutor = BenchmarkFixtures.executor("event-proc-", 5, 15, 10_000);
+        taskExecutor = BenchmarkFixtures.executor("async-", 1, 1, 10);
+        taskScheduler = new ThreadPoolTaskScheduler();
+        taskScheduler.initialize();
+
+        NotificationMetrics metrics = new NotificationMetrics(emailSenderExecutor, eventProcessorExecutor, taskExecutor);
+        JavaMailSenderImpl mailSender = new BenchmarkFixtures.NoOpMailSender();
+        recipients = BenchmarkFixtures.recipients(recipientCount);
+
+        SmtpTransportPool transportPool = BenchmarkFixtures.unpooledTransport(mailSender, emailSenderExecutor, metrics);
+        EmailNotificationService emailService = BenchmarkFixtures.emailService(mailSender, transportPool,
+                fanOutMode, recipients);
+        pipeline = BenchmarkFixtures.pipeline(emailService, emailSenderExecutor, eventProcessorExecutor,
+                taskScheduler, metrics);
+        email = emailService.renderReportViewed(BenchmarkFixtures.sampleEvent());
+    }
+
+    @Benchmark
+    public void fanOut() {
+        pipeline.redeliver(email, recipients).join();
+    }
+
+    @TearDown
+    public void tearDown() {
+        taskScheduler.shutdown();
+        emailSenderExecutor.shutdown();
+        eventProcessorExecutor.shutdown();
+        taskExecutor.shutdown();
+    }
+}
@@ -0,0 +1,48 @@
+package co.edu.uptc.notification.service;
+
+import jakarta.mail.Message;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import jakarta.mail.util.SharedByteArrayInputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.concurrent.TimeUnit;
+
+// Construccion del MimeMessage con MimeMessageHelper frente a la copia por destinatario desde los bytes codificados
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MimeMessageBenchmark {
+
+    private JavaMailSenderImpl mailSender;
+    private EmailNotificationService emailService;
+    private RenderedEmail email;
+    private byte[] encoded;
+
+    @Setup
+    public void setup() throws Exception {
+        mailSender = new BenchmarkFixtures.NoOpMailSender();
+        emailService = BenchmarkFixtures.emailService(mailSender, null, "copies", BenchmarkFixtures.recipients(3));
+        email = emailService.renderReportViewed(BenchmarkFixtures.sampleEvent());
+        encoded = emailService.encode(email);
+    }
+
+    @Benchmark
+    public byte[] buildAndEncode() throws Exception {
+        return emailService.encode(email);
+    }
+
+    @Benchmark
+    public MimeMessage copyFromEncoded() throws Exception {
+        MimeMessage message = mailSender.createMimeMessage(new SharedByteArrayInputStream(encoded));
+        message.setRecipient(Message.RecipientType.TO, new InternetAddress("admin0@quejas-boyaca.local"));
+        return message;
+    }
+}
@@ -0,0 +1,61 @@
+package co.edu.uptc.notification.loadtest;
+
+import co.edu.uptc.notification.service.NotificationMetrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Muestrea hilos activos y profundidad de cola de cada executor durante una etapa y guarda los picos
+class ExecutorSampler {
+
+    private static final long SAMPLE_INTERVAL_MS = 200;
+
+    private final NotificationMetrics metrics;
+    private final Map<String, Long> peakActiveThreads = new ConcurrentHashMap<>();
+    private final Map<String, Long> peakQueueDepth = new ConcurrentHashMap<>();
+    private volatile boolean running;
+    private Thread sampler;
+
+    ExecutorSampler(NotificationMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    void start() {
+        running = true;
+        sampler = new Thread(() -> {
+            while (running) {
+                sample();
+                try {
+                    Thread.sleep(SAMPLE_INTERVAL_MS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, "executor-sampler");
+        sampler.setDaemon(true);
+        sampler.start();
+    }
+
+    private void sample() {
+        LoadHarness.executorCounter(metrics, "activeThreads").forEach((name, value) -> peakActiveThreads.merge(name, value, Math::max));
+        LoadHarness.executorCounter(metrics, "queueDepth").forEach((name, value) -> peakQueueDepth.merge(name, value, Math::max));
+    }
+
+    void stop() throws InterruptedException {
+        running = false;
+        sampler.interrupt();
+        sampler.join();
+        sample();
+    }
+
+    Map<String, Object> peaks(Map<String, Long> rejectionsBefore, Map<String, Long> rejectionsAfter) {
+        Map<String, Object> peaks = new LinkedHashMap<>();
+        rejectionsAfter.forEach((name, rejections) -> peaks.put(name, Map.of(
+                "peakActiveThreads", peakActiveThreads.getOrDefault(name, 0L),
+                "peakQueueDepth", peakQueueDepth.getOrDefault(name, 0L),
+                "rejections", rejections - rejectionsBefore.getOrDefault(name, 0L)
+        )));
+        return peaks;
+    }
+}
@@ -0,0 +1,387 @@
+package co.edu.uptc.notification.loadtest;
+
+import co.edu.uptc.notification.dto.ReportViewedEventDTO;
+import co.edu.uptc.notification.service.LatencyHistogram;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Broker falso: acepta la suscripcion del servicio y le dispara callbacks REPORT_VIEWED a tasa fija.
+// En modo stream entrega los eventos por un canal SSE, respetando los creditos que concede el servicio en cada ack
+public class FakeBroker implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(FakeBroker.class);
+
+    private static final String[] REPORT_TYPES = {"REPORTE_GENERAL", "REPORTE_MENSUAL", "REPORTE_POR_MUNICIPIO"};
+
+    private final HttpServer server;
+    private final ExecutorService httpExecutor = Executors.newFixedThreadPool(4);
+    private final ExecutorService clientExecutor = Executors.newFixedThreadPool(8);
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final CountDownLatch subscribed = new CountDownLatch(1);
+    private final boolean streamMode;
+    private volatile String callbackUrl;
+    // Formato pedido en la suscripcion para los callbacks; el canal SSE siempre va en JSON
+    private volatile String payloadFormat = "json";
+
+    // Estado del canal de streaming, protegido por streamLock
+    private final Object streamLock = new Object();
+    private final Deque<StreamEvent> streamQueue = new ArrayDeque<>();
+    private final NavigableMap<Long, StreamEvent> unacked = new ConcurrentSkipListMap<>();
+    private final AtomicLong streamSeq = new AtomicLong();
+    private String activeStreamId;
+    private long credits;
+
+    public FakeBroker() throws IOException {
+        this(false);
+    }
+
+    public FakeBroker(boolean streamMode) throws IOException {
+        this.streamMode = streamMode;
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 200);
+        server.createContext("/api/events/subscribe", this::handleSubscribe);
+        server.createContext("/api/events/stream", this::handleStream);
+        server.createContext("/api/events/health", exchange -> respond(exchange, 200, "{\"status\":\"UP\"}"));
+        server.setExecutor(httpExecutor);
+        server.start();
+
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(clientExecutor)
+                .build();
+
+        log.info("Fake broker listening on port {} ({} mode)", getPort(), streamMode ? "stream" : "callback");
+    }
+
+    private void handleSubscribe(HttpExchange exchange) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            Map<?, ?> subscription = objectMapper.readValue(body, Map.class);
+            callbackUrl = String.valueOf(subscription.get("callbackUrl"));
+            Object format = subscription.get("payloadFormat");
+            payloadFormat = format != null ? String.valueOf(format) : "json";
+        }
+        respond(exchange, 200, "{\"subscriptionId\":\"" + UUID.randomUUID() + "\",\"status\":\"ACTIVE\"}");
+        subscribed.countDown();
+        log.info("Notification service subscribed with callback {} ({} payloads)", callbackUrl, payloadFormat);
+    }
+
+    private void handleStream(HttpExchange exchange) throws IOException {
+        if (!streamMode) {
+            respond(exchange, 404, "{\"error\":\"streaming disabled\"}");
+            return;
+        }
+        if ("POST".equals(exchange.getRequestMethod()) && exchange.getRequestURI().getPath().endsWith("/ack")) {
+            handleAck(exchange);
+        } else {
+            handleStreamOpen(exchange);
+        }
+    }
+
+    private void handleStreamOpen(HttpExchange exchange) throws IOException {
+        String streamId = UUID.randomUUID().toString();
+        synchronized (streamLock) {
+            // Un canal nuevo reemplaza al anterior: lo no confirmado se reenvia en orden antes que lo nuevo
+            activeStreamId = streamId;
+            credits = queryLong(exchange.getRequestURI(), "credits", 64);
+            unacked.descendingMap().values().forEach(streamQueue::addFirst);
+            unacked.clear();
+            streamLock.notifyAll();
+        }
+
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        subscribed.countDown();
+        log.info("Notification service opened event stream {}", streamId);
+
+        try (OutputStream out = exchange.getResponseBody()) {
+            writeFrame(out, "open", null, "{\"streamId\":\"" + streamId + "\"}");
+            while (true) {
+                StreamEvent next;
+                synchronized (streamLock) {
+                    long waitUntil = System.currentTimeMillis() + 1000;
+                    while (streamId.equals(activeStreamId) && (credits <= 0 || streamQueue.isEmpty())
+                            && System.currentTimeMillis() < waitUntil) {
+                        streamLock.wait(Math.max(1, waitUntil - System.currentTimeMillis()));
+                    }
+                    if (!streamId.equals(activeStreamId)) {
+                        return;
+                    }
+                    next = credits > 0 ? streamQueue.pollFirst() : null;
+                    if (next != null) {
+                        credits--;
+                        unacked.put(next.seq, next);
+                    }
+                }
+                if (next == null) {
+                    out.write(": keep-alive\n\n".getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                } else {
+                    writeFrame(out, "REPORT_VIEWED", String.valueOf(next.seq), next.payload);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.info("Event stream {} closed: {}", streamId, e.getMessage());
+        }
+    }
+
+    private void handleAck(HttpExchange exchange) throws IOException {
+        Map<?, ?> ack;
+        try (InputStream body = exchange.getRequestBody()) {
+            ack = objectMapper.readValue(body, Map.class);
+        }
+        long ackSeq = ((Number) ack.get("ackSeq")).longValue();
+        long granted = ((Number) ack.get("credits")).longValue();
+
+        long now = System.nanoTime();
+        NavigableMap<Long, StreamEvent> confirmed = unacked.headMap(ackSeq, true);
+        confirmed.values().forEach(event -> {
+            event.result.latency.recordNanos(now - event.scheduledAt);
+            event.result.accepted.incrementAndGet();
+        });
+        confirmed.clear();
+
+        synchronized (streamLock) {
+            credits += granted;
+            streamLock.notifyAll();
+        }
+        respond(exchange, 200, "{\"status\":\"OK\"}");
+    }
+
+    private static void writeFrame(OutputStream out, String event, String id, String data) throws IOException {
+        StringBuilder frame = new StringBuilder();
+        frame.append("event: ").append(event).append('\n');
+        if (id != null) {
+            frame.append("id: ").append(id).append('\n');
+        }
+        frame.append("data: ").append(data).append("\n\n");
+        out.write(frame.toString().getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private static long queryLong(URI uri, String name, long defaultValue) {
+        String query = uri.getQuery();
+        if (query == null) {
+            return defaultValue;
+        }
+        for (String pair : query.split("&")) {
+            if (pair.startsWith(name + "=")) {
+                return Long.parseLong(pair.substring(name.length() + 1));
+            }
+        }
+        return defaultValue;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    public boolean awaitSubscription(long timeout, TimeUnit unit) throws InterruptedException {
+        return subscribed.await(timeout, unit);
+    }
+
+    // Carga de lazo abierto: la latencia se mide desde el instante programado para no ocultar la cola
+    public StageResult fire(String eventIdPrefix, int ratePerSecond, int durationSeconds) throws InterruptedException {
+        if (streamMode) {
+            return fireStream(eventIdPrefix, ratePerSecond, durationSeconds);
+        }
+        StageResult result = new StageResult(ratePerSecond, durationSeconds);
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        long total = (long) ratePerSecond * durationSeconds;
+        URI callback = URI.create(callbackUrl);
+        ObjectMapper encoder = callbackEncoder();
+        String contentType = callbackContentType();
+        Map<Integer, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+
+        long start = System.nanoTime();
+        for (long i = 0; i < total; i++) {
+            long scheduledAt = start + i * intervalNanos;
+            long wait = scheduledAt - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            HttpRequest request = HttpRequest.newBuilder(callback)
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", contentType)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(eventPayload(encoder, eventIdPrefix + i, i)))
+                    .build();
+
+            int slot = (int) i;
+            result.sent.incrementAndGet();
+            CompletableFuture<?> response = client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((httpResponse, error) -> {
+                        result.latency.recordNanos(System.nanoTime() - scheduledAt);
+                        if (error != null) {
+                            result.errors.incrementAndGet();
+                        } else if (httpResponse.statusCode() == 200) {
+                            result.accepted.incrementAndGet();
+                        } else if (httpResponse.statusCode() == 503) {
+                            result.rejected.incrementAndGet();
+                        } else {
+                            result.errors.incrementAndGet();
+                        }
+                        inFlight.remove(slot);
+                    });
+            inFlight.put(slot, response);
+        }
+
+        CompletableFuture.allOf(inFlight.values().toArray(new CompletableFuture<?>[0])).exceptionally(e -> null).join();
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    // En modo stream la latencia va desde el instante programado hasta el ack que confirma el evento
+    private StageResult fireStream(String eventIdPrefix, int ratePerSecond, int durationSeconds)
+            throws InterruptedException {
+        StageResult result = new StageResult(ratePerSecond, durationSeconds);
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        long total = (long) ratePerSecond * durationSeconds;
+
+        long start = System.nanoTime();
+        for (long i = 0; i < total; i++) {
+            long scheduledAt = start + i * intervalNanos;
+            long wait = scheduledAt - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            String payload = new String(eventPayload(objectMapper, eventIdPrefix + i, i), StandardCharsets.UTF_8);
+            StreamEvent event = new StreamEvent(streamSeq.incrementAndGet(), payload, scheduledAt, result);
+            result.sent.incrementAndGet();
+            synchronized (streamLock) {
+                streamQueue.addLast(event);
+                streamLock.notifyAll();
+            }
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (result.accepted.get() < total && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    private ObjectMapper callbackEncoder() {
+        return switch (payloadFormat) {
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor().build();
+            case "smile" -> Jackson2ObjectMapperBuilder.smile().build();
+            default -> objectMapper;
+        };
+    }
+
+    private String callbackContentType() {
+        return switch (payloadFormat) {
+            case "cbor" -> "application/cbor";
+            case "smile" -> "application/x-jackson-smile";
+            default -> "application/json";
+        };
+    }
+
+    private byte[] eventPayload(ObjectMapper encoder, String eventId, long sequence) {
+        ReportViewedEventDTO event = new ReportViewedEventDTO();
+        event.setEventId(eventId);
+        event.setEventType("REPORT_VIEWED");
+        event.setIpAddress("10.0." + (sequence / 250 % 250) + "." + (sequence % 250));
+        event.setTimestamp(LocalDateTime.now().withNano(0));
+        event.setUserAgent("load-harness");
+        event.setTotalComplaints((int) (sequence % 500));
+        event.setReportType(REPORT_TYPES[(int) (sequence % REPORT_TYPES.length)]);
+        event.setSource("fake-broker");
+        try {
+            return encoder.writeValueAsBytes(event);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        synchronized (streamLock) {
+            activeStreamId = null;
+            streamLock.notifyAll();
+        }
+        server.stop(0);
+        httpExecutor.shutdownNow();
+        clientExecutor.shutdownNow();
+    }
+
+    private static final class StreamEvent {
+
+        final long seq;
+        final String payload;
+        final long scheduledAt;
+        final StageResult result;
+
+        StreamEvent(long seq, String payload, long scheduledAt, StageResult result) {
+            this.seq = seq;
+            this.payload = payload;
+            this.scheduledAt = scheduledAt;
+            this.result = result;
+        }
+    }
+
+    public static final class StageResult {
+
+        final int targetRate;
+        final int durationSeconds;
+        final AtomicLong sent = new AtomicLong();
+        final AtomicLong accepted = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+        final LatencyHistogram latency = new LatencyHistogram();
+        long elapsedNanos;
+
+        StageResult(int targetRate, int durationSeconds) {
+            this.targetRate = targetRate;
+            this.durationSeconds = durationSeconds;
+        }
+
+        double achievedRate() {
+            return (accepted.get() + rejected.get()) / (elapsedNanos / 1e9);
+        }
+    }
+}
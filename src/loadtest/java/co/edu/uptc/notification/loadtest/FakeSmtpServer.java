@@ -0,0 +1,216 @@
+package co.edu.uptc.notification.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Servidor SMTP en proceso: responde el dialogo minimo, con latencia y fallos inyectables
+public class FakeSmtpServer implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(FakeSmtpServer.class);
+
+    private final long latencyMs;
+    private final double transientFailureRate;
+    private final double permanentFailureRate;
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "fake-smtp");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // eventId|destinatario de cada entrega aceptada; los reintentos repetidos cuentan como duplicados
+    private final Set<String> deliveries = ConcurrentHashMap.newKeySet();
+    private final AtomicLong messagesAccepted = new AtomicLong();
+    private final AtomicLong duplicateDeliveries = new AtomicLong();
+    private final AtomicLong transientFailures = new AtomicLong();
+    private final AtomicLong permanentFailures = new AtomicLong();
+    private final AtomicLong connectionsOpened = new AtomicLong();
+
+    private volatile boolean running = true;
+
+    public FakeSmtpServer(long latencyMs, double transientFailureRate, double permanentFailureRate) throws IOException {
+        this.latencyMs = latencyMs;
+        this.transientFailureRate = transientFailureRate;
+        this.permanentFailureRate = permanentFailureRate;
+        this.serverSocket = new ServerSocket(0, 200, InetAddress.getLoopbackAddress());
+
+        Thread acceptor = new Thread(this::acceptLoop, "fake-smtp-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+
+        log.info("Fake SMTP server listening on port {} - Latency: {} ms, Transient failures: {}, Permanent failures: {}",
+                getPort(), latencyMs, transientFailureRate, permanentFailureRate);
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                connectionsOpened.incrementAndGet();
+                connections.execute(() -> handle(socket));
+            } catch (IOException e) {
+                if (running) {
+                    log.warn("Fake SMTP accept failed: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1));
+             Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.ISO_8859_1)) {
+
+            reply(out, "220 fake-smtp ESMTP ready");
+            List<String> recipients = new ArrayList<>();
+
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase(Locale.ROOT) : line.toUpperCase(Locale.ROOT);
+                switch (command) {
+                    case "EHLO" -> reply(out, "250-fake-smtp\r\n250-PIPELINING\r\n250-8BITMIME\r\n250 SMTPUTF8");
+                    case "HELO" -> reply(out, "250 fake-smtp");
+                    case "MAIL" -> {
+                        recipients.clear();
+                        reply(out, "250 2.1.0 OK");
+                    }
+                    case "RCPT" -> {
+                        recipients.add(extractAddress(line));
+                        reply(out, "250 2.1.5 OK");
+                    }
+                    case "DATA" -> {
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        String eventId = readData(in);
+                        reply(out, complete(eventId, recipients));
+                        recipients.clear();
+                    }
+                    case "RSET" -> {
+                        recipients.clear();
+                        reply(out, "250 2.0.0 OK");
+                    }
+                    case "NOOP" -> reply(out, "250 2.0.0 OK");
+                    case "QUIT" -> {
+                        reply(out, "221 2.0.0 Bye");
+                        return;
+                    }
+                    default -> reply(out, "502 5.5.2 Command not implemented");
+                }
+            }
+        } catch (IOException e) {
+            log.debug("Fake SMTP connection closed: {}", e.getMessage());
+        }
+    }
+
+    // Lee el mensaje hasta el punto final y devuelve la cabecera X-Event-Id si existe
+    private String readData(BufferedReader in) throws IOException {
+        String eventId = null;
+        boolean inHeaders = true;
+        String line;
+        while ((line = in.readLine()) != null && !".".equals(line)) {
+            if (inHeaders) {
+                if (line.isEmpty()) {
+                    inHeaders = false;
+                } else if (line.regionMatches(true, 0, "X-Event-Id:", 0, 11)) {
+                    eventId = line.substring(11).trim();
+                }
+            }
+        }
+        return eventId;
+    }
+
+    private String complete(String eventId, List<String> recipients) {
+        if (latencyMs > 0) {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        double roll = ThreadLocalRandom.current().nextDouble();
+        if (roll < transientFailureRate) {
+            transientFailures.incrementAndGet();
+            return "451 4.3.0 Temporary local problem, try again later";
+        }
+        if (roll < transientFailureRate + permanentFailureRate) {
+            permanentFailures.incrementAndGet();
+            return "554 5.7.1 Message rejected";
+        }
+
+        messagesAccepted.incrementAndGet();
+        String key = eventId != null ? eventId : "digest-" + messagesAccepted.get();
+        for (String recipient : recipients) {
+            if (!deliveries.add(key + "|" + recipient)) {
+                duplicateDeliveries.incrementAndGet();
+            }
+        }
+        return "250 2.0.0 OK queued";
+    }
+
+    private static String extractAddress(String line) {
+        int start = line.indexOf('<');
+        int end = line.indexOf('>', start + 1);
+        return start >= 0 && end > start ? line.substring(start + 1, end).toLowerCase(Locale.ROOT) : line.substring(8).trim();
+    }
+
+    private static void reply(Writer out, String response) throws IOException {
+        out.write(response);
+        out.write("\r\n");
+        out.flush();
+    }
+
+    public long countDeliveries(String eventIdPrefix) {
+        return deliveries.stream().filter(delivery -> delivery.startsWith(eventIdPrefix)).count();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public long getMessagesAccepted() {
+        return messagesAccepted.get();
+    }
+
+    public long getDuplicateDeliveries() {
+        return duplicateDeliveries.get();
+    }
+
+    public long getTransientFailures() {
+        return transientFailures.get();
+    }
+
+    public long getPermanentFailures() {
+        return permanentFailures.get();
+    }
+
+    public long getConnectionsOpened() {
+        return connectionsOpened.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        serverSocket.close();
+        connections.shutdownNow();
+    }
+}
@@ -0,0 +1,227 @@
+package co.edu.uptc.notification.loadtest;
+
+import co.edu.uptc.notification.NotificationQuejasBoyacaApplication;
+import co.edu.uptc.notification.service.NotificationMetrics;
+import co.edu.uptc.notification.service.NotificationPipeline;
+import co.edu.uptc.notification.service.ReliableEmailSender;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Arranca el servicio contra un SMTP y un broker falsos y sube la tasa por etapas hasta encontrar la saturacion
+//
+//   ./mvnw -Ploadtest verify -Dload.rates=50,100,200,400 -Dload.stage-seconds=30 -Dload.smtp.latency-ms=80
+//
+// Con -Dload.delivery-mode=stream el broker falso entrega los eventos por SSE en vez de callbacks
+// Cualquier -Dload.app.<propiedad>=<valor> se pasa tal cual al servicio (p. ej. -Dload.app.notification.executor.mode=virtual)
+public final class LoadHarness {
+
+    private static final String APP_PREFIX = "load.app.";
+
+    private LoadHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int[] rates = Arrays.stream(System.getProperty("load.rates", "25,50,100,200").split(","))
+                .map(String::trim).mapToInt(Integer::parseInt).toArray();
+        int stageSeconds = Integer.getInteger("load.stage-seconds", 20);
+        int drainSeconds = Integer.getInteger("load.drain-seconds", 60);
+        int recipientCount = Integer.getInteger("load.recipients", 3);
+        long smtpLatencyMs = Long.getLong("load.smtp.latency-ms", 50);
+        double transientRate = Double.parseDouble(System.getProperty("load.smtp.transient-failure-rate", "0.0"));
+        double permanentRate = Double.parseDouble(System.getProperty("load.smtp.permanent-failure-rate", "0.0"));
+        boolean streamMode = "stream".equals(System.getProperty("load.delivery-mode", "callback"));
+        File report = new File(System.getProperty("load.report", "target/loadtest-report.json"));
+
+        Path workDir = Files.createTempDirectory("notification-loadtest");
+        int appPort = freePort();
+
+        try (FakeSmtpServer smtp = new FakeSmtpServer(smtpLatencyMs, transientRate, permanentRate);
+             FakeBroker broker = new FakeBroker(streamMode)) {
+
+            Map<String, Object> properties = appProperties(appPort, smtp.getPort(), broker.getPort(),
+                    recipientCount, workDir, streamMode);
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(NotificationQuejasBoyacaApplication.class)
+                    .properties(properties)
+                    .run()) {
+
+                if (!broker.awaitSubscription(30, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("Notification service never subscribed to the fake broker");
+                }
+
+                NotificationPipeline pipeline = context.getBean(NotificationPipeline.class);
+                NotificationMetrics metrics = context.getBean(NotificationMetrics.class);
+                ReliableEmailSender reliableSender = context.getBean(ReliableEmailSender.class);
+
+                List<Map<String, Object>> stages = new ArrayList<>();
+                for (int i = 0; i < rates.length; i++) {
+                    stages.add(runStage("s" + i + "-", rates[i], stageSeconds, drainSeconds, recipientCount,
+                            broker, smtp, pipeline, metrics, reliableSender));
+                }
+
+                Map<String, Object> summary = new LinkedHashMap<>();
+                summary.put("executorMode", properties.get("notification.executor.mode"));
+                summary.put("deliveryMode", properties.get("event.broker.delivery-mode"));
+                summary.put("recipients", recipientCount);
+                summary.put("stageSeconds", stageSeconds);
+                summary.put("smtpLatencyMs", smtpLatencyMs);
+                summary.put("smtpTransientFailureRate", transientRate);
+                summary.put("smtpPermanentFailureRate", permanentRate);
+                summary.put("smtpConnectionsOpened", smtp.getConnectionsOpened());
+                summary.put("saturationRate", saturationRate(stages));
+                summary.put("stages", stages);
+                summary.put("finalMetrics", Map.of("latencies", metrics.getLatencies(), "executors", metrics.getExecutors()));
+
+                report.getAbsoluteFile().getParentFile().mkdirs();
+                new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(report, summary);
+                printSummary(stages, summary.get("saturationRate"), report);
+            }
+        }
+    }
+
+    private static Map<String, Object> appProperties(int appPort, int smtpPort, int brokerPort, int recipientCount,
+                                                     Path workDir, boolean streamMode) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("server.port", appPort);
+        properties.put("event.broker.url", "http://localhost:" + brokerPort);
+        properties.put("notification.service.callback-url", "http://localhost:" + appPort);
+        properties.put("event.broker.delivery-mode", streamMode ? "stream" : "callback");
+
+        List<String> admins = new ArrayList<>();
+        for (int i = 0; i < recipientCount; i++) {
+            admins.add("admin" + i + "@loadtest.local");
+        }
+        properties.put("notification.email.admin-emails", String.join(",", admins));
+        properties.put("notification.email.from", "notificaciones@loadtest.local");
+
+        properties.put("spring.mail.host", "localhost");
+        properties.put("spring.mail.port", smtpPort);
+        properties.put("spring.mail.username", "");
+        properties.put("spring.mail.password", "");
+        properties.put("spring.mail.properties.mail.smtp.auth", false);
+        properties.put("spring.mail.properties.mail.smtp.starttls.enable", false);
+        properties.put("spring.mail.properties.mail.smtp.starttls.required", false);
+
+        // Se mide la capacidad del servicio, no las cuotas de Gmail
+        properties.put("notification.rate.enabled", false);
+        properties.put("notification.outbox.directory", workDir.resolve("outbox").toString());
+        properties.put("notification.delivery.dead-letter.directory", workDir.resolve("dead-letters").toString());
+        properties.put("notification.executor.mode", System.getProperty("load.executor-mode", "platform"));
+
+        properties.put("logging.level.root", "WARN");
+        properties.put("logging.level.co.edu.uptc.notification.loadtest", "INFO");
+        properties.put("logging.level.org.springframework.mail", "WARN");
+
+        System.getProperties().stringPropertyNames().stream()
+                .filter(name -> name.startsWith(APP_PREFIX))
+                .forEach(name -> properties.put(name.substring(APP_PREFIX.length()), System.getProperty(name)));
+        return properties;
+    }
+
+    private static Map<String, Object> runStage(String prefix, int rate, int stageSeconds, int drainSeconds,
+                                                int recipientCount, FakeBroker broker, FakeSmtpServer smtp,
+                                                NotificationPipeline pipeline, NotificationMetrics metrics,
+                                                ReliableEmailSender reliableSender)
+            throws InterruptedException {
+        System.out.printf("%n>>> Stage %s %d events/s for %d s%n", prefix, rate, stageSeconds);
+
+        long deadLetteredBefore = reliableSender.getDeadLettered();
+        Map<String, Long> rejectionsBefore = executorCounter(metrics, "rejections");
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+
+        ExecutorSampler sampler = new ExecutorSampler(metrics);
+        sampler.start();
+        FakeBroker.StageResult result = broker.fire(prefix, rate, stageSeconds);
+
+        // Espera a que el pipeline termine (entregado o en dead letters), con un limite de drain-seconds
+        long expected = result.accepted.get() * recipientCount;
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(drainSeconds);
+        long delivered = smtp.countDeliveries(prefix);
+        while (delivered < expected && pipeline.getInFlight() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(250);
+            delivered = smtp.countDeliveries(prefix);
+        }
+        delivered = smtp.countDeliveries(prefix);
+        sampler.stop();
+
+        Map<String, Object> stage = new LinkedHashMap<>();
+        stage.put("targetRate", rate);
+        stage.put("achievedRate", Math.round(result.achievedRate() * 10) / 10.0);
+        stage.put("sent", result.sent.get());
+        stage.put("accepted", result.accepted.get());
+        stage.put("rejected503", result.rejected.get());
+        stage.put("errors", result.errors.get());
+        stage.put("acceptLatency", result.latency.snapshot());
+        stage.put("emailsExpected", expected);
+        stage.put("emailsDelivered", delivered);
+        stage.put("emailsLost", Math.max(0, expected - delivered));
+        stage.put("deadLettered", reliableSender.getDeadLettered() - deadLetteredBefore);
+        stage.put("peakJvmThreads", threads.getPeakThreadCount());
+        stage.put("executors", sampler.peaks(rejectionsBefore, executorCounter(metrics, "rejections")));
+        return stage;
+    }
+
+    @SuppressWarnings("unchecked")
+    static Map<String, Long> executorCounter(NotificationMetrics metrics, String counter) {
+        Map<String, Long> values = new LinkedHashMap<>();
+        metrics.getExecutors().forEach((name, stats) -> {
+            Object value = ((Map<String, Object>) stats).get(counter);
+            values.put(name, value instanceof Number number ? number.longValue() : 0L);
+        });
+        return values;
+    }
+
+    // Primera etapa con 503s (>1%), emails perdidos o que no sostiene el 95% de la tasa pedida
+    private static Object saturationRate(List<Map<String, Object>> stages) {
+        for (Map<String, Object> stage : stages) {
+            long sent = (long) stage.get("sent");
+            long rejected = (long) stage.get("rejected503") + (long) stage.get("errors");
+            boolean saturated = rejected > sent / 100
+                    || (long) stage.get("emailsLost") > 0
+                    || (double) stage.get("achievedRate") < 0.95 * (int) stage.get("targetRate");
+            if (saturated) {
+                return stage.get("targetRate");
+            }
+        }
+        return "not reached";
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void printSummary(List<Map<String, Object>> stages, Object saturationRate, File report) {
+        System.out.println();
+        System.out.printf("%-8s %-9s %-9s %-8s %-8s %-9s %-9s %-9s %-8s %-8s%n",
+                "rate", "achieved", "accepted", "503", "errors", "p50 ms", "p99 ms", "delivered", "lost", "threads");
+        for (Map<String, Object> stage : stages) {
+            Map<String, Object> latency = (Map<String, Object>) stage.get("acceptLatency");
+            System.out.printf("%-8s %-9s %-9s %-8s %-8s %-9s %-9s %-9s %-8s %-8s%n",
+                    stage.get("targetRate"), stage.get("achievedRate"), stage.get("accepted"),
+                    stage.get("rejected503"), stage.get("errors"), latency.get("p50Ms"), latency.get("p99Ms"),
+                    stage.get("emailsDelivered"), stage.get("emailsLost"), stage.get("peakJvmThreads"));
+        }
+        System.out.println();
+        System.out.println("Saturation point (events/s): " + saturationRate);
+        System.out.println("Full report: " + report.getAbsolutePath());
+    }
+
+    private static int freePort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package co.edu.uptc.notification.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarFile;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// Compara el arranque del servicio en cada modo de despliegue: JVM normal, JVM con AOT de Spring, AOT + CDS
+// (o cache AOT en JDK 25+) e imagen nativa. Cada corrida mide hasta la primera respuesta de /health y hasta que
+// el broker falso recibe la suscripcion, que es cuando la replica empieza a recibir trafico
+//
+//   ./mvnw -Pcds,startup verify -Dstartup.runs=10
+//   ./mvnw -Pnative,cds,startup verify
+//
+// Los modos cuyo artefacto no existe, o cuyo jar no paso por process-aot, se reportan como omitidos
+public final class StartupBenchmark {
+
+    private static final Pattern STARTED = Pattern.compile(
+            "Started \\S+ in ([0-9.]+) seconds \\(process running for ([0-9.]+)\\)");
+    private static final long READY_TIMEOUT_MS = 120_000;
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> modes = Arrays.stream(System.getProperty("startup.modes", "jvm,aot,cds,native").split(","))
+                .map(String::trim).filter(mode -> !mode.isEmpty()).toList();
+        int runs = Integer.getInteger("startup.runs", 5);
+        Path jar = Path.of(System.getProperty("startup.jar", "target/notification-0.0.1-SNAPSHOT.jar"));
+        Path cdsDir = Path.of(System.getProperty("startup.cds-dir", "target/cds"));
+        Path nativeImage = Path.of(System.getProperty("startup.native", "target/notification"));
+        File report = new File(System.getProperty("startup.report", "target/startup-report.json"));
+
+        Map<String, Object> results = new LinkedHashMap<>();
+        for (String mode : modes) {
+            List<String> command = command(mode, jar, cdsDir, nativeImage);
+            if (command == null) {
+                skip(results, mode, "artifact not built");
+                continue;
+            }
+            // Sin el inicializador generado, spring.aot.enabled=true aborta el arranque
+            if (command.contains("-Dspring.aot.enabled=true") && !aotProcessed(Path.of(command.get(command.size() - 1)))) {
+                skip(results, mode, "jar not built with process-aot (-Pcds or -Pnative)");
+                continue;
+            }
+
+            System.out.printf("%n>>> Mode %s, %d runs: %s%n", mode, runs, String.join(" ", command));
+            List<Map<String, Object>> samples = new ArrayList<>();
+            try {
+                // Una corrida de calentamiento descartada: cache de disco del SO y del JIT de la primera vez
+                measure(command);
+                for (int i = 0; i < runs; i++) {
+                    Map<String, Object> sample = measure(command);
+                    samples.add(sample);
+                    System.out.printf("    run %d: %s%n", i + 1, sample);
+                }
+            } catch (IllegalStateException e) {
+                // Un modo que no arranca no invalida las mediciones de los demas
+                skip(results, mode, e.getMessage());
+                continue;
+            }
+            results.put(mode, summarize(samples));
+        }
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("javaVersion", Runtime.version().toString());
+        summary.put("runs", runs);
+        summary.put("modes", results);
+
+        report.getAbsoluteFile().getParentFile().mkdirs();
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(report, summary);
+        printSummary(results, report);
+    }
+
+    private static void skip(Map<String, Object> results, String mode, String reason) {
+        System.out.printf("%n>>> Mode %s skipped: %s%n", mode, reason);
+        Map<String, Object> skipped = new LinkedHashMap<>();
+        skipped.put("skipped", true);
+        skipped.put("reason", reason);
+        results.put(mode, skipped);
+    }
+
+    // process-aot deja clases *__ApplicationContextInitializer junto a la clase principal
+    private static boolean aotProcessed(Path jar) {
+        try (JarFile file = new JarFile(jar.toFile())) {
+            return file.stream().anyMatch(entry -> entry.getName().endsWith("__ApplicationContextInitializer.class"));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static List<String> command(String mode, Path jar, Path cdsDir, Path nativeImage) {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        return switch (mode) {
+            case "jvm" -> Files.exists(jar) ? new ArrayList<>(List.of(java, "-jar", jar.toString())) : null;
+            // Requiere un jar procesado con -Pcds o -Pnative (goal process-aot)
+            case "aot" -> Files.exists(jar)
+                    ? new ArrayList<>(List.of(java, "-Dspring.aot.enabled=true", "-jar", jar.toString()))
+                    : null;
+            case "cds" -> {
+                Path extracted = cdsDir.resolve(jar.getFileName());
+                Path aotCache = cdsDir.resolve("application.aot");
+                Path archive = cdsDir.resolve("application.jsa");
+                String option = Files.exists(aotCache) ? "-XX:AOTCache=" + aotCache
+                        : Files.exists(archive) ? "-XX:SharedArchiveFile=" + archive : null;
+                yield option != null && Files.exists(extracted)
+                        ? new ArrayList<>(List.of(java, option, "-Dspring.aot.enabled=true", "-jar", extracted.toString()))
+                        : null;
+            }
+            case "native" -> Files.isExecutable(nativeImage) ? new ArrayList<>(List.of(nativeImage.toString())) : null;
+            default -> throw new IllegalArgumentException("Unknown startup mode: " + mode);
+        };
+    }
+
+    private static Map<String, Object> measure(List<String> baseCommand) throws Exception {
+        Path workDir = Files.createTempDirectory("notification-startup");
+        int appPort = freePort();
+
+        try (FakeBroker broker = new FakeBroker()) {
+            List<String> command = new ArrayList<>(baseCommand);
+            command.addAll(appArguments(appPort, broker.getPort()));
+
+            long launchedAt = System.nanoTime();
+            Process process = new ProcessBuilder(command)
+                    .directory(workDir.toFile())
+                    .redirectErrorStream(true)
+                    .start();
+            StartedLine started = new StartedLine();
+            Thread output = new Thread(() -> started.scan(process), "startup-output");
+            output.setDaemon(true);
+            output.start();
+
+            try {
+                long firstResponseMs = awaitHealthy(appPort, process, launchedAt);
+                boolean subscribed = broker.awaitSubscription(
+                        Math.max(1, READY_TIMEOUT_MS - elapsedMs(launchedAt)), TimeUnit.MILLISECONDS);
+                long subscribedMs = elapsedMs(launchedAt);
+
+                Map<String, Object> sample = new LinkedHashMap<>();
+                sample.put("firstResponseMs", firstResponseMs);
+                sample.put("subscribedMs", subscribed ? subscribedMs : null);
+                sample.put("reportedStartupMs", started.startupMs);
+                sample.put("rssMb", rssMb(process.pid()));
+                return sample;
+            } finally {
+                process.destroy();
+                if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                    process.destroyForcibly().waitFor(10, TimeUnit.SECONDS);
+                }
+            }
+        } finally {
+            // Cada corrida deja outbox, dead letters y auditoria en su directorio de trabajo
+            deleteRecursively(workDir);
+        }
+    }
+
+    private static void deleteRecursively(Path dir) {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            System.out.printf("    could not delete %s: %s%n", dir, e.getMessage());
+        }
+    }
+
+    private static List<String> appArguments(int appPort, int brokerPort) {
+        return List.of(
+                "--server.port=" + appPort,
+                "--event.broker.url=http://localhost:" + brokerPort,
+                "--notification.service.callback-url=http://localhost:" + appPort,
+                "--notification.email.admin-emails=admin@startup.local",
+                "--notification.email.from=notificaciones@startup.local",
+                "--spring.mail.username=",
+                "--spring.mail.password=",
+                "--logging.level.root=WARN",
+                "--logging.level.co.edu.uptc.notification.NotificationQuejasBoyacaApplication=INFO");
+    }
+
+    private static long awaitHealthy(int appPort, Process process, long launchedAt) throws Exception {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + appPort + "/api/notifications/health"))
+                .timeout(Duration.ofMillis(500))
+                .GET()
+                .build();
+        while (elapsedMs(launchedAt) < READY_TIMEOUT_MS) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Service exited with status " + process.exitValue() + " before becoming healthy");
+            }
+            try {
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return elapsedMs(launchedAt);
+                }
+            } catch (IOException e) {
+                // Aun no escucha en el puerto
+            }
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException("Service not healthy after " + READY_TIMEOUT_MS + " ms");
+    }
+
+    // Memoria residente tras el arranque; solo disponible en Linux
+    private static Long rssMb(long pid) {
+        Path status = Path.of("/proc", Long.toString(pid), "status");
+        if (!Files.exists(status)) {
+            return null;
+        }
+        try {
+            for (String line : Files.readAllLines(status, StandardCharsets.US_ASCII)) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", "")) / 1024;
+                }
+            }
+        } catch (Exception e) {
+            return null;
+        }
+        return null;
+    }
+
+    private static Map<String, Object> summarize(List<Map<String, Object>> samples) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        for (String metric : List.of("firstResponseMs", "subscribedMs", "reportedStartupMs", "rssMb")) {
+            long[] values = samples.stream()
+                    .map(sample -> sample.get(metric))
+                    .filter(value -> value instanceof Number)
+                    .mapToLong(value -> ((Number) value).longValue())
+                    .sorted()
+                    .toArray();
+            if (values.length == 0) {
+                continue;
+            }
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("median", values[values.length / 2]);
+            stats.put("min", values[0]);
+            stats.put("max", values[values.length - 1]);
+            summary.put(metric, stats);
+        }
+        summary.put("samples", samples);
+        return summary;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void printSummary(Map<String, Object> results, File report) {
+        System.out.println();
+        System.out.printf("%-8s %-16s %-14s %-16s %-8s%n", "mode", "first-resp(ms)", "subscribed(ms)", "reported(ms)", "rss(MB)");
+        results.forEach((mode, value) -> {
+            Map<String, Object> result = (Map<String, Object>) value;
+            if (result.containsKey("skipped")) {
+                System.out.printf("%-8s skipped (%s)%n", mode, result.get("reason"));
+                return;
+            }
+            System.out.printf("%-8s %-16s %-14s %-16s %-8s%n", mode,
+                    median(result, "firstResponseMs"), median(result, "subscribedMs"),
+                    median(result, "reportedStartupMs"), median(result, "rssMb"));
+        });
+        System.out.println();
+        System.out.println("Full report: " + report.getAbsolutePath());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object median(Map<String, Object> result, String metric) {
+        Object stats = result.get(metric);
+        return stats instanceof Map ? ((Map<String, Object>) stats).get("median") : "-";
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private static int freePort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            return socket.getLocalPort();
+        }
+    }
+
+    // Lee la salida del proceso (para que no se bloquee) y extrae el "Started ... in X seconds" de Spring Boot
+    private static final class StartedLine {
+
+        private volatile Long startupMs;
+
+        void scan(Process process) {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    Matcher matcher = STARTED.matcher(line);
+                    if (startupMs == null && matcher.find()) {
+                        startupMs = Math.round(Double.parseDouble(matcher.group(1)) * 1000);
+                    }
+                }
+            } catch (Exception e) {
+                // El proceso termino
+            }
+        }
+    }
+}
@@ -1,13 +1,16 @@
 package co.edu.uptc.notification;
 
+import co.edu.uptc.notification.config.NotificationRuntimeHints;
 import co.edu.uptc.notification.service.BrokerSubscriptionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.context.event.EventListener;
 
 @SpringBootApplication
+@ImportRuntimeHints(NotificationRuntimeHints.class)
 public class NotificationQuejasBoyacaApplication {
 
     @Autowired
@@ -1,15 +1,20 @@
 package co.edu.uptc.notification.config;
 
+import co.edu.uptc.notification.service.PriorityLane;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.lang.reflect.Method;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadPoolExecutor;
 
@@ -19,16 +24,39 @@ public class AsyncConfiguration implements AsyncConfigurer {
 
     private static final Logger log = LoggerFactory.getLogger(AsyncConfiguration.class);
 
+    @Value("${notification.executor.mode:platform}")
+    private String executorMode;
+
+    @Value("${notification.priority.enabled:true}")
+    private boolean priorityEnabled;
+
+    @Value("${notification.priority.max-wait-ms:5000}")
+    private long priorityMaxWaitMs;
+
+    @Value("${notification.priority.urgent.weight:8}")
+    private int urgentWeight;
+
+    @Value("${notification.priority.high.weight:3}")
+    private int highWeight;
+
+    @Value("${notification.priority.normal.weight:1}")
+    private int normalWeight;
+
     @Bean(name = "emailSenderExecutor")
     public Executor emailSenderExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        if (useVirtualThreads()) {
+            return virtualThreadExecutor("email-sender-", 120);
+        }
+
+        ThreadPoolTaskExecutor executor = laneAwareExecutor();
 
         executor.setCorePoolSize(3);
         executor.setMaxPoolSize(10);
         executor.setQueueCapacity(200);
         executor.setThreadNamePrefix("email-sender-");
 
-        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        // Sin CallerRunsPolicy: al saturarse el pipeline responde 503 en lugar de usar hilos de Tomcat
+        executor.setRejectedExecutionHandler(new CountingRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy()));
 
         executor.setAwaitTerminationSeconds(120);
         executor.setWaitForTasksToCompleteOnShutdown(true);
@@ -43,19 +71,23 @@ public class AsyncConfiguration implements AsyncConfigurer {
 
     @Bean(name = "eventProcessorExecutor")
     public Executor eventProcessorExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        if (useVirtualThreads()) {
+            return virtualThreadExecutor("event-proc-", 60);
+        }
+
+        ThreadPoolTaskExecutor executor = laneAwareExecutor();
 
         executor.setCorePoolSize(5);
         executor.setMaxPoolSize(15);
         executor.setQueueCapacity(100);
         executor.setThreadNamePrefix("event-proc-");
-        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setRejectedExecutionHandler(new CountingRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy()));
         executor.setAwaitTerminationSeconds(60);
         executor.setWaitForTasksToCompleteOnShutdown(true);
 
         executor.initialize();
 
-        log.info("Event Processor Executor initialized");
+        log.info("Event Processor Executor initialized - Priority lanes: {}", priorityEnabled);
 
         return executor;
     }
@@ -63,13 +95,17 @@ public class AsyncConfiguration implements AsyncConfigurer {
     @Override
     @Bean(name = "taskExecutor")
     public Executor getAsyncExecutor() {
+        if (useVirtualThreads()) {
+            return virtualThreadExecutor("async-", 60);
+        }
+
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
 
         executor.setCorePoolSize(3);
         executor.setMaxPoolSize(10);
         executor.setQueueCapacity(50);
         executor.setThreadNamePrefix("async-");
-        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setRejectedExecutionHandler(new CountingRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy()));
         executor.setAwaitTerminationSeconds(60);
         executor.setWaitForTasksToCompleteOnShutdown(true);
 
@@ -78,6 +114,41 @@ public class AsyncConfiguration implements AsyncConfigurer {
         return executor;
     }
 
+    // Con carriles activos la cola del pool reparte los hilos por peso; la capacidad configurada es por carril
+    private ThreadPoolTaskExecutor laneAwareExecutor() {
+        if (!priorityEnabled) {
+            return new ThreadPoolTaskExecutor();
+        }
+        Map<PriorityLane, Integer> weights = new EnumMap<>(PriorityLane.class);
+        weights.put(PriorityLane.URGENT, urgentWeight);
+        weights.put(PriorityLane.HIGH, highWeight);
+        weights.put(PriorityLane.NORMAL, normalWeight);
+        return new PriorityLaneTaskExecutor(weights, priorityMaxWaitMs);
+    }
+
+    private boolean useVirtualThreads() {
+        if (!"virtual".equalsIgnoreCase(executorMode)) {
+            return false;
+        }
+        if (Runtime.version().feature() < 21) {
+            log.warn("Virtual thread executor mode requires Java 21+, running on {}; using platform pools",
+                    Runtime.version());
+            return false;
+        }
+        return true;
+    }
+
+    // Un hilo virtual por tarea: la concurrencia real la limita DownstreamConcurrencyLimiter
+    private Executor virtualThreadExecutor(String threadNamePrefix, int awaitTerminationSeconds) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(true);
+        executor.setTaskTerminationTimeout(awaitTerminationSeconds * 1000L);
+
+        log.info("Virtual thread executor initialized - Prefix: {}", threadNamePrefix);
+
+        return executor;
+    }
+
     @Override
     public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
         return new CustomAsyncExceptionHandler();
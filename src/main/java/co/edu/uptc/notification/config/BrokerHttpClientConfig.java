@@ -0,0 +1,38 @@
+package co.edu.uptc.notification.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class BrokerHttpClientConfig {
+
+    @Value("${event.broker.connect-timeout-ms:2000}")
+    private long connectTimeoutMs;
+
+    // Cliente HTTP/1.1 con keep-alive: las conexiones al broker se reutilizan entre llamadas
+    @Bean(name = "brokerHttpClient")
+    public HttpClient brokerHttpClient() {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .executor(brokerClientExecutor())
+                .build();
+    }
+
+    // Hilos solo para completar respuestas; las llamadas al broker no bloquean hilos de la aplicacion
+    private ExecutorService brokerClientExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "broker-client-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
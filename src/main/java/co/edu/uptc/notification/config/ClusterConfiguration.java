@@ -0,0 +1,34 @@
+package co.edu.uptc.notification.config;
+
+import co.edu.uptc.notification.service.ClusterMembershipStore;
+import co.edu.uptc.notification.service.FileMembershipStore;
+import co.edu.uptc.notification.service.InMemoryMembershipStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+@Configuration
+public class ClusterConfiguration {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterConfiguration.class);
+
+    @Value("${notification.cluster.store:memory}")
+    private String storeType;
+
+    @Value("${notification.cluster.directory:data/cluster}")
+    private String directory;
+
+    @Bean
+    public ClusterMembershipStore clusterMembershipStore() {
+        if ("file".equalsIgnoreCase(storeType)) {
+            log.info("Cluster membership store: shared directory {}", directory);
+            return new FileMembershipStore(Path.of(directory));
+        }
+        log.info("Cluster membership store: in-memory");
+        return new InMemoryMembershipStore();
+    }
+}
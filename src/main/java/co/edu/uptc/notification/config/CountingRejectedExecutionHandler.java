@@ -0,0 +1,30 @@
+package co.edu.uptc.notification.config;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Cuenta los rechazos antes de delegar en la politica real del executor
+public class CountingRejectedExecutionHandler implements RejectedExecutionHandler {
+
+    private final RejectedExecutionHandler delegate;
+    private final AtomicLong rejected = new AtomicLong();
+
+    public CountingRejectedExecutionHandler(RejectedExecutionHandler delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+        rejected.incrementAndGet();
+        delegate.rejectedExecution(task, executor);
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public String getPolicy() {
+        return delegate.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,61 @@
+package co.edu.uptc.notification.config;
+
+import co.edu.uptc.notification.dto.BatchIngestionResultDTO;
+import co.edu.uptc.notification.dto.DeadLetterDTO;
+import co.edu.uptc.notification.dto.RecipientRuleDTO;
+import co.edu.uptc.notification.dto.ReportViewedDigestDTO;
+import co.edu.uptc.notification.dto.ReportViewedEventDTO;
+import co.edu.uptc.notification.dto.ReportViewedEventDeserializer;
+import co.edu.uptc.notification.dto.SubscriptionRequestDTO;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+// Lo que el analisis AOT no deduce solo: DTOs que Jackson enlaza fuera de los controllers (callbacks por
+// lotes, SSE, reglas de enrutamiento), las plantillas que se leen por nombre y los proveedores de Jakarta Mail
+public class NotificationRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final String[] MAIL_RESOURCES = {
+            "META-INF/javamail.default.providers",
+            "META-INF/javamail.default.address.map",
+            "META-INF/javamail.charset.map",
+            "META-INF/mailcap",
+            "META-INF/mailcap.default",
+            "META-INF/mimetypes.default"
+    };
+
+    private static final String[] MAIL_TYPES = {
+            "org.eclipse.angus.mail.smtp.SMTPTransport",
+            "org.eclipse.angus.mail.smtp.SMTPSSLTransport",
+            "org.eclipse.angus.mail.handlers.text_plain",
+            "org.eclipse.angus.mail.handlers.text_html",
+            "org.eclipse.angus.mail.handlers.text_xml",
+            "org.eclipse.angus.mail.handlers.multipart_mixed",
+            "org.eclipse.angus.mail.handlers.message_rfc822"
+    };
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                ReportViewedEventDTO.class,
+                ReportViewedDigestDTO.class,
+                SubscriptionRequestDTO.class,
+                BatchIngestionResultDTO.class,
+                DeadLetterDTO.class,
+                RecipientRuleDTO.class);
+        // Lo instancia Jackson a partir de @JsonDeserialize(using = ...)
+        hints.reflection().registerType(ReportViewedEventDeserializer.class,
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+
+        hints.resources().registerPattern("templates/*.html");
+
+        for (String resource : MAIL_RESOURCES) {
+            hints.resources().registerPattern(resource);
+        }
+        // Session carga el transporte y los manejadores de contenido por nombre de clase
+        for (String type : MAIL_TYPES) {
+            hints.reflection().registerTypeIfPresent(classLoader, type, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package co.edu.uptc.notification.config;
+
+import co.edu.uptc.notification.service.LatencyHistogram;
+import co.edu.uptc.notification.service.PriorityLane;
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Cola de executor con un carril acotado por prioridad. Se atiende por round-robin ponderado suave
+// (cada carril recibe hilos en proporcion a su peso) y cualquier tarea que espere mas de maxWait pasa
+// primero, asi una rafaga urgente no deja sin servicio al carril NORMAL
+public class PriorityLaneQueue extends AbstractQueue<Runnable> implements BlockingQueue<Runnable> {
+
+    private static final PriorityLane[] LANES = PriorityLane.values();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Lane[] lanes = new Lane[LANES.length];
+    private final int laneCapacity;
+    private final long maxWaitNanos;
+    private int size;
+
+    public PriorityLaneQueue(int laneCapacity, Map<PriorityLane, Integer> weights, long maxWaitMs) {
+        this.laneCapacity = laneCapacity;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        for (PriorityLane lane : LANES) {
+            lanes[lane.ordinal()] = new Lane(Math.max(1, weights.getOrDefault(lane, 1)));
+        }
+    }
+
+    @Override
+    public boolean offer(Runnable task) {
+        if (task == null) {
+            throw new NullPointerException();
+        }
+        Lane lane = lanes[PriorityLane.of(task).ordinal()];
+        lock.lock();
+        try {
+            if (lane.tasks.size() >= laneCapacity) {
+                lane.rejected++;
+                return false;
+            }
+            lane.tasks.addLast(new Node(task, System.nanoTime()));
+            size++;
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offer(Runnable task, long timeout, TimeUnit unit) {
+        return offer(task);
+    }
+
+    @Override
+    public void put(Runnable task) throws InterruptedException {
+        while (!offer(task)) {
+            Thread.sleep(1);
+        }
+    }
+
+    @Override
+    public Runnable poll() {
+        lock.lock();
+        try {
+            return size == 0 ? null : dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (size == 0) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (size == 0) {
+                notEmpty.await();
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Llamado con el lock tomado y size > 0
+    private Runnable dequeue() {
+        long now = System.nanoTime();
+        Lane chosen = null;
+
+        // Proteccion contra inanicion: la cabeza mas antigua que supero maxWait se atiende primero
+        long oldest = Long.MAX_VALUE;
+        for (Lane lane : lanes) {
+            Node head = lane.tasks.peekFirst();
+            if (head != null && now - head.enqueuedAt > maxWaitNanos && head.enqueuedAt < oldest) {
+                oldest = head.enqueuedAt;
+                chosen = lane;
+            }
+        }
+        if (chosen != null) {
+            chosen.aged++;
+        } else {
+            // Round-robin ponderado suave entre los carriles con trabajo
+            int totalWeight = 0;
+            for (Lane lane : lanes) {
+                if (!lane.tasks.isEmpty()) {
+                    lane.currentWeight += lane.weight;
+                    totalWeight += lane.weight;
+                    if (chosen == null || lane.currentWeight > chosen.currentWeight) {
+                        chosen = lane;
+                    }
+                }
+            }
+            chosen.currentWeight -= totalWeight;
+        }
+
+        Node node = chosen.tasks.pollFirst();
+        size--;
+        chosen.dispatched++;
+        chosen.wait.recordNanos(now - node.enqueuedAt);
+        return node.task;
+    }
+
+    @Override
+    public Runnable peek() {
+        lock.lock();
+        try {
+            for (Lane lane : lanes) {
+                Node head = lane.tasks.peekFirst();
+                if (head != null) {
+                    return head.task;
+                }
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(Object task) {
+        lock.lock();
+        try {
+            for (Lane lane : lanes) {
+                Iterator<Node> it = lane.tasks.iterator();
+                while (it.hasNext()) {
+                    if (it.next().task == task) {
+                        it.remove();
+                        size--;
+                        return true;
+                    }
+                }
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        lock.lock();
+        try {
+            return laneCapacity * lanes.length - size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> target) {
+        return drainTo(target, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> target, int maxElements) {
+        lock.lock();
+        try {
+            int drained = 0;
+            while (size > 0 && drained < maxElements) {
+                target.add(dequeue());
+                drained++;
+            }
+            return drained;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Copia: ThreadPoolExecutor solo recorre la cola para purge/shutdownNow
+    @Override
+    public Iterator<Runnable> iterator() {
+        List<Runnable> snapshot = new ArrayList<>();
+        lock.lock();
+        try {
+            for (Lane lane : lanes) {
+                lane.tasks.forEach(node -> snapshot.add(node.task));
+            }
+        } finally {
+            lock.unlock();
+        }
+        Iterator<Runnable> it = snapshot.iterator();
+        return new Iterator<>() {
+            private Runnable last;
+
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public Runnable next() {
+                last = it.next();
+                return last;
+            }
+
+            @Override
+            public void remove() {
+                PriorityLaneQueue.this.remove(last);
+            }
+        };
+    }
+
+    public Map<String, Object> getLaneStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            for (PriorityLane priority : LANES) {
+                Lane lane = lanes[priority.ordinal()];
+                Map<String, Object> laneStats = new LinkedHashMap<>();
+                laneStats.put("weight", lane.weight);
+                laneStats.put("depth", lane.tasks.size());
+                laneStats.put("capacity", laneCapacity);
+                laneStats.put("dispatched", lane.dispatched);
+                laneStats.put("agedDispatches", lane.aged);
+                laneStats.put("rejected", lane.rejected);
+                laneStats.put("queueWait", lane.wait.snapshot());
+                stats.put(priority.name(), laneStats);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return stats;
+    }
+
+    private static final class Lane {
+
+        final int weight;
+        final ArrayDeque<Node> tasks = new ArrayDeque<>();
+        final LatencyHistogram wait = new LatencyHistogram();
+        int currentWeight;
+        long dispatched;
+        long aged;
+        long rejected;
+
+        Lane(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    private static final class Node {
+
+        final Runnable task;
+        final long enqueuedAt;
+
+        Node(Runnable task, long enqueuedAt) {
+            this.task = task;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package co.edu.uptc.notification.config;
+
+import co.edu.uptc.notification.service.PriorityLane;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+
+// ThreadPoolTaskExecutor cuya cola reparte los hilos entre carriles de prioridad
+public class PriorityLaneTaskExecutor extends ThreadPoolTaskExecutor {
+
+    private final Map<PriorityLane, Integer> weights;
+    private final long maxWaitMs;
+    private PriorityLaneQueue laneQueue;
+
+    public PriorityLaneTaskExecutor(Map<PriorityLane, Integer> weights, long maxWaitMs) {
+        this.weights = weights;
+        this.maxWaitMs = maxWaitMs;
+    }
+
+    // queueCapacity es la capacidad de cada carril: el trafico rutinario no puede ocupar el cupo urgente
+    @Override
+    protected BlockingQueue<Runnable> createQueue(int queueCapacity) {
+        laneQueue = new PriorityLaneQueue(queueCapacity, weights, maxWaitMs);
+        return laneQueue;
+    }
+
+    public Map<String, Object> getLaneStats() {
+        return laneQueue != null ? laneQueue.getLaneStats() : Map.of();
+    }
+}
@@ -0,0 +1,34 @@
+package co.edu.uptc.notification.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.ThreadPoolTaskSchedulerBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfiguration {
+
+    @Value("${notification.delivery.retry-scheduler-threads:2}")
+    private int retrySchedulerThreads;
+
+    // Scheduler de las tareas @Scheduled (spring.task.scheduling.*). Se declara aqui porque al existir
+    // deliveryRetryScheduler Spring Boot ya no crea el suyo
+    @Bean(name = "taskScheduler")
+    public ThreadPoolTaskScheduler taskScheduler(ThreadPoolTaskSchedulerBuilder builder) {
+        return builder.build();
+    }
+
+    // Los reintentos de envio no comparten hilos con las tareas programadas: un NOOP lento al SMTP o una
+    // compactacion del outbox no debe retrasar los reintentos
+    @Bean(name = "deliveryRetryScheduler")
+    public ThreadPoolTaskScheduler deliveryRetryScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(Math.max(1, retrySchedulerThreads));
+        scheduler.setThreadNamePrefix("delivery-retry-");
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+}
@@ -0,0 +1,41 @@
+package co.edu.uptc.notification.controller;
+
+import co.edu.uptc.notification.service.ViewAnalytics;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/notifications/analytics")
+@CrossOrigin(origins = "*")
+public class AnalyticsController {
+
+    private static final Set<String> GROUPINGS = Set.of("series", "reportType", "source", "none");
+
+    private final ViewAnalytics viewAnalytics;
+
+    public AnalyticsController(ViewAnalytics viewAnalytics) {
+        this.viewAnalytics = viewAnalytics;
+    }
+
+    @GetMapping
+    public ResponseEntity<?> getViews(@RequestParam(defaultValue = "HOUR") ViewAnalytics.Window window,
+                                      @RequestParam(defaultValue = "series") String groupBy,
+                                      @RequestParam(required = false) String reportType,
+                                      @RequestParam(required = false) String source,
+                                      @RequestParam(defaultValue = "false") boolean timeline) {
+        if (!GROUPINGS.contains(groupBy)) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "error", "groupBy must be one of " + GROUPINGS
+            ));
+        }
+        if (!viewAnalytics.isEnabled()) {
+            return ResponseEntity.ok(Map.of(
+                    "enabled", false
+            ));
+        }
+        return ResponseEntity.ok(viewAnalytics.query(window, groupBy, reportType, source, timeline));
+    }
+}
@@ -0,0 +1,48 @@
+package co.edu.uptc.notification.controller;
+
+import co.edu.uptc.notification.service.EventAuditRing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/notifications/audit")
+@CrossOrigin(origins = "*")
+public class AuditController {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditController.class);
+    private final EventAuditRing auditRing;
+
+    public AuditController(EventAuditRing auditRing) {
+        this.auditRing = auditRing;
+    }
+
+    @GetMapping
+    public ResponseEntity<?> getRecent(@RequestParam(defaultValue = "100") int limit,
+                                       @RequestParam(required = false) String eventId,
+                                       @RequestParam(required = false) String reportType,
+                                       @RequestParam(required = false) EventAuditRing.Kind kind) {
+        return ResponseEntity.ok(Map.of(
+                "capacity", auditRing.getCapacity(),
+                "recorded", auditRing.getRecorded(),
+                "counts", auditRing.getCounts(),
+                "entries", auditRing.recent(Math.max(0, limit), eventId, reportType, kind)
+        ));
+    }
+
+    @PostMapping("/flush")
+    public ResponseEntity<?> flush() {
+        try {
+            return ResponseEntity.ok(auditRing.flush());
+        } catch (Exception e) {
+            log.error("Error flushing event audit ring", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+                    "error", "Error flushing audit ring: " + e.getMessage()
+            ));
+        }
+    }
+}
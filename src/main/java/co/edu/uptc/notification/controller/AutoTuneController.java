@@ -0,0 +1,69 @@
+package co.edu.uptc.notification.controller;
+
+import co.edu.uptc.notification.service.ExecutorAutoTuner;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/notifications/autotune")
+@CrossOrigin(origins = "*")
+public class AutoTuneController {
+
+    private final ExecutorAutoTuner autoTuner;
+
+    public AutoTuneController(ExecutorAutoTuner autoTuner) {
+        this.autoTuner = autoTuner;
+    }
+
+    @GetMapping
+    public ResponseEntity<?> getStatus() {
+        return ResponseEntity.ok(Map.of(
+                "enabled", autoTuner.isEnabled(),
+                "minSmtpSendLatencyMs", autoTuner.getMinSendLatencyMs(),
+                "pools", autoTuner.getPools(),
+                "decisions", autoTuner.getDecisions()
+        ));
+    }
+
+    @PostMapping("/enabled")
+    public ResponseEntity<?> setEnabled(@RequestParam boolean value) {
+        autoTuner.setEnabled(value);
+        return ResponseEntity.ok(Map.of("enabled", value));
+    }
+
+    // Fija el corePoolSize de un executor; el auto-tuner deja de ajustarlo hasta borrar el override
+    @PutMapping("/override/{executor}")
+    public ResponseEntity<?> setOverride(@PathVariable String executor, @RequestBody Map<String, Integer> body) {
+        Integer coreSize = body.get("corePoolSize");
+        if (coreSize == null || coreSize < 1) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "error", "corePoolSize must be a positive integer"
+            ));
+        }
+        if (!autoTuner.setOverride(executor, coreSize)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                    "error", "Unknown or non-tunable executor: " + executor
+            ));
+        }
+        return ResponseEntity.ok(Map.of(
+                "executor", executor,
+                "corePoolSize", coreSize
+        ));
+    }
+
+    @DeleteMapping("/override/{executor}")
+    public ResponseEntity<?> clearOverride(@PathVariable String executor) {
+        if (!autoTuner.setOverride(executor, null)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                    "error", "Unknown or non-tunable executor: " + executor
+            ));
+        }
+        return ResponseEntity.ok(Map.of(
+                "executor", executor,
+                "override", "cleared"
+        ));
+    }
+}
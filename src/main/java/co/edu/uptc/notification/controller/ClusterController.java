@@ -0,0 +1,51 @@
+package co.edu.uptc.notification.controller;
+
+import co.edu.uptc.notification.service.ClusterMembership;
+import co.edu.uptc.notification.service.NotificationDispatcher;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/notifications/cluster")
+@CrossOrigin(origins = "*")
+public class ClusterController {
+
+    private final ClusterMembership cluster;
+    private final NotificationDispatcher dispatcher;
+
+    public ClusterController(ClusterMembership cluster, NotificationDispatcher dispatcher) {
+        this.cluster = cluster;
+        this.dispatcher = dispatcher;
+    }
+
+    @GetMapping
+    public ResponseEntity<?> getCluster() {
+        return ResponseEntity.ok(Map.of(
+                "enabled", cluster.isEnabled(),
+                "nodeId", cluster.getNodeId(),
+                "partitionKey", cluster.getPartitionKey(),
+                "members", cluster.getMembers(),
+                "lastRefreshAt", cluster.getLastRefreshAt(),
+                "rebalances", cluster.getRebalances(),
+                "ownedEvents", cluster.getOwnedEvents(),
+                "skippedEvents", cluster.getSkippedEvents(),
+                "failover", Map.of(
+                        "parked", dispatcher.getParkedEvents(),
+                        "released", dispatcher.getParkedReleased(),
+                        "expired", dispatcher.getParkedExpired(),
+                        "overflow", dispatcher.getParkedOverflow()
+                )
+        ));
+    }
+
+    // Util para verificar a que nodo le corresponde un eventId o reportType
+    @GetMapping("/owner")
+    public ResponseEntity<?> getOwner(@RequestParam String key) {
+        return ResponseEntity.ok(Map.of(
+                "key", key,
+                "owner", cluster.ownerOf(key)
+        ));
+    }
+}
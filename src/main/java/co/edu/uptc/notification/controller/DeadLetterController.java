@@ -0,0 +1,66 @@
+package co.edu.uptc.notification.controller;
+
+import co.edu.uptc.notification.service.DeadLetterStore;
+import co.edu.uptc.notification.service.NotificationPipeline;
+import co.edu.uptc.notification.service.ReliableEmailSender;
+import co.edu.uptc.notification.service.SmtpCircuitBreaker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/notifications/dead-letters")
+@CrossOrigin(origins = "*")
+public class DeadLetterController {
+
+    private static final Logger log = LoggerFactory.getLogger(DeadLetterController.class);
+    private final DeadLetterStore deadLetterStore;
+    private final NotificationPipeline pipeline;
+    private final ReliableEmailSender reliableSender;
+    private final SmtpCircuitBreaker circuitBreaker;
+
+    public DeadLetterController(DeadLetterStore deadLetterStore, NotificationPipeline pipeline,
+                                ReliableEmailSender reliableSender, SmtpCircuitBreaker circuitBreaker) {
+        this.deadLetterStore = deadLetterStore;
+        this.pipeline = pipeline;
+        this.reliableSender = reliableSender;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @GetMapping
+    public ResponseEntity<?> listDeadLetters(@RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(Map.of(
+                "total", deadLetterStore.size(),
+                "circuitState", circuitBreaker.getState(),
+                "retries", reliableSender.getRetries(),
+                "entries", deadLetterStore.list(Math.max(0, limit))
+        ));
+    }
+
+    // Sin ids se reenvian todas las entradas
+    @PostMapping("/replay")
+    public ResponseEntity<?> replayDeadLetters(@RequestBody(required = false) List<Long> ids) {
+        try {
+            List<DeadLetterStore.Replay> replays = deadLetterStore.takeForReplay(ids);
+            for (DeadLetterStore.Replay replay : replays) {
+                pipeline.redeliver(replay.getEmail(), replay.getRecipients());
+            }
+
+            log.info("Replaying {} dead letters", replays.size());
+            return ResponseEntity.accepted().body(Map.of(
+                    "message", "Dead letters queued for redelivery",
+                    "replayed", replays.size()
+            ));
+        } catch (Exception e) {
+            log.error("Error replaying dead letters", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+                    "error", "Failed to replay dead letters: " + e.getMessage()
+            ));
+        }
+    }
+}
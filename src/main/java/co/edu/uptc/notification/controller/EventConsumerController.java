@@ -1,13 +1,34 @@
 package co.edu.uptc.notification.controller;
 
+import co.edu.uptc.notification.config.EventEncodingConfiguration;
+import co.edu.uptc.notification.dto.BatchIngestionResultDTO;
 import co.edu.uptc.notification.dto.ReportViewedEventDTO;
+import co.edu.uptc.notification.service.BatchIngestionService;
+import co.edu.uptc.notification.service.BrokerStreamClient;
+import co.edu.uptc.notification.service.BrokerSubscriptionService;
+import co.edu.uptc.notification.service.DeadLetterStore;
 import co.edu.uptc.notification.service.EmailNotificationService;
+import co.edu.uptc.notification.service.EventDeduplicationCache;
+import co.edu.uptc.notification.service.EventOutbox;
+import co.edu.uptc.notification.service.NotificationDispatcher;
+import co.edu.uptc.notification.service.NotificationMetrics;
+import co.edu.uptc.notification.service.NotificationPipeline;
+import co.edu.uptc.notification.service.PipelineSaturatedException;
+import co.edu.uptc.notification.service.ReliableEmailSender;
+import co.edu.uptc.notification.service.ReportViewedDigestService;
+import co.edu.uptc.notification.service.SendScheduler;
+import co.edu.uptc.notification.service.SmtpCircuitBreaker;
+import co.edu.uptc.notification.service.SmtpTransportPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @RestController
@@ -17,13 +38,48 @@ public class EventConsumerController {
 
     private static final Logger log = LoggerFactory.getLogger(EventConsumerController.class);
     private final EmailNotificationService emailService;
+    private final NotificationDispatcher dispatcher;
+    private final NotificationPipeline pipeline;
+    private final BatchIngestionService batchIngestionService;
+    private final SmtpTransportPool transportPool;
+    private final SendScheduler sendScheduler;
+    private final ReportViewedDigestService digestService;
+    private final EventDeduplicationCache deduplicationCache;
+    private final EventOutbox outbox;
+    private final ReliableEmailSender reliableSender;
+    private final SmtpCircuitBreaker circuitBreaker;
+    private final DeadLetterStore deadLetterStore;
+    private final NotificationMetrics metrics;
+    private final BrokerSubscriptionService subscriptionService;
+    private final BrokerStreamClient streamClient;
 
-    public EventConsumerController(EmailNotificationService emailService) {
+    public EventConsumerController(EmailNotificationService emailService, NotificationDispatcher dispatcher,
+                                   NotificationPipeline pipeline, BatchIngestionService batchIngestionService, SmtpTransportPool transportPool,
+                                   SendScheduler sendScheduler, ReportViewedDigestService digestService,
+                                   EventDeduplicationCache deduplicationCache, EventOutbox outbox,
+                                   ReliableEmailSender reliableSender, SmtpCircuitBreaker circuitBreaker,
+                                   DeadLetterStore deadLetterStore, NotificationMetrics metrics,
+                                   BrokerSubscriptionService subscriptionService, BrokerStreamClient streamClient) {
         this.emailService = emailService;
+        this.dispatcher = dispatcher;
+        this.pipeline = pipeline;
+        this.batchIngestionService = batchIngestionService;
+        this.transportPool = transportPool;
+        this.sendScheduler = sendScheduler;
+        this.digestService = digestService;
+        this.deduplicationCache = deduplicationCache;
+        this.outbox = outbox;
+        this.reliableSender = reliableSender;
+        this.circuitBreaker = circuitBreaker;
+        this.deadLetterStore = deadLetterStore;
+        this.metrics = metrics;
+        this.subscriptionService = subscriptionService;
+        this.streamClient = streamClient;
     }
 
     @PostMapping("/events/report-viewed")
     public ResponseEntity<?> handleReportViewedEvent(@RequestBody ReportViewedEventDTO event) {
+        long receivedAt = System.nanoTime();
         try {
             if (event == null) {
                 log.error("Received null REPORT_VIEWED event");
@@ -32,31 +88,68 @@ public class EventConsumerController {
                 ));
             }
 
-            log.info("Received REPORT_VIEWED event: {}", event.getEventId());
-            log.info("Event metadata → type={}, timestamp={}, ip={}, totalComplaints={}, reportType={}",
-                    event.getEventType(),
-                    event.getTimestamp(),
-                    event.getIpAddress(),
-                    event.getTotalComplaints(),
-                    event.getReportType()
-            );
-
-            
-            emailService.sendReportViewedNotification(event);
-
-            return ResponseEntity.ok(Map.of(
-                    "message", "Event processed successfully",
-                    "eventId", event.getEventId()
-            ));
+            log.debug("Received REPORT_VIEWED event: {}", event.getEventId());
+
+            NotificationDispatcher.DispatchResult result = dispatcher.dispatch(event);
+            if (result == NotificationDispatcher.DispatchResult.DUPLICATE) {
+                log.debug("Duplicate REPORT_VIEWED event ignored: {}", event.getEventId());
+                return ResponseEntity.ok(eventBody("message", "Event already processed", event.getEventId()));
+            }
+            if (result == NotificationDispatcher.DispatchResult.NOT_OWNER) {
+                return ResponseEntity.ok(eventBody("message", "Event owned by another node, held for failover",
+                        event.getEventId()));
+            }
+
+            return ResponseEntity.ok(eventBody("message", "Event processed successfully", event.getEventId()));
 
+        } catch (PipelineSaturatedException e) {
+            log.warn("Rejecting REPORT_VIEWED event {}: {}", event.getEventId(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(eventBody("error", "Notification pipeline saturated, retry later", event.getEventId()));
         } catch (Exception e) {
             log.error("Error processing REPORT_VIEWED event", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
                     "error", "Failed to process event: " + e.getMessage()
             ));
+        } finally {
+            metrics.recordSince(NotificationMetrics.Stage.ACCEPT, receivedAt);
+        }
+    }
+
+    @PostMapping(value = "/events/report-viewed/batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE,
+                    MediaType.APPLICATION_CBOR_VALUE, EventEncodingConfiguration.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<?> handleReportViewedBatch(InputStream body,
+                                                     @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType) {
+        try {
+            BatchIngestionResultDTO result = batchIngestionService.ingest(body, contentType);
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            log.error("Error processing REPORT_VIEWED batch", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+                    "error", "Failed to process batch: " + e.getMessage()
+            ));
         }
     }
 
+    @GetMapping("/metrics")
+    public ResponseEntity<?> getMetrics() {
+        return ResponseEntity.ok(Map.of(
+                "uptimeMs", metrics.getUptimeMs(),
+                "latencies", metrics.getLatencies(),
+                "executors", metrics.getExecutors()
+        ));
+    }
+
+    @PostMapping("/metrics/reset")
+    public ResponseEntity<?> resetMetrics() {
+        metrics.reset();
+        return ResponseEntity.ok(Map.of(
+                "message", "Latency histograms reset"
+        ));
+    }
+
     @GetMapping("/health")
     public ResponseEntity<?> healthCheck() {
         return ResponseEntity.ok(Map.of(
@@ -69,7 +162,84 @@ public class EventConsumerController {
     @GetMapping("/status")
     public ResponseEntity<?> getStatus() {
         return ResponseEntity.ok(Map.of(
-                "emailEnabled", emailService.isEmailEnabled(), "service", "notification-service"
+                "emailEnabled", emailService.isEmailEnabled(), "service", "notification-service",
+                "pipeline", Map.of(
+                        "maxInFlight", pipeline.getMaxInFlight(),
+                        "inFlight", pipeline.getInFlight(),
+                        "rejectedEvents", pipeline.getRejectedEvents(),
+                        "failedSends", pipeline.getFailedSends()
+                ),
+                "delivery", Map.of(
+                        "circuitState", circuitBreaker.getState(),
+                        "consecutiveFailures", circuitBreaker.getConsecutiveFailures(),
+                        "timesOpened", circuitBreaker.getTimesOpened(),
+                        "retries", reliableSender.getRetries(),
+                        "saturationRetries", reliableSender.getSaturationRetries(),
+                        "deadLettered", reliableSender.getDeadLettered(),
+                        "deadLetterBacklog", deadLetterStore.size()
+                ),
+                "sendScheduler", Map.of(
+                        "enabled", sendScheduler.isEnabled(),
+                        "queueDepth", sendScheduler.getQueueDepth(),
+                        "globalMinuteTokens", sendScheduler.getGlobalMinuteTokens(),
+                        "globalDayTokens", sendScheduler.getGlobalDayTokens(),
+                        "senderTokens", sendScheduler.getSenderTokens(),
+                        "trackedRecipients", sendScheduler.getTrackedRecipients(),
+                        "delayedSends", sendScheduler.getDelayedSends(),
+                        "rejectedSends", sendScheduler.getRejectedSends()
+                ),
+                "smtpPool", Map.of(
+                        "enabled", transportPool.isEnabled(),
+                        "maxSize", transportPool.getMaxSize(),
+                        "open", transportPool.getOpenConnections(),
+                        "idle", transportPool.getIdleConnections(),
+                        "created", transportPool.getConnectionsCreated(),
+                        "evicted", transportPool.getConnectionsEvicted()
+                ),
+                "digest", Map.of(
+                        "enabled", digestService.isEnabled(),
+                        "openDigests", digestService.getOpenDigests(),
+                        "eventsCoalesced", digestService.getEventsCoalesced(),
+                        "digestsSent", digestService.getDigestsSent()
+                ),
+                "deduplication", Map.of(
+                        "enabled", deduplicationCache.isEnabled(),
+                        "capacity", deduplicationCache.getCapacity(),
+                        "ttlMs", deduplicationCache.getTtlMs(),
+                        "hits", deduplicationCache.getHits(),
+                        "misses", deduplicationCache.getMisses(),
+                        "evictions", deduplicationCache.getEvictions()
+                ),
+                "outbox", Map.of(
+                        "enabled", outbox.isEnabled(),
+                        "pending", outbox.getPendingCount(),
+                        "segments", outbox.getSegmentCount()
+                ),
+                "broker", Map.of(
+                        "healthy", subscriptionService.checkBrokerHealth(),
+                        "subscribed", subscriptionService.isSubscribed(),
+                        "subscriptionId", String.valueOf(subscriptionService.getSubscriptionId()),
+                        "lastHeartbeatAt", subscriptionService.getLastHeartbeatAt(),
+                        "subscribeAttempts", subscriptionService.getSubscribeAttempts(),
+                        "resubscriptions", subscriptionService.getResubscriptions(),
+                        "deliveryMode", subscriptionService.getDeliveryMode(),
+                        "payloadFormat", subscriptionService.getPayloadFormat(),
+                        "stream", Map.of(
+                                "connected", streamClient.isConnected(),
+                                "eventsReceived", streamClient.getEventsReceived(),
+                                "framesRejected", streamClient.getFramesRejected(),
+                                "acksSent", streamClient.getAcksSent(),
+                                "reconnects", streamClient.getReconnects()
+                        )
+                )
         ));
     }
+
+    // El eventId puede venir null en el payload y Map.of no admite valores null
+    private static Map<String, Object> eventBody(String key, String text, String eventId) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put(key, text);
+        body.put("eventId", eventId);
+        return body;
+    }
 }
@@ -0,0 +1,37 @@
+package co.edu.uptc.notification.controller;
+
+import co.edu.uptc.notification.service.PriorityLanes;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/notifications/priority")
+@CrossOrigin(origins = "*")
+public class PriorityController {
+
+    private final PriorityLanes priorityLanes;
+
+    public PriorityController(PriorityLanes priorityLanes) {
+        this.priorityLanes = priorityLanes;
+    }
+
+    @GetMapping
+    public ResponseEntity<?> getPriorityLanes() {
+        return ResponseEntity.ok(Map.of(
+                "enabled", priorityLanes.isEnabled(),
+                "rules", priorityLanes.getRules(),
+                "lanes", priorityLanes.getLaneStats(),
+                "queues", priorityLanes.getQueues()
+        ));
+    }
+
+    @DeleteMapping("/latencies")
+    public ResponseEntity<?> resetLatencies() {
+        priorityLanes.reset();
+        return ResponseEntity.ok(Map.of(
+                "message", "Priority lane latencies reset"
+        ));
+    }
+}
@@ -0,0 +1,97 @@
+package co.edu.uptc.notification.controller;
+
+import co.edu.uptc.notification.dto.RecipientRuleDTO;
+import co.edu.uptc.notification.service.RecipientRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/notifications/routing")
+@CrossOrigin(origins = "*")
+public class RoutingController {
+
+    private static final Logger log = LoggerFactory.getLogger(RoutingController.class);
+    private final RecipientRouter recipientRouter;
+
+    public RoutingController(RecipientRouter recipientRouter) {
+        this.recipientRouter = recipientRouter;
+    }
+
+    @GetMapping
+    public ResponseEntity<?> getStatus() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("enabled", recipientRouter.isEnabled());
+        status.put("unmatched", recipientRouter.getUnmatched());
+        status.put("rules", recipientRouter.getRuleCount());
+        status.put("recipients", recipientRouter.getRecipientCount());
+        status.put("indexedReportTypes", recipientRouter.getIndexedReportTypes());
+        status.put("indexedSources", recipientRouter.getIndexedSources());
+        status.put("complaintSegments", recipientRouter.getSegmentCount());
+        status.put("loadedAt", recipientRouter.getLoadedAt());
+        status.put("routedEvents", recipientRouter.getRoutedEvents());
+        status.put("unmatchedEvents", recipientRouter.getUnmatchedEvents());
+        status.put("recipientsSkipped", recipientRouter.getRecipientsSkipped());
+        return ResponseEntity.ok(status);
+    }
+
+    @GetMapping("/rules")
+    public ResponseEntity<?> getRules() {
+        return ResponseEntity.ok(recipientRouter.getRules());
+    }
+
+    @PutMapping("/rules")
+    public ResponseEntity<?> replaceRules(@RequestBody List<RecipientRuleDTO> rules) {
+        try {
+            int count = recipientRouter.replaceRules(rules);
+            return ResponseEntity.ok(Map.of(
+                    "message", "Routing rules replaced",
+                    "rules", count
+            ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "error", e.getMessage()
+            ));
+        } catch (Exception e) {
+            log.error("Error saving routing rules", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+                    "error", "Error saving routing rules: " + e.getMessage()
+            ));
+        }
+    }
+
+    @PostMapping("/reload")
+    public ResponseEntity<?> reload() {
+        try {
+            return ResponseEntity.ok(Map.of(
+                    "message", "Routing rules reloaded",
+                    "rules", recipientRouter.reload()
+            ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "error", e.getMessage()
+            ));
+        } catch (Exception e) {
+            log.error("Error reloading routing rules", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+                    "error", "Error reloading routing rules: " + e.getMessage()
+            ));
+        }
+    }
+
+    // Prueba que destinatarios recibirian un evento con estos datos
+    @GetMapping("/match")
+    public ResponseEntity<?> match(@RequestParam(required = false) String reportType,
+                                   @RequestParam(required = false) String source,
+                                   @RequestParam(defaultValue = "0") int totalComplaints) {
+        return ResponseEntity.ok(Map.of(
+                "recipients", recipientRouter.preview(reportType, source, totalComplaints)
+        ));
+    }
+}
@@ -0,0 +1,108 @@
+package co.edu.uptc.notification.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BatchIngestionResultDTO {
+
+    private int received;
+    private int accepted;
+    private int duplicates;
+    private int notOwned;
+    private int rejected;
+    private boolean truncated;
+    private final List<EventResult> results = new ArrayList<>();
+
+    public BatchIngestionResultDTO() {
+    }
+
+    public void addAccepted(int index, String eventId) {
+        received++;
+        accepted++;
+        results.add(new EventResult(index, eventId, "ACCEPTED", null));
+    }
+
+    public void addDuplicate(int index, String eventId) {
+        received++;
+        duplicates++;
+        results.add(new EventResult(index, eventId, "DUPLICATE", null));
+    }
+
+    public void addNotOwned(int index, String eventId) {
+        received++;
+        notOwned++;
+        results.add(new EventResult(index, eventId, "NOT_OWNER", null));
+    }
+
+    public void addRejected(int index, String eventId, String reason) {
+        received++;
+        rejected++;
+        results.add(new EventResult(index, eventId, "REJECTED", reason));
+    }
+
+    public int getReceived() {
+        return received;
+    }
+
+    public int getAccepted() {
+        return accepted;
+    }
+
+    public int getDuplicates() {
+        return duplicates;
+    }
+
+    public int getNotOwned() {
+        return notOwned;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public void setTruncated(boolean truncated) {
+        this.truncated = truncated;
+    }
+
+    public List<EventResult> getResults() {
+        return results;
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class EventResult {
+
+        private final int index;
+        private final String eventId;
+        private final String status;
+        private final String reason;
+
+        public EventResult(int index, String eventId, String status, String reason) {
+            this.index = index;
+            this.eventId = eventId;
+            this.status = status;
+            this.reason = reason;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public String getEventId() {
+            return eventId;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package co.edu.uptc.notification.dto;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Tabla acotada de valores canonicos: devuelve la misma instancia para textos repetidos sin crear un String
+// por lectura. Al llenarse deja de aceptar valores nuevos, asi un campo de alta cardinalidad no la agota
+final class CanonicalStringTable {
+
+    private static final int MAX_LENGTH = 64;
+    private static final int MAX_PROBE = 8;
+
+    private final String[] slots;
+    private final int mask;
+    private final int maxEntries;
+    private final AtomicInteger size = new AtomicInteger();
+
+    CanonicalStringTable(int capacity) {
+        int slotCount = Integer.highestOneBit(Math.max(16, capacity - 1) << 1);
+        this.slots = new String[slotCount];
+        this.mask = slotCount - 1;
+        this.maxEntries = slotCount / 2;
+    }
+
+    String intern(char[] buffer, int offset, int length) {
+        if (length > MAX_LENGTH) {
+            return new String(buffer, offset, length);
+        }
+
+        // Mismo hash que String.hashCode para comparar primero contra el hash cacheado de cada entrada
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + buffer[i];
+        }
+
+        int index = (hash ^ (hash >>> 16)) & mask;
+        for (int probe = 0; probe < MAX_PROBE; probe++) {
+            String candidate = slots[index];
+            if (candidate == null) {
+                String value = new String(buffer, offset, length);
+                if (size.get() < maxEntries) {
+                    // Carrera benigna: si dos hilos insertan a la vez gana uno y el otro solo pierde la reutilizacion
+                    slots[index] = value;
+                    size.incrementAndGet();
+                }
+                return value;
+            }
+            if (candidate.hashCode() == hash && matches(candidate, buffer, offset, length)) {
+                return candidate;
+            }
+            index = (index + 1) & mask;
+        }
+        return new String(buffer, offset, length);
+    }
+
+    private static boolean matches(String candidate, char[] buffer, int offset, int length) {
+        if (candidate.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (candidate.charAt(i) != buffer[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int size() {
+        return size.get();
+    }
+}
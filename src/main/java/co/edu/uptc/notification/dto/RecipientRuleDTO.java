@@ -0,0 +1,56 @@
+package co.edu.uptc.notification.dto;
+
+import java.util.List;
+
+// Suscripcion de un destinatario: listas vacias o limites nulos significan "cualquiera"
+public class RecipientRuleDTO {
+    private String recipient;
+    private List<String> reportTypes;
+    private List<String> sources;
+    private Integer minTotalComplaints;
+    private Integer maxTotalComplaints;
+
+    public RecipientRuleDTO() {
+
+    }
+
+    public String getRecipient() {
+        return recipient;
+    }
+
+    public void setRecipient(String recipient) {
+        this.recipient = recipient;
+    }
+
+    public List<String> getReportTypes() {
+        return reportTypes;
+    }
+
+    public void setReportTypes(List<String> reportTypes) {
+        this.reportTypes = reportTypes;
+    }
+
+    public List<String> getSources() {
+        return sources;
+    }
+
+    public void setSources(List<String> sources) {
+        this.sources = sources;
+    }
+
+    public Integer getMinTotalComplaints() {
+        return minTotalComplaints;
+    }
+
+    public void setMinTotalComplaints(Integer minTotalComplaints) {
+        this.minTotalComplaints = minTotalComplaints;
+    }
+
+    public Integer getMaxTotalComplaints() {
+        return maxTotalComplaints;
+    }
+
+    public void setMaxTotalComplaints(Integer maxTotalComplaints) {
+        this.maxTotalComplaints = maxTotalComplaints;
+    }
+}
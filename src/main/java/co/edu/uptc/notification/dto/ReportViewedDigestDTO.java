@@ -0,0 +1,64 @@
+package co.edu.uptc.notification.dto;
+
+import java.time.LocalDateTime;
+
+public class ReportViewedDigestDTO {
+
+    private String reportType;
+    private String source;
+    private long eventCount;
+    private LocalDateTime firstTimestamp;
+    private LocalDateTime lastTimestamp;
+    private int maxTotalComplaints;
+
+    public ReportViewedDigestDTO() {
+    }
+
+    public String getReportType() {
+        return reportType;
+    }
+
+    public void setReportType(String reportType) {
+        this.reportType = reportType;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    public void setEventCount(long eventCount) {
+        this.eventCount = eventCount;
+    }
+
+    public LocalDateTime getFirstTimestamp() {
+        return firstTimestamp;
+    }
+
+    public void setFirstTimestamp(LocalDateTime firstTimestamp) {
+        this.firstTimestamp = firstTimestamp;
+    }
+
+    public LocalDateTime getLastTimestamp() {
+        return lastTimestamp;
+    }
+
+    public void setLastTimestamp(LocalDateTime lastTimestamp) {
+        this.lastTimestamp = lastTimestamp;
+    }
+
+    public int getMaxTotalComplaints() {
+        return maxTotalComplaints;
+    }
+
+    public void setMaxTotalComplaints(int maxTotalComplaints) {
+        this.maxTotalComplaints = maxTotalComplaints;
+    }
+}
@@ -4,7 +4,10 @@ import java.time.LocalDateTime;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 
+// La lectura usa un decodificador especializado; la escritura (outbox) sigue con el binding de Jackson
+@JsonDeserialize(using = ReportViewedEventDeserializer.class)
 public class ReportViewedEventDTO {
 
     @JsonProperty("eventId")
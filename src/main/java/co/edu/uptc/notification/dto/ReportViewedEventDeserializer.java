@@ -0,0 +1,188 @@
+package co.edu.uptc.notification.dto;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+// Decodificador de streaming para el evento del broker: lee los tokens directamente sin arbol intermedio ni
+// binding reflexivo, canoniza los campos de baja cardinalidad y reutiliza el LocalDateTime del mismo segundo
+public class ReportViewedEventDeserializer extends StdDeserializer<ReportViewedEventDTO> {
+
+    // eventType, reportType y source toman pocos valores distintos
+    private static final CanonicalStringTable CANONICAL = new CanonicalStringTable(512);
+
+    // Un timestamp reciente por valor de segundos: los eventos que llegan juntos comparten el mismo instante
+    private static final CachedTimestamp[] TIMESTAMPS = new CachedTimestamp[60];
+
+    private static final int TIMESTAMP_LENGTH = "yyyy-MM-ddTHH:mm:ss".length();
+
+    // El patron del @JsonFormat del DTO (resolucion SMART): fechas como 30 de febrero se ajustan igual que con el binding
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    public ReportViewedEventDeserializer() {
+        super(ReportViewedEventDTO.class);
+    }
+
+    @Override
+    public ReportViewedEventDTO deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            token = p.nextToken();
+        } else if (token != JsonToken.FIELD_NAME && token != JsonToken.END_OBJECT) {
+            return (ReportViewedEventDTO) ctxt.handleUnexpectedToken(ReportViewedEventDTO.class, p);
+        }
+
+        ReportViewedEventDTO event = new ReportViewedEventDTO();
+        for (; token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+            String field = p.currentName();
+            JsonToken value = p.nextToken();
+            switch (field) {
+                case "eventId" -> event.setEventId(text(p, value, ctxt));
+                case "eventType" -> event.setEventType(canonical(p, value, ctxt));
+                case "ipAddress" -> event.setIpAddress(text(p, value, ctxt));
+                case "timestamp" -> event.setTimestamp(timestamp(p, value, ctxt));
+                case "userAgent" -> event.setUserAgent(text(p, value, ctxt));
+                case "totalComplaints" -> event.setTotalComplaints(intValue(p, value, ctxt));
+                case "reportType" -> event.setReportType(canonical(p, value, ctxt));
+                case "source" -> event.setSource(canonical(p, value, ctxt));
+                default -> p.skipChildren();
+            }
+        }
+        return event;
+    }
+
+    private static String text(JsonParser p, JsonToken value, DeserializationContext ctxt) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (!value.isScalarValue()) {
+            return (String) ctxt.handleUnexpectedToken(String.class, p);
+        }
+        return p.getValueAsString();
+    }
+
+    private static String canonical(JsonParser p, JsonToken value, DeserializationContext ctxt) throws IOException {
+        if (value != JsonToken.VALUE_STRING) {
+            return text(p, value, ctxt);
+        }
+        return CANONICAL.intern(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+    }
+
+    private static int intValue(JsonParser p, JsonToken value, DeserializationContext ctxt) throws IOException {
+        if (value == JsonToken.VALUE_NUMBER_INT || value == JsonToken.VALUE_NUMBER_FLOAT) {
+            return p.getValueAsInt();
+        }
+        if (value == JsonToken.VALUE_NULL) {
+            return 0;
+        }
+        if (value == JsonToken.VALUE_STRING) {
+            String text = p.getText().trim();
+            try {
+                return text.isEmpty() ? 0 : Integer.parseInt(text);
+            } catch (NumberFormatException e) {
+                return (Integer) ctxt.handleWeirdStringValue(Integer.class, text, "not a valid int value");
+            }
+        }
+        return (Integer) ctxt.handleUnexpectedToken(Integer.class, p);
+    }
+
+    private static LocalDateTime timestamp(JsonParser p, JsonToken value, DeserializationContext ctxt) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (value != JsonToken.VALUE_STRING) {
+            // Formatos no textuales (p. ej. arreglo [y, M, d, ...]) los resuelve el deserializador de JavaTimeModule
+            return ctxt.readValue(p, LocalDateTime.class);
+        }
+
+        char[] buffer = p.getTextCharacters();
+        int offset = p.getTextOffset();
+        int length = p.getTextLength();
+        if (length != TIMESTAMP_LENGTH || !hasTimestampShape(buffer, offset)) {
+            String text = p.getText().trim();
+            try {
+                return text.isEmpty() ? null : LocalDateTime.parse(text);
+            } catch (DateTimeException e) {
+                return (LocalDateTime) ctxt.handleWeirdStringValue(LocalDateTime.class, text, "%s", e.getMessage());
+            }
+        }
+
+        int second = digits(buffer, offset + 17, 2);
+        int slot = second % TIMESTAMPS.length;
+        CachedTimestamp cached = TIMESTAMPS[slot];
+        if (cached != null && cached.matches(buffer, offset)) {
+            return cached.value;
+        }
+
+        LocalDateTime parsed;
+        try {
+            parsed = LocalDateTime.of(
+                    digits(buffer, offset, 4),
+                    digits(buffer, offset + 5, 2),
+                    digits(buffer, offset + 8, 2),
+                    digits(buffer, offset + 11, 2),
+                    digits(buffer, offset + 14, 2),
+                    second);
+        } catch (DateTimeException e) {
+            String text = new String(buffer, offset, length);
+            try {
+                return LocalDateTime.parse(text, TIMESTAMP_FORMAT);
+            } catch (DateTimeException invalid) {
+                return (LocalDateTime) ctxt.handleWeirdStringValue(LocalDateTime.class, text, "%s", invalid.getMessage());
+            }
+        }
+        TIMESTAMPS[slot] = new CachedTimestamp(new String(buffer, offset, length), parsed);
+        return parsed;
+    }
+
+    // yyyy-MM-ddTHH:mm:ss, el mismo patron del @JsonFormat del DTO
+    private static boolean hasTimestampShape(char[] buffer, int offset) {
+        for (int i = 0; i < TIMESTAMP_LENGTH; i++) {
+            char c = buffer[offset + i];
+            boolean ok = switch (i) {
+                case 4, 7 -> c == '-';
+                case 10 -> c == 'T';
+                case 13, 16 -> c == ':';
+                default -> c >= '0' && c <= '9';
+            };
+            if (!ok) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int digits(char[] buffer, int offset, int count) {
+        int value = 0;
+        for (int i = 0; i < count; i++) {
+            value = value * 10 + (buffer[offset + i] - '0');
+        }
+        return value;
+    }
+
+    private static final class CachedTimestamp {
+
+        final String text;
+        final LocalDateTime value;
+
+        CachedTimestamp(String text, LocalDateTime value) {
+            this.text = text;
+            this.value = value;
+        }
+
+        boolean matches(char[] buffer, int offset) {
+            for (int i = TIMESTAMP_LENGTH - 1; i >= 0; i--) {
+                if (text.charAt(i) != buffer[offset + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
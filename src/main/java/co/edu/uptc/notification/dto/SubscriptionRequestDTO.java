@@ -4,6 +4,7 @@ public class SubscriptionRequestDTO {
     private String eventType;
     private String callbackUrl;
     private String subscriberName;
+    private String payloadFormat;
 
     public SubscriptionRequestDTO() {
 
@@ -32,4 +33,12 @@ public class SubscriptionRequestDTO {
     public void setSubscriberName(String subscriberName) {
         this.subscriberName = subscriberName;
     }
+
+    public String getPayloadFormat() {
+        return payloadFormat;
+    }
+
+    public void setPayloadFormat(String payloadFormat) {
+        this.payloadFormat = payloadFormat;
+    }
 }
@@ -0,0 +1,103 @@
+package co.edu.uptc.notification.service;
+
+import co.edu.uptc.notification.config.EventEncodingConfiguration;
+import co.edu.uptc.notification.dto.BatchIngestionResultDTO;
+import co.edu.uptc.notification.dto.ReportViewedEventDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@Service
+public class BatchIngestionService {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchIngestionService.class);
+
+    private final NotificationDispatcher dispatcher;
+    private final ObjectReader eventReader;
+    private final ObjectReader cborReader;
+    private final ObjectReader smileReader;
+
+    public BatchIngestionService(NotificationDispatcher dispatcher, ObjectMapper objectMapper) {
+        this.dispatcher = dispatcher;
+        this.eventReader = objectMapper.readerFor(ReportViewedEventDTO.class);
+        this.cborReader = objectMapper.copyWith(new CBORFactory()).readerFor(ReportViewedEventDTO.class);
+        this.smileReader = objectMapper.copyWith(new SmileFactory()).readerFor(ReportViewedEventDTO.class);
+    }
+
+    // Acepta un arreglo o una secuencia de valores (NDJSON, CBOR sequence, stream Smile); MappingIterator lee
+    // un evento a la vez sin cargar todo el cuerpo
+    public BatchIngestionResultDTO ingest(InputStream body, MediaType contentType) throws IOException {
+        BatchIngestionResultDTO result = new BatchIngestionResultDTO();
+
+        try (MappingIterator<ReportViewedEventDTO> events = readerFor(contentType).readValues(body)) {
+            int index = 0;
+            while (true) {
+                ReportViewedEventDTO event;
+                try {
+                    if (!events.hasNextValue()) {
+                        break;
+                    }
+                    event = events.nextValue();
+                } catch (DatabindException e) {
+                    // Error de mapeo: el iterador se resincroniza al siguiente objeto
+                    result.addRejected(index++, null, e.getOriginalMessage());
+                    continue;
+                } catch (JsonProcessingException e) {
+                    log.warn("Malformed batch payload after {} events: {}", index, e.getOriginalMessage());
+                    result.addRejected(index, null, "Malformed payload: " + e.getOriginalMessage());
+                    result.setTruncated(true);
+                    break;
+                }
+
+                dispatch(result, index++, event);
+            }
+        }
+
+        log.info("Batch ingested - received: {}, accepted: {}, duplicates: {}, not owned: {}, rejected: {}",
+                result.getReceived(), result.getAccepted(), result.getDuplicates(), result.getNotOwned(),
+                result.getRejected());
+        return result;
+    }
+
+    private ObjectReader readerFor(MediaType contentType) {
+        if (contentType == null) {
+            return eventReader;
+        }
+        if (MediaType.APPLICATION_CBOR.isCompatibleWith(contentType)) {
+            return cborReader;
+        }
+        if (MediaType.valueOf(EventEncodingConfiguration.APPLICATION_SMILE_VALUE).isCompatibleWith(contentType)) {
+            return smileReader;
+        }
+        return eventReader;
+    }
+
+    private void dispatch(BatchIngestionResultDTO result, int index, ReportViewedEventDTO event) {
+        if (event == null) {
+            result.addRejected(index, null, "Invalid event payload");
+            return;
+        }
+
+        try {
+            switch (dispatcher.dispatch(event)) {
+                case DUPLICATE -> result.addDuplicate(index, event.getEventId());
+                case NOT_OWNER -> result.addNotOwned(index, event.getEventId());
+                default -> result.addAccepted(index, event.getEventId());
+            }
+        } catch (Exception e) {
+            log.error("Error processing batched REPORT_VIEWED event {}", event.getEventId(), e);
+            result.addRejected(index, event.getEventId(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,400 @@
+package co.edu.uptc.notification.service;
+
+import co.edu.uptc.notification.dto.ReportViewedEventDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+// Canal SSE de larga duracion con el broker: control de flujo por creditos y acks acumulativos por lotes
+@Component
+public class BrokerStreamClient {
+
+    private static final Logger log = LoggerFactory.getLogger(BrokerStreamClient.class);
+
+    private static final long SATURATED_BACKOFF_MS = 200;
+    private static final long MAX_RECONNECT_BACKOFF_MS = 30_000;
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader eventReader;
+    private final NotificationDispatcher dispatcher;
+    private final DownstreamConcurrencyLimiter limiter;
+    private final ClusterMembership cluster;
+
+    private final AtomicLong eventsReceived = new AtomicLong();
+    private final AtomicLong framesRejected = new AtomicLong();
+    private final AtomicLong acksSent = new AtomicLong();
+    private final AtomicLong reconnects = new AtomicLong();
+
+    private volatile boolean running;
+    private volatile boolean connected;
+    private volatile Stream<String> currentStream;
+    private volatile long lastFrameAt;
+    private Thread reader;
+    private Runnable fallback;
+
+    // Estado de acks, protegido por this
+    private String streamId;
+    private long lastAckedSeq;
+    private long lastDispatchedSeq;
+    private int pendingAcks;
+    private long lastAckAt;
+
+    @Value("${event.broker.url}")
+    private String brokerUrl;
+
+    @Value("${notification.service.name:notification-service}")
+    private String serviceName;
+
+    @Value("${event.broker.request-timeout-ms:5000}")
+    private long requestTimeoutMs;
+
+    @Value("${event.broker.stream.initial-credits:256}")
+    private int initialCredits;
+
+    @Value("${event.broker.stream.ack-batch-size:64}")
+    private int ackBatchSize;
+
+    @Value("${event.broker.stream.ack-interval-ms:200}")
+    private long ackIntervalMs;
+
+    @Value("${event.broker.stream.idle-timeout-ms:30000}")
+    private long idleTimeoutMs;
+
+    @Value("${event.broker.stream.max-failures:5}")
+    private int maxFailures;
+
+    public BrokerStreamClient(@Qualifier("brokerHttpClient") HttpClient httpClient,
+                              ObjectMapper objectMapper,
+                              NotificationDispatcher dispatcher,
+                              DownstreamConcurrencyLimiter limiter,
+                              ClusterMembership cluster) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.eventReader = objectMapper.readerFor(ReportViewedEventDTO.class);
+        this.dispatcher = dispatcher;
+        this.limiter = limiter;
+        this.cluster = cluster;
+    }
+
+    // El fallback se ejecuta si el broker no soporta streaming o el canal falla max-failures veces seguidas
+    public synchronized void start(Runnable fallback) {
+        if (running) {
+            return;
+        }
+        this.fallback = fallback;
+        running = true;
+        reader = new Thread(this::readLoop, "broker-stream");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    private void readLoop() {
+        int failures = 0;
+        long backoffMs = 1000;
+
+        while (running) {
+            boolean receivedFrames = false;
+            try {
+                receivedFrames = consume();
+            } catch (StreamUnsupportedException e) {
+                log.warn("Broker does not support event streaming ({}), falling back to HTTP callbacks", e.getMessage());
+                stopAndFallBack();
+                return;
+            } catch (Exception e) {
+                if (running) {
+                    log.warn("Broker event stream failed: {}", e.getMessage());
+                }
+            } finally {
+                connected = false;
+                currentStream = null;
+            }
+
+            if (!running) {
+                return;
+            }
+            if (receivedFrames) {
+                failures = 0;
+                backoffMs = 1000;
+            } else if (++failures >= maxFailures) {
+                log.warn("Broker event stream failed {} times in a row, falling back to HTTP callbacks", failures);
+                stopAndFallBack();
+                return;
+            }
+
+            reconnects.incrementAndGet();
+            try {
+                Thread.sleep(backoffMs);
+            } catch (InterruptedException e) {
+                return;
+            }
+            backoffMs = Math.min(MAX_RECONNECT_BACKOFF_MS, backoffMs * 2);
+        }
+    }
+
+    private void stopAndFallBack() {
+        running = false;
+        if (fallback != null) {
+            fallback.run();
+        }
+    }
+
+    private boolean consume() throws IOException, InterruptedException {
+        long resumeFrom;
+        synchronized (this) {
+            resumeFrom = lastAckedSeq;
+            lastDispatchedSeq = lastAckedSeq;
+            pendingAcks = 0;
+        }
+
+        String query = "eventType=REPORT_VIEWED"
+                + "&subscriber=" + URLEncoder.encode(cluster.subscriberName(serviceName), StandardCharsets.UTF_8)
+                + "&credits=" + initialCredits;
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(brokerUrl + "/api/events/stream?" + query))
+                .timeout(Duration.ofMillis(requestTimeoutMs))
+                .header(HttpHeaders.ACCEPT, MediaType.TEXT_EVENT_STREAM_VALUE)
+                .GET();
+        if (resumeFrom > 0) {
+            // Reanuda despues del ultimo evento confirmado; el broker reenvia lo que no alcanzo a recibir ack
+            request.header("Last-Event-ID", String.valueOf(resumeFrom));
+        }
+
+        HttpResponse<Stream<String>> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofLines());
+        int status = response.statusCode();
+        if (status == 404 || status == 405 || status == 501) {
+            response.body().close();
+            throw new StreamUnsupportedException("status " + status);
+        }
+        if (status < 200 || status >= 300) {
+            response.body().close();
+            throw new IOException("Unexpected stream status " + status);
+        }
+
+        boolean receivedFrames = false;
+        try (Stream<String> lines = response.body()) {
+            currentStream = lines;
+            connected = true;
+            lastFrameAt = System.currentTimeMillis();
+            log.info("Broker event stream opened - Credits: {}, Resume after: {}", initialCredits, resumeFrom);
+
+            Iterator<String> it = lines.iterator();
+            String eventName = null;
+            String id = null;
+            StringBuilder data = new StringBuilder();
+
+            while (running && it.hasNext()) {
+                String line = it.next();
+                lastFrameAt = System.currentTimeMillis();
+
+                if (line.isEmpty()) {
+                    // Solo los eventos cuentan como progreso: open y heartbeat llegan aunque el canal no avance
+                    if (data.length() > 0 && onFrame(eventName, id, data.toString())) {
+                        receivedFrames = true;
+                    }
+                    eventName = null;
+                    id = null;
+                    data.setLength(0);
+                } else if (line.startsWith(":")) {
+                    // Comentario SSE usado como keep-alive
+                    continue;
+                } else if (line.startsWith("event:")) {
+                    eventName = line.substring(6).trim();
+                } else if (line.startsWith("id:")) {
+                    id = line.substring(3).trim();
+                } else if (line.startsWith("data:")) {
+                    if (data.length() > 0) {
+                        data.append('\n');
+                    }
+                    data.append(line.substring(5).stripLeading());
+                }
+            }
+        } finally {
+            flushAcks(true);
+        }
+        return receivedFrames;
+    }
+
+    // Devuelve true si el frame era un evento y su seq queda para el proximo ack
+    private boolean onFrame(String eventName, String id, String data) throws IOException, InterruptedException {
+        if ("open".equals(eventName)) {
+            Map<?, ?> open = objectMapper.readValue(data, Map.class);
+            synchronized (this) {
+                streamId = String.valueOf(open.get("streamId"));
+                lastAckAt = System.currentTimeMillis();
+            }
+            log.info("Broker event stream {} ready", open.get("streamId"));
+            return false;
+        }
+        if ("heartbeat".equals(eventName)) {
+            return false;
+        }
+
+        ReportViewedEventDTO event;
+        try {
+            event = eventReader.readValue(data);
+        } catch (IOException e) {
+            // Un frame ilegible se confirma igual: si no, el broker lo reenvia en cada reconexion y el canal no avanza
+            framesRejected.incrementAndGet();
+            log.warn("Rejected undecodable stream frame {}: {}", id, e.getMessage());
+            event = null;
+        }
+        if (event != null) {
+            eventsReceived.incrementAndGet();
+            dispatchWhenAdmitted(event);
+        }
+
+        synchronized (this) {
+            if (id != null) {
+                lastDispatchedSeq = Long.parseLong(id);
+            }
+            pendingAcks++;
+        }
+        flushAcks(false);
+        return true;
+    }
+
+    // Si el pipeline esta saturado no se confirma el evento: sin acks el broker se queda sin creditos y se detiene
+    private void dispatchWhenAdmitted(ReportViewedEventDTO event) throws InterruptedException {
+        while (running) {
+            try {
+                dispatcher.dispatch(event);
+                return;
+            } catch (PipelineSaturatedException e) {
+                flushAcks(true);
+                Thread.sleep(SATURATED_BACKOFF_MS);
+            }
+        }
+    }
+
+    private void flushAcks(boolean force) {
+        String ackStreamId;
+        long ackSeq;
+        int credits;
+        synchronized (this) {
+            if (pendingAcks == 0 || streamId == null) {
+                return;
+            }
+            boolean due = pendingAcks >= ackBatchSize || System.currentTimeMillis() - lastAckAt >= ackIntervalMs;
+            if (!force && !due) {
+                return;
+            }
+            ackStreamId = streamId;
+            ackSeq = lastDispatchedSeq;
+            credits = pendingAcks;
+            pendingAcks = 0;
+            lastAckAt = System.currentTimeMillis();
+        }
+
+        // El ack es acumulativo y devuelve tantos creditos como eventos se confirmaron
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(Map.of("ackSeq", ackSeq, "credits", credits));
+        } catch (IOException e) {
+            log.error("Error encoding stream ack: {}", e.getMessage());
+            return;
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(brokerUrl + "/api/events/stream/" + ackStreamId + "/ack"))
+                .timeout(Duration.ofMillis(requestTimeoutMs))
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+
+        limiter.callAsync(DownstreamConcurrencyLimiter.Downstream.BROKER,
+                () -> httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding()))
+                .whenComplete((response, error) -> {
+                    if (error == null && response.statusCode() < 300) {
+                        acksSent.incrementAndGet();
+                        synchronized (this) {
+                            lastAckedSeq = Math.max(lastAckedSeq, ackSeq);
+                        }
+                    } else {
+                        // El siguiente ack acumulativo cubre estos eventos; si el canal cae el broker los reenvia
+                        log.warn("Stream ack up to {} failed: {}", ackSeq,
+                                error != null ? error.getMessage() : "status " + response.statusCode());
+                        synchronized (this) {
+                            pendingAcks += credits;
+                        }
+                    }
+                });
+    }
+
+    // Confirma lotes incompletos y cierra canales que dejaron de recibir datos (broker caido sin cerrar el socket)
+    @Scheduled(fixedDelayString = "${event.broker.stream.ack-interval-ms:200}")
+    public void maintain() {
+        if (!connected) {
+            return;
+        }
+        flushAcks(false);
+
+        Stream<String> stream = currentStream;
+        if (stream != null && System.currentTimeMillis() - lastFrameAt > idleTimeoutMs) {
+            log.warn("Broker event stream idle for more than {} ms, reconnecting", idleTimeoutMs);
+            stream.close();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        flushAcks(true);
+        Stream<String> stream = currentStream;
+        if (stream != null) {
+            stream.close();
+        }
+        if (reader != null) {
+            reader.interrupt();
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    public long getEventsReceived() {
+        return eventsReceived.get();
+    }
+
+    public long getFramesRejected() {
+        return framesRejected.get();
+    }
+
+    public long getAcksSent() {
+        return acksSent.get();
+    }
+
+    public long getReconnects() {
+        return reconnects.get();
+    }
+
+    private static final class StreamUnsupportedException extends IOException {
+
+        StreamUnsupportedException(String message) {
+            super(message);
+        }
+    }
+}
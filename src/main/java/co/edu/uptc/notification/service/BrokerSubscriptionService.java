@@ -1,23 +1,58 @@
 package co.edu.uptc.notification.service;
 
 import co.edu.uptc.notification.dto.SubscriptionRequestDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class BrokerSubscriptionService {
 
     private static final Logger log = LoggerFactory.getLogger(BrokerSubscriptionService.class);
-    private final RestTemplate restTemplate;
+
+    // Campos que algunos brokers devuelven en /health y que cambian al reiniciar
+    private static final String[] INSTANCE_FIELDS = {"instanceId", "startedAt", "startTime", "uptimeStart"};
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final TaskScheduler taskScheduler;
+    private final DownstreamConcurrencyLimiter limiter;
+    private final BrokerStreamClient streamClient;
+    private final ClusterMembership cluster;
+
+    private final AtomicBoolean subscribing = new AtomicBoolean();
+    private final AtomicLong subscribeAttempts = new AtomicLong();
+    private final AtomicLong resubscriptions = new AtomicLong();
+
+    private volatile boolean stopped;
+    private volatile boolean subscribed;
+    private volatile String subscriptionId;
+    private volatile boolean brokerHealthy;
+    private volatile String brokerInstance;
+    private volatile long lastHeartbeatAt;
+    private volatile boolean streamFallback;
+    private long nextBackoffMs;
 
     @Value("${event.broker.url}")
     private String brokerUrl;
@@ -28,48 +63,239 @@ public class BrokerSubscriptionService {
     @Value("${notification.service.name:notification-service}")
     private String serviceName;
 
-    public BrokerSubscriptionService(RestTemplate restTemplate) {
-        this.restTemplate = restTemplate;
+    @Value("${event.broker.request-timeout-ms:5000}")
+    private long requestTimeoutMs;
+
+    // callback: el broker hace un POST por evento; stream: un canal SSE con creditos y acks por lotes
+    @Value("${event.broker.delivery-mode:callback}")
+    private String deliveryMode;
+
+    // Codificacion que se pide al broker para los callbacks: json, cbor o smile. El canal SSE siempre es texto
+    @Value("${event.broker.payload-format:json}")
+    private String payloadFormat;
+
+    @Value("${event.broker.subscribe.initial-backoff-ms:1000}")
+    private long initialBackoffMs;
+
+    @Value("${event.broker.subscribe.max-backoff-ms:60000}")
+    private long maxBackoffMs;
+
+    public BrokerSubscriptionService(@Qualifier("brokerHttpClient") HttpClient httpClient,
+                                     ObjectMapper objectMapper,
+                                     @Qualifier("taskScheduler") TaskScheduler taskScheduler,
+                                     DownstreamConcurrencyLimiter limiter,
+                                     BrokerStreamClient streamClient,
+                                     ClusterMembership cluster) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.taskScheduler = taskScheduler;
+        this.limiter = limiter;
+        this.streamClient = streamClient;
+        this.cluster = cluster;
     }
 
+    // Retorna de inmediato: la suscripcion se intenta en segundo plano hasta que el broker la acepte
     public void subscribeToReportViewedEvents() {
-        try {
-            log.info("Subscribing to REPORT_VIEWED events from broker: {}", brokerUrl);
-
-            String subscribeUrl = brokerUrl + "/api/events/subscribe";
+        if (isStreaming()) {
+            log.info("Opening REPORT_VIEWED event stream from broker: {}", brokerUrl);
+            streamClient.start(this::fallBackToCallbacks);
+            return;
+        }
+        if (!subscribing.compareAndSet(false, true)) {
+            return;
+        }
+        synchronized (this) {
+            nextBackoffMs = initialBackoffMs;
+        }
+        attemptSubscribe();
+    }
 
-            SubscriptionRequestDTO subscription = new SubscriptionRequestDTO();
-            subscription.setEventType("REPORT_VIEWED");
-            subscription.setCallbackUrl(callbackUrl + "/api/notifications/events/report-viewed");
-            subscription.setSubscriberName(serviceName);
+    private void attemptSubscribe() {
+        if (stopped) {
+            subscribing.set(false);
+            return;
+        }
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
+        subscribeAttempts.incrementAndGet();
+        log.info("Subscribing to REPORT_VIEWED events from broker: {} (payload format: {})", brokerUrl, getPayloadFormat());
 
-            HttpEntity<SubscriptionRequestDTO> request = new HttpEntity<>(subscription, headers);
+        SubscriptionRequestDTO subscription = new SubscriptionRequestDTO();
+        subscription.setEventType("REPORT_VIEWED");
+        subscription.setCallbackUrl(callbackUrl + "/api/notifications/events/report-viewed");
+        subscription.setSubscriberName(cluster.subscriberName(serviceName));
+        subscription.setPayloadFormat(getPayloadFormat());
 
-            ResponseEntity<Map> response = restTemplate.postForEntity(subscribeUrl, request, Map.class);
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(brokerUrl + "/api/events/subscribe"))
+                    .timeout(Duration.ofMillis(requestTimeoutMs))
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(subscription)))
+                    .build();
+        } catch (Exception e) {
+            log.error("Error building broker subscription request: {}", e.getMessage(), e);
+            subscribing.set(false);
+            return;
+        }
 
-            if (response.getStatusCode().is2xxSuccessful()) {
-                Map<String, Object> body = response.getBody();
-                String subscriptionId = body != null ? (String) body.get("subscriptionId") : "unknown";
+        send(request).whenComplete((response, error) -> {
+            if (error == null && isSuccessful(response)) {
+                Map<String, Object> body = parse(response.body());
+                subscriptionId = body.get("subscriptionId") != null ? String.valueOf(body.get("subscriptionId")) : "unknown";
+                subscribed = true;
+                brokerHealthy = true;
+                subscribing.set(false);
                 log.info("Successfully subscribed to broker with subscriptionId: {}", subscriptionId);
+                return;
+            }
+
+            long delay = nextBackoff();
+            if (error != null) {
+                log.warn("Error subscribing to broker: {}, retrying in {} ms", rootMessage(error), delay);
             } else {
-                log.warn("Failed to subscribe to broker, status: {}", response.getStatusCode());
+                log.warn("Failed to subscribe to broker, status: {}, retrying in {} ms", response.statusCode(), delay);
             }
-        } catch (Exception e) {
-            log.error("Error subscribing to broker: {}", e.getMessage(), e);
+            taskScheduler.schedule(this::attemptSubscribe, Instant.now().plusMillis(delay));
+        });
+    }
+
+    private void fallBackToCallbacks() {
+        streamFallback = true;
+        subscribeToReportViewedEvents();
+    }
+
+    private boolean isStreaming() {
+        return "stream".equalsIgnoreCase(deliveryMode) && !streamFallback;
+    }
+
+    // Backoff exponencial con jitter para no sincronizar reintentos de varias instancias
+    private synchronized long nextBackoff() {
+        long ceiling = nextBackoffMs;
+        nextBackoffMs = Math.min(maxBackoffMs, nextBackoffMs * 2);
+        return ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+    }
+
+    @Scheduled(fixedDelayString = "${event.broker.heartbeat-interval-ms:15000}",
+            initialDelayString = "${event.broker.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        if (stopped) {
+            return;
         }
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(brokerUrl + "/api/events/health"))
+                .timeout(Duration.ofMillis(requestTimeoutMs))
+                .GET()
+                .build();
+
+        send(request).whenComplete((response, error) -> {
+            boolean healthy = error == null && isSuccessful(response);
+            boolean wasHealthy = brokerHealthy;
+            brokerHealthy = healthy;
+            lastHeartbeatAt = System.currentTimeMillis();
+
+            if (!healthy) {
+                if (wasHealthy) {
+                    log.warn("Broker health check failed: {}",
+                            error != null ? rootMessage(error) : "status " + response.statusCode());
+                }
+                return;
+            }
+
+            String instance = instanceOf(parse(response.body()));
+            boolean restarted = instance != null && brokerInstance != null && !instance.equals(brokerInstance);
+            brokerInstance = instance;
+
+            // El canal de streaming se reconecta solo al cortarse; no hay suscripcion que renovar
+            if (isStreaming()) {
+                return;
+            }
+
+            // El broker guarda las suscripciones en memoria: tras una caida o un reinicio hay que volver a suscribirse
+            if (!subscribed || !wasHealthy || restarted) {
+                if (subscribed) {
+                    resubscriptions.incrementAndGet();
+                    log.info("Broker recovered{}, re-subscribing", restarted ? " with a new instance" : "");
+                }
+                subscribed = false;
+                subscribeToReportViewedEvents();
+            }
+        });
     }
 
+    // Resultado cacheado del ultimo heartbeat: no hace una llamada al broker
     public boolean checkBrokerHealth() {
+        return brokerHealthy;
+    }
+
+    private CompletableFuture<HttpResponse<String>> send(HttpRequest request) {
+        return limiter.callAsync(DownstreamConcurrencyLimiter.Downstream.BROKER,
+                () -> httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+    }
+
+    private static boolean isSuccessful(HttpResponse<?> response) {
+        return response.statusCode() >= 200 && response.statusCode() < 300;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> parse(String body) {
+        if (body == null || body.isBlank()) {
+            return Map.of();
+        }
         try {
-            String healthUrl = brokerUrl + "/api/events/health";
-            ResponseEntity<Map> response = restTemplate.getForEntity(healthUrl, Map.class);
-            return response.getStatusCode().is2xxSuccessful();
+            return objectMapper.readValue(body, Map.class);
         } catch (Exception e) {
-            log.error("Broker health check failed: {}", e.getMessage());
-            return false;
+            return Map.of();
+        }
+    }
+
+    private static String instanceOf(Map<String, Object> health) {
+        for (String field : INSTANCE_FIELDS) {
+            if (health.get(field) != null) {
+                return Objects.toString(health.get(field));
+            }
+        }
+        return null;
+    }
+
+    private static String rootMessage(Throwable error) {
+        Throwable cause = error;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
         }
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopped = true;
+    }
+
+    public boolean isSubscribed() {
+        return isStreaming() ? streamClient.isConnected() : subscribed;
+    }
+
+    public String getDeliveryMode() {
+        return isStreaming() ? "stream" : "callback";
+    }
+
+    public String getPayloadFormat() {
+        String format = payloadFormat == null ? "json" : payloadFormat.trim().toLowerCase();
+        return format.equals("cbor") || format.equals("smile") ? format : "json";
+    }
+
+    public String getSubscriptionId() {
+        return subscriptionId;
+    }
+
+    public long getLastHeartbeatAt() {
+        return lastHeartbeatAt;
+    }
+
+    public long getSubscribeAttempts() {
+        return subscribeAttempts.get();
+    }
+
+    public long getResubscriptions() {
+        return resubscriptions.get();
     }
 }
@@ -0,0 +1,229 @@
+package co.edu.uptc.notification.service;
+
+import co.edu.uptc.notification.dto.ReportViewedEventDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Particiona los eventos entre las replicas: cada evento lo entrega solo el nodo con mayor peso de rendezvous
+@Component
+public class ClusterMembership {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterMembership.class);
+
+    private final ClusterMembershipStore store;
+
+    private final AtomicLong rebalances = new AtomicLong();
+    private final LongAdder owned = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+
+    private volatile View view;
+    private volatile long lastRefreshAt;
+
+    @Value("${notification.cluster.enabled:false}")
+    private boolean enabled;
+
+    @Value("${notification.cluster.node-id:}")
+    private String nodeId;
+
+    // eventId reparte la carga de forma uniforme; reportType mantiene juntos los eventos del mismo reporte
+    @Value("${notification.cluster.partition-key:eventId}")
+    private String partitionKey;
+
+    @Value("${notification.cluster.member-ttl-ms:15000}")
+    private long memberTtlMs;
+
+    @Value("${server.port:8080}")
+    private int serverPort;
+
+    public ClusterMembership(ClusterMembershipStore store) {
+        this.store = store;
+    }
+
+    @PostConstruct
+    void init() {
+        if (nodeId == null || nodeId.isBlank()) {
+            nodeId = defaultNodeId();
+        }
+        nodeId = nodeId.replaceAll("[^A-Za-z0-9._-]", "_");
+        setMembers(Set.of(nodeId));
+
+        if (enabled) {
+            refresh();
+            log.info("Cluster membership initialized - Node: {}, Partition key: {}, Members: {}",
+                    nodeId, partitionKey, Arrays.toString(view.members));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${notification.cluster.heartbeat-interval-ms:5000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        Set<String> live;
+        try {
+            store.heartbeat(nodeId, now);
+            live = store.liveMembers(now, memberTtlMs);
+        } catch (RuntimeException e) {
+            // Se conserva la ultima vista conocida; si el store no vuelve, los otros nodos nos daran por caidos
+            log.warn("Cluster membership refresh failed, keeping last view: {}", e.getMessage());
+            return;
+        }
+        lastRefreshAt = now;
+
+        if (!live.contains(nodeId)) {
+            live = new TreeSet<>(live);
+            live.add(nodeId);
+        }
+        if (!live.equals(Set.of(view.members))) {
+            String previous = Arrays.toString(view.members);
+            setMembers(live);
+            rebalances.incrementAndGet();
+            log.info("Cluster membership changed {} -> {}, rebalancing partitions", previous, Arrays.toString(view.members));
+        }
+    }
+
+    private void setMembers(Set<String> live) {
+        String[] sorted = live.stream().sorted().toArray(String[]::new);
+        long[] hashes = new long[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            hashes[i] = EventDeduplicationCache.fingerprint(sorted[i]);
+        }
+        view = new View(sorted, hashes);
+    }
+
+    public boolean owns(ReportViewedEventDTO event) {
+        if (!enabled) {
+            return true;
+        }
+        boolean mine = isOwner(event);
+        if (mine) {
+            owned.increment();
+        } else {
+            skipped.increment();
+        }
+        return mine;
+    }
+
+    // Igual que owns() pero sin contar: para volver a evaluar eventos retenidos tras un cambio de vista
+    public boolean isOwner(ReportViewedEventDTO event) {
+        if (!enabled) {
+            return true;
+        }
+        String key = "reportType".equals(partitionKey) ? event.getReportType() : event.getEventId();
+        return key == null || nodeId.equals(ownerOf(key));
+    }
+
+    // Rendezvous hashing: al entrar o salir un nodo solo se mueven las claves que le corresponden a ese nodo
+    public String ownerOf(String key) {
+        View current = view;
+        long keyHash = EventDeduplicationCache.fingerprint(key);
+        String owner = current.members[0];
+        long best = Long.MIN_VALUE;
+        for (int i = 0; i < current.members.length; i++) {
+            long weight = mix(keyHash ^ current.hashes[i]);
+            if (weight > best) {
+                best = weight;
+                owner = current.members[i];
+            }
+        }
+        return owner;
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    // Con el cluster activo cada replica se suscribe con su propio nombre para recibir todos los eventos
+    public String subscriberName(String serviceName) {
+        return enabled ? serviceName + "-" + nodeId : serviceName;
+    }
+
+    // Estable entre reinicios: el nombre del suscriptor en el broker se deriva de el, y un id nuevo en cada
+    // arranque dejaria suscripciones huerfanas. El puerto distingue varias replicas en el mismo host
+    private String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "node";
+        }
+        return host + "-" + serverPort;
+    }
+
+    @PreDestroy
+    public void leave() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            store.leave(nodeId);
+            log.info("Node {} left the cluster", nodeId);
+        } catch (RuntimeException e) {
+            log.warn("Could not remove node {} from cluster store: {}", nodeId, e.getMessage());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public String getPartitionKey() {
+        return partitionKey;
+    }
+
+    public List<String> getMembers() {
+        return List.of(view.members);
+    }
+
+    public long getLastRefreshAt() {
+        return lastRefreshAt;
+    }
+
+    public long getRebalances() {
+        return rebalances.get();
+    }
+
+    public long getOwnedEvents() {
+        return owned.sum();
+    }
+
+    public long getSkippedEvents() {
+        return skipped.sum();
+    }
+
+    // Miembros y hashes se publican juntos para que owns() nunca vea una vista a medias
+    private static final class View {
+
+        final String[] members;
+        final long[] hashes;
+
+        View(String[] members, long[] hashes) {
+            this.members = members;
+            this.hashes = hashes;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package co.edu.uptc.notification.service;
+
+import java.util.Set;
+
+// Registro compartido de nodos vivos; cada nodo renueva su entrada periodicamente
+public interface ClusterMembershipStore {
+
+    void heartbeat(String nodeId, long nowMs);
+
+    Set<String> liveMembers(long nowMs, long ttlMs);
+
+    void leave(String nodeId);
+}
@@ -0,0 +1,74 @@
+package co.edu.uptc.notification.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Plantilla precompilada: segmentos estaticos intercalados con huecos {{nombre}} resueltos a posiciones
+public final class CompiledTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    private final String[] segments;
+    private final int[] slots;
+    private final int staticLength;
+
+    private CompiledTemplate(String[] segments, int[] slots) {
+        this.segments = segments;
+        this.slots = slots;
+        int length = 0;
+        for (String segment : segments) {
+            length += segment.length();
+        }
+        this.staticLength = length;
+    }
+
+    public static CompiledTemplate compile(String source, String... slotNames) {
+        List<String> names = Arrays.asList(slotNames);
+        List<String> segments = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+
+        int position = 0;
+        while (true) {
+            int open = source.indexOf(OPEN, position);
+            if (open < 0) {
+                break;
+            }
+            int close = source.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed template slot at offset " + open);
+            }
+
+            String name = source.substring(open + OPEN.length(), close).trim();
+            int slot = names.indexOf(name);
+            if (slot < 0) {
+                throw new IllegalArgumentException("Unknown template slot: " + name);
+            }
+
+            segments.add(source.substring(position, open));
+            slots.add(slot);
+            position = close + CLOSE.length();
+        }
+        segments.add(source.substring(position));
+
+        return new CompiledTemplate(
+                segments.toArray(new String[0]),
+                slots.stream().mapToInt(Integer::intValue).toArray()
+        );
+    }
+
+    // Los valores van en el mismo orden de los nombres usados al compilar
+    public String render(StringBuilder buffer, String... values) {
+        buffer.setLength(0);
+        buffer.ensureCapacity(staticLength + 64 * slots.length);
+
+        for (int i = 0; i < slots.length; i++) {
+            buffer.append(segments[i]);
+            buffer.append(values[slots[i]]);
+        }
+        buffer.append(segments[slots.length]);
+
+        return buffer.toString();
+    }
+}
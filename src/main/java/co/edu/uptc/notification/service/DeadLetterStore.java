@@ -0,0 +1,425 @@
+package co.edu.uptc.notification.service;
+
+import co.edu.uptc.notification.dto.DeadLetterDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Registro local de correos que agotaron los reintentos; el HTML se guarda comprimido
+@Component
+public class DeadLetterStore {
+
+    private static final Logger log = LoggerFactory.getLogger(DeadLetterStore.class);
+
+    private static final byte ENTRY = 1;
+    private static final byte RESOLVED = 2;
+    private static final int MAX_REASON_LENGTH = 500;
+    // writeUTF guarda la longitud en dos bytes: ningun campo de texto puede pasar de 65535 bytes codificados
+    private static final int MAX_UTF_BYTES = 65535;
+    private static final String FILE_NAME = "dead-letters.log";
+
+    private final Map<Long, Entry> entries = new LinkedHashMap<>();
+    private long nextId = 1;
+    private int resolvedRecords;
+    private DataOutputStream out;
+    private Path file;
+    // Longitud del archivo hasta el ultimo registro escrito completo
+    private long durableLength;
+
+    @Value("${notification.delivery.dead-letter.directory:data/dead-letters}")
+    private String directory;
+
+    @Value("${notification.delivery.dead-letter.max-entries:10000}")
+    private int maxEntries;
+
+    @PostConstruct
+    synchronized void init() throws IOException {
+        Path dir = Paths.get(directory);
+        Files.createDirectories(dir);
+        file = dir.resolve(FILE_NAME);
+
+        if (Files.exists(file)) {
+            truncateTo(load());
+            durableLength = Files.size(file);
+        }
+        openForAppend();
+
+        log.info("Dead letter store initialized - File: {}, Entries: {}", file.toAbsolutePath(), entries.size());
+    }
+
+    // Devuelve la longitud hasta el ultimo registro completo
+    private long load() throws IOException {
+        CountingInputStream counter = new CountingInputStream(new BufferedInputStream(Files.newInputStream(file)));
+        long complete = 0;
+        try (DataInputStream in = new DataInputStream(counter)) {
+            while (true) {
+                byte type;
+                try {
+                    type = in.readByte();
+                } catch (EOFException e) {
+                    break;
+                }
+                long id = in.readLong();
+                nextId = Math.max(nextId, id + 1);
+
+                if (type == RESOLVED) {
+                    entries.remove(id);
+                    resolvedRecords++;
+                    complete = counter.position;
+                    continue;
+                }
+
+                Entry entry = new Entry(id);
+                entry.failedAt = in.readLong();
+                entry.attempts = in.readInt();
+                entry.eventId = in.readUTF();
+                entry.recipients = in.readUTF().split(",");
+                entry.subject = in.readUTF();
+                entry.reason = in.readUTF();
+                entry.compressedHtml = new byte[in.readInt()];
+                in.readFully(entry.compressedHtml);
+                entries.put(id, entry);
+                complete = counter.position;
+            }
+        } catch (EOFException e) {
+            log.warn("Dead letter file truncated, keeping {} complete entries", entries.size());
+        }
+        return complete;
+    }
+
+    // Un registro a medias (caida durante la escritura) se corta antes de seguir agregando detras de el
+    private void truncateTo(long length) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            if (channel.size() > length) {
+                log.warn("Discarding {} bytes of incomplete dead letter record", channel.size() - length);
+                channel.truncate(length);
+            }
+        }
+    }
+
+    private void openForAppend() throws IOException {
+        out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+    }
+
+    // Escribe un registro completo o nada: ante un fallo el archivo se corta al ultimo registro bueno
+    private void append(byte[] record) {
+        try {
+            out.write(record);
+            out.flush();
+            durableLength += record.length;
+        } catch (IOException e) {
+            reopenAtDurableLength();
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void reopenAtDurableLength() {
+        try {
+            out.close();
+        } catch (IOException e) {
+            log.debug("Error closing dead letter store after failed write: {}", e.getMessage());
+        }
+        try {
+            truncateTo(durableLength);
+            openForAppend();
+        } catch (IOException e) {
+            log.error("Failed to reopen dead letter store at offset {}: {}", durableLength, e.getMessage());
+        }
+    }
+
+    public synchronized long store(RenderedEmail email, String[] recipients, int attempts, String reason) {
+        Entry entry = new Entry(nextId++);
+        entry.failedAt = System.currentTimeMillis();
+        entry.attempts = attempts;
+        entry.eventId = fitUtf(email.getEventId() != null ? email.getEventId() : "");
+        entry.recipients = fitRecipients(entry.id, recipients);
+        entry.subject = fitUtf(email.getSubject());
+        entry.reason = reason == null ? "" : reason.substring(0, Math.min(reason.length(), MAX_REASON_LENGTH));
+        entry.compressedHtml = gzip(email.getHtmlContent());
+
+        try {
+            append(encode(entry));
+        } catch (UncheckedIOException e) {
+            log.error("Failed to persist dead letter {}: {}", entry.id, e.getCause().getMessage());
+        }
+
+        entries.put(entry.id, entry);
+        if (entries.size() > maxEntries) {
+            long oldest = entries.keySet().iterator().next();
+            log.warn("Dead letter store full ({}), dropping oldest entry {}", maxEntries, oldest);
+            resolve(oldest);
+        }
+        return entry.id;
+    }
+
+    public synchronized List<DeadLetterDTO> list(int limit) {
+        List<DeadLetterDTO> result = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.add(entry.toDTO());
+        }
+        return result;
+    }
+
+    // Saca las entradas del store y las devuelve listas para reenviar
+    public synchronized List<Replay> takeForReplay(Collection<Long> ids) {
+        Collection<Long> selected = ids == null || ids.isEmpty() ? new ArrayList<>(entries.keySet()) : ids;
+        List<Replay> replays = new ArrayList<>();
+        for (Long id : selected) {
+            Entry entry = entries.get(id);
+            if (entry == null) {
+                continue;
+            }
+            String eventId = entry.eventId.isEmpty() ? null : entry.eventId;
+            replays.add(new Replay(new RenderedEmail(eventId, entry.subject, gunzip(entry.compressedHtml)),
+                    entry.recipients));
+            resolve(id);
+        }
+        compactIfNeeded();
+        return replays;
+    }
+
+    private void resolve(long id) {
+        if (entries.remove(id) == null) {
+            return;
+        }
+        byte[] record = new byte[9];
+        record[0] = RESOLVED;
+        for (int i = 0; i < 8; i++) {
+            record[1 + i] = (byte) (id >>> (56 - 8 * i));
+        }
+        try {
+            append(record);
+            resolvedRecords++;
+        } catch (UncheckedIOException e) {
+            log.error("Failed to persist dead letter resolution {}: {}", id, e.getCause().getMessage());
+        }
+    }
+
+    // Serializa en memoria: si un campo no cabe el error sale aqui, antes de tocar el archivo
+    private static byte[] encode(Entry entry) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + entry.compressedHtml.length);
+        try (DataOutputStream record = new DataOutputStream(bytes)) {
+            record.writeByte(ENTRY);
+            record.writeLong(entry.id);
+            record.writeLong(entry.failedAt);
+            record.writeInt(entry.attempts);
+            record.writeUTF(entry.eventId);
+            record.writeUTF(String.join(",", entry.recipients));
+            record.writeUTF(entry.subject);
+            record.writeUTF(entry.reason);
+            record.writeInt(entry.compressedHtml.length);
+            record.write(entry.compressedHtml);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    // Recorta el texto al maximo que admite writeUTF sin partir un par sustituto
+    private static String fitUtf(String value) {
+        int bytes = 0;
+        for (int i = 0; i < value.length(); i++) {
+            bytes += utfLength(value.charAt(i));
+            if (bytes > MAX_UTF_BYTES) {
+                int end = Character.isLowSurrogate(value.charAt(i)) ? i - 1 : i;
+                return value.substring(0, end);
+            }
+        }
+        return value;
+    }
+
+    // La lista se guarda unida por comas en un solo writeUTF; se conservan los destinatarios completos que caben
+    private static String[] fitRecipients(long id, String[] recipients) {
+        int bytes = 0;
+        for (int i = 0; i < recipients.length; i++) {
+            bytes += (i > 0 ? 1 : 0);
+            for (int c = 0; c < recipients[i].length(); c++) {
+                bytes += utfLength(recipients[i].charAt(c));
+            }
+            if (bytes > MAX_UTF_BYTES) {
+                log.warn("Dead letter {} keeps {} of {} recipients, the rest exceed the record limit",
+                        id, i, recipients.length);
+                return Arrays.copyOf(recipients, i);
+            }
+        }
+        return recipients;
+    }
+
+    private static int utfLength(char c) {
+        if (c >= 0x0001 && c <= 0x007F) {
+            return 1;
+        }
+        return c <= 0x07FF ? 2 : 3;
+    }
+
+    // Reescribe el archivo solo con las entradas vivas cuando dominan los registros resueltos
+    private void compactIfNeeded() {
+        if (resolvedRecords < 100 || resolvedRecords < entries.size()) {
+            return;
+        }
+
+        Path tmp = file.resolveSibling(FILE_NAME + ".tmp");
+        try {
+            out.close();
+            try (DataOutputStream compacted = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                for (Entry entry : entries.values()) {
+                    compacted.write(encode(entry));
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            durableLength = Files.size(file);
+            resolvedRecords = 0;
+            openForAppend();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to compact dead letter store", e);
+        }
+    }
+
+    private static byte[] gzip(String value) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream gz = new GZIPOutputStream(bytes)) {
+            gz.write(value.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String gunzip(byte[] value) {
+        try (InputStream gz = new GZIPInputStream(new ByteArrayInputStream(value))) {
+            return new String(gz.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        try {
+            out.close();
+        } catch (IOException e) {
+            log.debug("Error closing dead letter store: {}", e.getMessage());
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long position;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value >= 0) {
+                position++;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                position += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            position += skipped;
+            return skipped;
+        }
+    }
+
+    public static final class Replay {
+
+        private final RenderedEmail email;
+        private final String[] recipients;
+
+        Replay(RenderedEmail email, String[] recipients) {
+            this.email = email;
+            this.recipients = recipients;
+        }
+
+        public RenderedEmail getEmail() {
+            return email;
+        }
+
+        public String[] getRecipients() {
+            return recipients;
+        }
+    }
+
+    private static final class Entry {
+
+        private final long id;
+        private long failedAt;
+        private int attempts;
+        private String eventId;
+        private String[] recipients;
+        private String subject;
+        private String reason;
+        private byte[] compressedHtml;
+
+        Entry(long id) {
+            this.id = id;
+        }
+
+        DeadLetterDTO toDTO() {
+            DeadLetterDTO dto = new DeadLetterDTO();
+            dto.setId(id);
+            dto.setEventId(eventId.isEmpty() ? null : eventId);
+            dto.setRecipients(Arrays.asList(recipients));
+            dto.setSubject(subject);
+            dto.setReason(reason);
+            dto.setAttempts(attempts);
+            dto.setFailedAt(Instant.ofEpochMilli(failedAt));
+            return dto;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package co.edu.uptc.notification.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+@Component
+public class DownstreamConcurrencyLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(DownstreamConcurrencyLimiter.class);
+
+    public enum Downstream {
+        SMTP,
+        BROKER
+    }
+
+    private final Map<Downstream, Semaphore> permits = new EnumMap<>(Downstream.class);
+    private final Map<Downstream, Integer> limits = new EnumMap<>(Downstream.class);
+
+    @Value("${notification.downstream.smtp.max-concurrency:10}")
+    private int smtpMaxConcurrency;
+
+    @Value("${notification.downstream.broker.max-concurrency:4}")
+    private int brokerMaxConcurrency;
+
+    @PostConstruct
+    void init() {
+        register(Downstream.SMTP, smtpMaxConcurrency);
+        register(Downstream.BROKER, brokerMaxConcurrency);
+
+        log.info("Downstream concurrency limits initialized - SMTP: {}, Broker: {}",
+                smtpMaxConcurrency, brokerMaxConcurrency);
+    }
+
+    private void register(Downstream downstream, int limit) {
+        permits.put(downstream, new Semaphore(limit, true));
+        limits.put(downstream, limit);
+    }
+
+    // Con hilos virtuales el limite de concurrencia lo ponen estos semaforos, no el tamano del pool
+    public <T> T call(Downstream downstream, Callable<T> task) throws Exception {
+        Semaphore semaphore = permits.get(downstream);
+        semaphore.acquire();
+        try {
+            return task.call();
+        } finally {
+            semaphore.release();
+        }
+    }
+
+    // Version no bloqueante para clientes asincronos: sin permiso libre falla de inmediato
+    public <T> CompletableFuture<T> callAsync(Downstream downstream, Supplier<CompletableFuture<T>> task) {
+        Semaphore semaphore = permits.get(downstream);
+        if (!semaphore.tryAcquire()) {
+            return CompletableFuture.failedFuture(
+                    new RejectedExecutionException(downstream + " concurrency limit reached"));
+        }
+        try {
+            return task.get().whenComplete((result, error) -> semaphore.release());
+        } catch (RuntimeException e) {
+            semaphore.release();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    public int getLimit(Downstream downstream) {
+        return limits.get(downstream);
+    }
+
+    public int getInUse(Downstream downstream) {
+        return limits.get(downstream) - permits.get(downstream).availablePermits();
+    }
+}
@@ -1,31 +1,48 @@
 package co.edu.uptc.notification.service;
 
+import co.edu.uptc.notification.dto.ReportViewedDigestDTO;
 import co.edu.uptc.notification.dto.ReportViewedEventDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.mail.Message;
+import jakarta.mail.internet.InternetAddress;
 import jakarta.mail.internet.MimeMessage;
+import jakarta.mail.util.SharedByteArrayInputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.web.util.HtmlUtils;
 
+import java.io.ByteArrayOutputStream;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
-import java.util.Arrays;
-import java.util.List;
-import java.util.concurrent.CompletableFuture;
-import java.util.stream.Collectors;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class EmailNotificationService {
 
     private static final Logger log = LoggerFactory.getLogger(EmailNotificationService.class);
 
+    public static final String EVENT_ID_HEADER = "X-Event-Id";
+
+    private static final DateTimeFormatter SUBJECT_DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+    private static final DateTimeFormatter BODY_DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+
     @Autowired
     private JavaMailSender mailSender;
 
+    @Autowired
+    private SmtpTransportPool transportPool;
+
+    @Autowired
+    private EmailTemplateEngine templateEngine;
+
     @Value("${notification.email.enabled:true}")
     private boolean emailEnabled;
 
@@ -38,58 +55,67 @@ public class EmailNotificationService {
     @Value("${notification.email.from-name:Sistema de Quejas Boyacá}")
     private String fromName;
 
-    @Async("eventProcessorExecutor")
-    public CompletableFuture<Void> sendReportViewedNotification(ReportViewedEventDTO event) {
-        return CompletableFuture.runAsync(() -> {
+    @Value("${notification.email.fan-out-mode:copies}")
+    private String fanOutMode;
 
-            if (!emailEnabled) {
-                log.debug("Email notifications disabled, skipping");
-                return;
-            }
-
-            if (adminEmails == null || adminEmails.length == 0) {
-                log.warn("No admin emails configured");
-                return;
-            }
+    @Value("${notification.template.render-cache-size:256}")
+    private int renderCacheSize;
 
-            try {
-                log.info("=== Processing notification ===");
-                log.info("Event ID: {}", event.getEventId());
-                log.info("Event Type: {}", event.getEventType());
-                log.info("Report Type (raw): {}", event.getReportType());
-                log.info("Timestamp: {}", event.getTimestamp());
-                log.info("Total Complaints: {}", event.getTotalComplaints());
-                log.info("IP Address: {}", event.getIpAddress());
-                log.info("==============================");
+    private final Map<String, RenderedBody> renderedBodies = new ConcurrentHashMap<>();
 
-                String subject = String.format(
-                        "🔍 Reporte Visualizado - %d quejas (%s)",
-                        event.getTotalComplaints(),
-                        event.getTimestamp().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm"))
-                );
+    private CompiledTemplate reportViewedTemplate;
+    private CompiledTemplate digestTemplate;
+    private CompiledTemplate reportViewedSubject;
+    private CompiledTemplate digestSubject;
 
-                String htmlContent = generateEmailContent(event);
+    @PostConstruct
+    void compileTemplates() {
+        reportViewedTemplate = templateEngine.load("report-viewed", "reportType", "formattedDate");
+        digestTemplate = templateEngine.load("report-digest", "reportType", "source", "eventCount",
+                "firstTimestamp", "lastTimestamp", "maxTotalComplaints");
+        reportViewedSubject = CompiledTemplate.compile(
+                "🔍 Reporte Visualizado - {{totalComplaints}} quejas ({{date}})", "totalComplaints", "date");
+        digestSubject = CompiledTemplate.compile(
+                "📊 Resumen de Visualizaciones - {{eventCount}} vistas ({{reportType}})", "eventCount", "reportType");
+    }
 
-                sendEmailsInParallel(adminEmails, subject, htmlContent);
+    public RenderedEmail renderReportViewed(ReportViewedEventDTO event) {
+        log.debug("Rendering notification for event {} (reportType={}, totalComplaints={})",
+                event.getEventId(), event.getReportType(), event.getTotalComplaints());
 
-                log.info("Report viewed notification processed successfully for event: {}", event.getEventId());
+        LocalDateTime timestamp = event.getTimestamp() != null ? event.getTimestamp() : LocalDateTime.now();
+        String subject = templateEngine.render(reportViewedSubject,
+                String.valueOf(event.getTotalComplaints()),
+                timestamp.format(SUBJECT_DATE_FORMAT));
 
-            } catch (Exception e) {
-                log.error("Failed to send report viewed notification for event {}: {}",
-                        event.getEventId(), e.getMessage(), e);
-                throw new RuntimeException("Error sending email notification", e);
-            }
-        });
+        return new RenderedEmail(event.getEventId(), subject, generateEmailContent(event, timestamp));
     }
 
-    private String generateEmailContent(ReportViewedEventDTO event) {
-        LocalDateTime timestamp = event.getTimestamp() != null ? event.getTimestamp() : LocalDateTime.now();
-        String formattedDate = timestamp.format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss"));
+    private String generateEmailContent(ReportViewedEventDTO event, LocalDateTime timestamp) {
+        long second = timestamp.toEpochSecond(ZoneOffset.UTC);
+        String cacheKey = event.getReportType() != null ? event.getReportType() : "";
+
+        // El cuerpo solo depende del tipo de reporte y de la fecha (al segundo): se reutiliza si se repite
+        RenderedBody cached = renderedBodies.get(cacheKey);
+        if (cached != null && cached.second == second) {
+            return cached.html;
+        }
+
+        String html = templateEngine.render(reportViewedTemplate,
+                escape(formatReportType(event.getReportType())),
+                timestamp.format(BODY_DATE_FORMAT));
+
+        if (renderedBodies.size() < renderCacheSize || renderedBodies.containsKey(cacheKey)) {
+            renderedBodies.put(cacheKey, new RenderedBody(second, html));
+        }
+        return html;
+    }
 
+    private String formatReportType(String rawReportType) {
         String reportType = "REPORTE GENERAL";
         try {
-            if (event.getReportType() != null) {
-                String temp = event.getReportType().trim();
+            if (rawReportType != null) {
+                String temp = rawReportType.trim();
                 if (!temp.isEmpty()) {
                     reportType = temp.replace("_", " ");
                 }
@@ -97,114 +123,85 @@ public class EmailNotificationService {
         } catch (Exception e) {
             log.warn("Error processing reportType, using default: {}", e.getMessage());
         }
+        return reportType;
+    }
 
-        // HTML SIMPLIFICADO
-        return String.format("""
-                        <!DOCTYPE html>
-                        <html>
-                        <head>
-                            <meta charset="UTF-8">
-                            <style>
-                                body { 
-                                    font-family: Arial, sans-serif; 
-                                    margin: 0; 
-                                    padding: 20px; 
-                                    background-color: #f5f5f5; 
-                                }
-                                .container { 
-                                    max-width: 500px; 
-                                    margin: 0 auto; 
-                                    background: white; 
-                                    border-radius: 8px; 
-                                    padding: 30px; 
-                                    box-shadow: 0 2px 8px rgba(0,0,0,0.1); 
-                                }
-                                .title { 
-                                    color: #333; 
-                                    font-size: 20px; 
-                                    font-weight: bold; 
-                                    margin-bottom: 20px; 
-                                    border-bottom: 2px solid #007bff; 
-                                    padding-bottom: 10px; 
-                                }
-                                .info { 
-                                    margin: 15px 0; 
-                                    line-height: 1.6; 
-                                    color: #555; 
-                                }
-                                .info strong { 
-                                    color: #333; 
-                                }
-                                .footer { 
-                                    margin-top: 30px; 
-                                    padding-top: 20px; 
-                                    border-top: 1px solid #eee; 
-                                    text-align: center; 
-                                    font-size: 12px; 
-                                    color: #999; 
-                                }
-                            </style>
-                        </head>
-                        <body>
-                            <div class="container">
-                                <div class="title">🔍 Visualización de Reportes - Sistema de Quejas Boyacá</div>
-                        
-                                <div class="info">
-                                    <p>Se ha registrado una visualización del sistema de quejas.</p>
-                        
-                                    <p><strong>Tipo de reporte:</strong> %s</p>
-                        
-                                    <p><strong>Fecha y hora:</strong> %s</p>
-                                </div>
-                        
-                                <div class="footer">
-                                    Sistema de Alertas Automático - Boyacá
-                                </div>
-                            </div>
-                        </body>
-                        </html>
-                        """,
-                reportType,
-                formattedDate
-        );
-    }
-
-    private void sendEmailsInParallel(String[] recipients, String subject, String htmlContent) {
-        List<CompletableFuture<Void>> emailTasks = Arrays.stream(recipients)
-                .map(recipient -> sendSingleEmailAsync(recipient, subject, htmlContent))
-                .collect(Collectors.toList());
-
-        CompletableFuture.allOf(emailTasks.toArray(new CompletableFuture[0])).join();
-
-        log.info("All {} emails sent successfully", recipients.length);
-    }
-
-    @Async("emailSenderExecutor")
-    public CompletableFuture<Void> sendSingleEmailAsync(String recipient, String subject, String htmlContent) {
-        return CompletableFuture.runAsync(() -> {
-            try {
-                log.debug("Sending email to: {}", recipient);
-                sendEmail(recipient, subject, htmlContent);
-                log.info("Email sent successfully to: {}", recipient);
-            } catch (Exception e) {
-                log.error("Failed to send email to {}: {}", recipient, e.getMessage(), e);
-            }
-        });
+    public RenderedEmail renderDigest(ReportViewedDigestDTO digest) {
+        String subject = templateEngine.render(digestSubject,
+                String.valueOf(digest.getEventCount()),
+                formatReportType(digest.getReportType()));
+
+        return new RenderedEmail(null, subject, generateDigestContent(digest));
+    }
+
+    private String generateDigestContent(ReportViewedDigestDTO digest) {
+        return templateEngine.render(digestTemplate,
+                escape(formatReportType(digest.getReportType())),
+                escape(digest.getSource() != null ? digest.getSource() : "Desconocido"),
+                String.valueOf(digest.getEventCount()),
+                digest.getFirstTimestamp().format(BODY_DATE_FORMAT),
+                digest.getLastTimestamp().format(BODY_DATE_FORMAT),
+                String.valueOf(digest.getMaxTotalComplaints()));
     }
 
-    private void sendEmail(String to, String subject, String htmlContent) throws Exception {
+    private String escape(String value) {
+        return HtmlUtils.htmlEscape(value, "UTF-8");
+    }
+
+    private MimeMessage buildMessage(RenderedEmail email) throws Exception {
         MimeMessage message = mailSender.createMimeMessage();
         MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
 
-        helper.setTo(to);
-        helper.setSubject(subject);
-        helper.setText(htmlContent, true);
+        helper.setSubject(email.getSubject());
+        helper.setText(email.getHtmlContent(), true);
         helper.setFrom(fromEmail, fromName);
 
-        mailSender.send(message);
+        // Permite correlacionar el correo entregado con el evento del broker
+        if (email.getEventId() != null) {
+            message.setHeader(EVENT_ID_HEADER, email.getEventId());
+        }
+
+        return message;
+    }
+
+    // El cuerpo se codifica una sola vez; cada destinatario recibe una copia que comparte los bytes
+    public byte[] encode(RenderedEmail email) throws Exception {
+        MimeMessage message = buildMessage(email);
+        message.setSentDate(new Date());
+        message.saveChanges();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(email.getHtmlContent().length() * 2);
+        message.writeTo(out);
+        return out.toByteArray();
+    }
+
+    public void sendEncoded(String to, byte[] encodedMessage) throws Exception {
+        MimeMessage message = mailSender.createMimeMessage(new SharedByteArrayInputStream(encodedMessage));
+        message.setRecipient(Message.RecipientType.TO, new InternetAddress(to));
+
+        transportPool.sendEncoded(message);
         log.debug("Email sent to: {}", to);
     }
 
+    public void sendBcc(String[] recipients, RenderedEmail email) throws Exception {
+        MimeMessage message = buildMessage(email);
+        MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
+
+        helper.setTo(fromEmail);
+        helper.setBcc(recipients);
+
+        transportPool.send(message);
+        log.debug("Email sent to {} recipients via BCC", recipients.length);
+    }
+
+    public boolean isBccFanOut() {
+        return "bcc".equalsIgnoreCase(fanOutMode);
+    }
+
+    public String[] getAdminEmails() {
+        return adminEmails;
+    }
+
     private String getBrowserInfo(String userAgent) {
         if (userAgent == null) return "Desconocido";
 
@@ -218,4 +215,15 @@ public class EmailNotificationService {
     public boolean isEmailEnabled() {
         return emailEnabled;
     }
-}
\ No newline at end of file
+
+    private static final class RenderedBody {
+
+        private final long second;
+        private final String html;
+
+        RenderedBody(long second, String html) {
+            this.second = second;
+            this.html = html;
+        }
+    }
+}
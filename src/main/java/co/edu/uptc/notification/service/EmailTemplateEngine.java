@@ -0,0 +1,57 @@
+package co.edu.uptc.notification.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+@Component
+public class EmailTemplateEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailTemplateEngine.class);
+
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+    private final ResourceLoader resourceLoader;
+
+    // Un buffer por hilo: renderizar no crea StringBuilders nuevos por evento
+    private final ThreadLocal<StringBuilder> buffers = ThreadLocal.withInitial(() -> new StringBuilder(4096));
+
+    @Value("${notification.template.location:classpath:/templates/}")
+    private String location;
+
+    @Value("${notification.template.suffix:.html}")
+    private String suffix;
+
+    public EmailTemplateEngine(ResourceLoader resourceLoader) {
+        this.resourceLoader = resourceLoader;
+    }
+
+    public CompiledTemplate load(String name, String... slotNames) {
+        Resource resource = resourceLoader.getResource(location + name + suffix);
+        try (InputStream in = resource.getInputStream()) {
+            CompiledTemplate template = CompiledTemplate.compile(
+                    new String(in.readAllBytes(), StandardCharsets.UTF_8), slotNames);
+            log.info("Email template compiled: {}", resource.getDescription());
+            return template;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load email template " + name, e);
+        }
+    }
+
+    public String render(CompiledTemplate template, String... values) {
+        StringBuilder buffer = buffers.get();
+        String rendered = template.render(buffer, values);
+        if (buffer.capacity() > MAX_RETAINED_BUFFER) {
+            buffers.remove();
+        }
+        return rendered;
+    }
+}
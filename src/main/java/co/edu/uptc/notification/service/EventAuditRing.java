@@ -0,0 +1,300 @@
+package co.edu.uptc.notification.service;
+
+import co.edu.uptc.notification.dto.ReportViewedEventDTO;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Registro en memoria de los ultimos eventos y resultados de entrega, sin locks ni log por evento.
+// Cada celda usa un seqlock: el escritor la marca en curso, escribe los campos y publica su secuencia;
+// el lector descarta la celda si la secuencia cambio mientras la leia
+@Component
+public class EventAuditRing {
+
+    private static final Logger log = LoggerFactory.getLogger(EventAuditRing.class);
+
+    private static final long WRITING = -1;
+    private static final int FILE_MAGIC = 0x41554431;
+    private static final String FILE_PREFIX = "audit-";
+    private static final String FILE_SUFFIX = ".bin";
+
+    public enum Kind {
+        RECEIVED,
+        DUPLICATE,
+        NOT_OWNER,
+        REJECTED,
+        SENT,
+        FAILED,
+        DEAD_LETTERED
+    }
+
+    private static final Kind[] KINDS = Kind.values();
+
+    private final AtomicLong cursor = new AtomicLong();
+    private final Map<Kind, LongAdder> counts = new EnumMap<>(Kind.class);
+    private final Map<Kind, Long> lastSummaryCounts = new EnumMap<>(Kind.class);
+
+    private AtomicLongArray stamps;
+    private long[] times;
+    private byte[] kinds;
+    private String[] eventIds;
+    private String[] reportTypes;
+    private int[] totalComplaints;
+    private int[] details;
+    private int mask;
+
+    private long flushedUpTo;
+    private long flushLost;
+    private Path currentFile;
+
+    @Value("${notification.audit.capacity:65536}")
+    private int capacity;
+
+    @Value("${notification.audit.directory:data/audit}")
+    private String directory;
+
+    @Value("${notification.audit.file-max-bytes:16777216}")
+    private long fileMaxBytes;
+
+    @Value("${notification.audit.max-files:8}")
+    private int maxFiles;
+
+    // 1 de cada N eventos aceptados se escribe en el log con su detalle; 0 lo desactiva
+    @Value("${notification.audit.log-sample-rate:1000}")
+    private int logSampleRate;
+
+    @PostConstruct
+    void init() {
+        int size = Integer.highestOneBit(Math.max(1024, capacity) - 1) << 1;
+        stamps = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            stamps.set(i, WRITING);
+        }
+        times = new long[size];
+        kinds = new byte[size];
+        eventIds = new String[size];
+        reportTypes = new String[size];
+        totalComplaints = new int[size];
+        details = new int[size];
+        mask = size - 1;
+        capacity = size;
+        for (Kind kind : KINDS) {
+            counts.put(kind, new LongAdder());
+            lastSummaryCounts.put(kind, 0L);
+        }
+
+        log.info("Event audit ring initialized - Capacity: {}, Directory: {}", capacity, directory);
+    }
+
+    public void record(Kind kind, ReportViewedEventDTO event) {
+        long seq = append(kind, event.getEventId(), event.getReportType(), event.getTotalComplaints(), 0);
+        if (kind == Kind.RECEIVED && logSampleRate > 0 && seq % logSampleRate == 0) {
+            log.info("Sampled event {} - type={}, reportType={}, totalComplaints={}, timestamp={}",
+                    event.getEventId(), event.getEventType(), event.getReportType(),
+                    event.getTotalComplaints(), event.getTimestamp());
+        }
+    }
+
+    // detail depende del tipo: destinatarios en SENT/FAILED, intentos en DEAD_LETTERED
+    public void record(Kind kind, String eventId, int detail) {
+        append(kind, eventId, null, 0, detail);
+    }
+
+    private long append(Kind kind, String eventId, String reportType, int complaints, int detail) {
+        long seq = cursor.getAndIncrement();
+        int slot = (int) (seq & mask);
+
+        stamps.set(slot, WRITING);
+        VarHandle.storeStoreFence();
+        times[slot] = System.currentTimeMillis();
+        kinds[slot] = (byte) kind.ordinal();
+        eventIds[slot] = eventId;
+        reportTypes[slot] = reportType;
+        totalComplaints[slot] = complaints;
+        details[slot] = detail;
+        stamps.setRelease(slot, seq);
+
+        counts.get(kind).increment();
+        return seq;
+    }
+
+    // Mas recientes primero; eventId, reportType y kind son filtros opcionales
+    public List<Map<String, Object>> recent(int limit, String eventId, String reportType, Kind kind) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        long newest = cursor.get() - 1;
+        long oldest = Math.max(0, newest - mask);
+        for (long seq = newest; seq >= oldest && result.size() < limit; seq--) {
+            Record record = read(seq);
+            if (record == null
+                    || (eventId != null && !eventId.equals(record.eventId))
+                    || (reportType != null && !reportType.equals(record.reportType))
+                    || (kind != null && kind != record.kind)) {
+                continue;
+            }
+            result.add(record.toMap());
+        }
+        return result;
+    }
+
+    private Record read(long seq) {
+        int slot = (int) (seq & mask);
+        if (stamps.getAcquire(slot) != seq) {
+            return null;
+        }
+        Record record = new Record(seq, times[slot], KINDS[kinds[slot]], eventIds[slot], reportTypes[slot],
+                totalComplaints[slot], details[slot]);
+        VarHandle.loadLoadFence();
+        return stamps.get(slot) == seq ? record : null;
+    }
+
+    // Vuelca al archivo binario lo registrado desde el ultimo volcado; rota al superar file-max-bytes
+    public synchronized Map<String, Object> flush() throws IOException {
+        Path dir = Paths.get(directory);
+        Files.createDirectories(dir);
+        if (currentFile == null || !Files.exists(currentFile) || Files.size(currentFile) >= fileMaxBytes) {
+            currentFile = rollFile(dir);
+        }
+
+        long newest = cursor.get() - 1;
+        long from = Math.max(flushedUpTo, newest - mask);
+        long lost = Math.max(0, from - flushedUpTo);
+        int written = 0;
+
+        boolean fresh = !Files.exists(currentFile) || Files.size(currentFile) == 0;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(currentFile,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)))) {
+            if (fresh) {
+                out.writeInt(FILE_MAGIC);
+            }
+            for (long seq = from; seq <= newest; seq++) {
+                Record record = read(seq);
+                if (record == null) {
+                    lost++;
+                    continue;
+                }
+                out.writeLong(record.seq);
+                out.writeLong(record.time);
+                out.writeByte(record.kind.ordinal());
+                out.writeUTF(record.eventId != null ? record.eventId : "");
+                out.writeUTF(record.reportType != null ? record.reportType : "");
+                out.writeInt(record.totalComplaints);
+                out.writeInt(record.detail);
+                written++;
+            }
+        }
+        flushedUpTo = newest + 1;
+        flushLost += lost;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("file", currentFile.toAbsolutePath().toString());
+        result.put("written", written);
+        result.put("lost", lost);
+        return result;
+    }
+
+    private Path rollFile(Path dir) throws IOException {
+        TreeSet<String> existing = new TreeSet<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+            files.forEach(file -> existing.add(file.getFileName().toString()));
+        }
+        while (existing.size() >= maxFiles) {
+            Files.deleteIfExists(dir.resolve(existing.pollFirst()));
+        }
+        return dir.resolve(String.format("%s%013d%s", FILE_PREFIX, System.currentTimeMillis(), FILE_SUFFIX));
+    }
+
+    // Una linea de resumen por intervalo en lugar de una por evento
+    @Scheduled(fixedDelayString = "${notification.audit.summary-interval-ms:60000}",
+            initialDelayString = "${notification.audit.summary-interval-ms:60000}")
+    public void logSummary() {
+        Map<Kind, Long> delta = new EnumMap<>(Kind.class);
+        long total = 0;
+        synchronized (lastSummaryCounts) {
+            for (Kind kind : KINDS) {
+                long current = counts.get(kind).sum();
+                long change = current - lastSummaryCounts.put(kind, current);
+                if (change > 0) {
+                    delta.put(kind, change);
+                    total += change;
+                }
+            }
+        }
+        if (total > 0) {
+            log.info("Event audit summary: {}", delta);
+        }
+    }
+
+    public Map<String, Long> getCounts() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        counts.forEach((kind, count) -> result.put(kind.name(), count.sum()));
+        return result;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getRecorded() {
+        return cursor.get();
+    }
+
+    public synchronized long getFlushLost() {
+        return flushLost;
+    }
+
+    private static final class Record {
+
+        final long seq;
+        final long time;
+        final Kind kind;
+        final String eventId;
+        final String reportType;
+        final int totalComplaints;
+        final int detail;
+
+        Record(long seq, long time, Kind kind, String eventId, String reportType, int totalComplaints, int detail) {
+            this.seq = seq;
+            this.time = time;
+            this.kind = kind;
+            this.eventId = eventId;
+            this.reportType = reportType;
+            this.totalComplaints = totalComplaints;
+            this.detail = detail;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("seq", seq);
+            map.put("at", Instant.ofEpochMilli(time).toString());
+            map.put("kind", kind);
+            map.put("eventId", eventId);
+            map.put("reportType", reportType);
+            map.put("totalComplaints", totalComplaints);
+            map.put("detail", detail);
+            return map;
+        }
+    }
+}
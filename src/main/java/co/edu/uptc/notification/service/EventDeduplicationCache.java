@@ -0,0 +1,175 @@
+package co.edu.uptc.notification.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+public class EventDeduplicationCache {
+
+    private static final Logger log = LoggerFactory.getLogger(EventDeduplicationCache.class);
+
+    private static final int STRIPES = 64;
+    private static final int MAX_PROBE = 16;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private Stripe[] stripes;
+
+    @Value("${notification.dedup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${notification.dedup.capacity:524288}")
+    private int capacity;
+
+    @Value("${notification.dedup.ttl-ms:600000}")
+    private long ttlMs;
+
+    @PostConstruct
+    void init() {
+        int perStripe = Integer.highestOneBit(Math.max(MAX_PROBE, capacity / STRIPES - 1) << 1);
+        stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+        capacity = perStripe * STRIPES;
+
+        log.info("Event deduplication cache initialized - Enabled: {}, Capacity: {}, TTL: {} ms",
+                enabled, capacity, ttlMs);
+    }
+
+    // Registra el eventId y devuelve false si ya se habia visto dentro del TTL
+    public boolean markIfAbsent(String eventId) {
+        if (!enabled || eventId == null) {
+            return true;
+        }
+
+        long fingerprint = fingerprint(eventId);
+        boolean added = stripeFor(fingerprint).markIfAbsent(fingerprint, System.currentTimeMillis(), ttlMs, evictions);
+        if (added) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return added;
+    }
+
+    public void forget(String eventId) {
+        if (!enabled || eventId == null) {
+            return;
+        }
+        long fingerprint = fingerprint(eventId);
+        stripeFor(fingerprint).forget(fingerprint);
+    }
+
+    private Stripe stripeFor(long fingerprint) {
+        return stripes[(int) (fingerprint >>> 58) & (STRIPES - 1)];
+    }
+
+    // FNV-1a de 64 bits con mezcla final de MurmurHash3; 0 se reserva para las celdas vacias
+    static long fingerprint(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash == 0 ? 1 : hash;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getTtlMs() {
+        return ttlMs;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    private static final class Stripe {
+
+        private final long[] fingerprints;
+        private final long[] expiresAt;
+        private final int mask;
+
+        Stripe(int size) {
+            this.fingerprints = new long[size];
+            this.expiresAt = new long[size];
+            this.mask = size - 1;
+        }
+
+        synchronized boolean markIfAbsent(long fingerprint, long now, long ttlMs, LongAdder evictions) {
+            int start = (int) fingerprint & mask;
+            int free = -1;
+            int oldest = start;
+
+            for (int i = 0; i < MAX_PROBE; i++) {
+                int slot = (start + i) & mask;
+                long current = fingerprints[slot];
+
+                if (current == fingerprint && expiresAt[slot] > now) {
+                    return false;
+                }
+                if (current == 0 || expiresAt[slot] <= now) {
+                    if (free == -1) {
+                        free = slot;
+                    }
+                    if (current == 0) {
+                        break;
+                    }
+                } else if (expiresAt[slot] < expiresAt[oldest]) {
+                    oldest = slot;
+                }
+            }
+
+            if (free == -1) {
+                // Ventana de sondeo llena: se reemplaza la entrada mas proxima a expirar
+                free = oldest;
+                evictions.increment();
+            }
+
+            fingerprints[free] = fingerprint;
+            expiresAt[free] = now + ttlMs;
+            return true;
+        }
+
+        synchronized void forget(long fingerprint) {
+            int start = (int) fingerprint & mask;
+            for (int i = 0; i < MAX_PROBE; i++) {
+                int slot = (start + i) & mask;
+                if (fingerprints[slot] == 0) {
+                    return;
+                }
+                if (fingerprints[slot] == fingerprint) {
+                    expiresAt[slot] = 0;
+                    return;
+                }
+            }
+        }
+    }
+}
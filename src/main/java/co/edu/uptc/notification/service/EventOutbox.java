@@ -0,0 +1,449 @@
+package co.edu.uptc.notification.service;
+
+import co.edu.uptc.notification.dto.ReportViewedEventDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+@Component
+public class EventOutbox {
+
+    private static final Logger log = LoggerFactory.getLogger(EventOutbox.class);
+
+    private static final byte ACCEPTED = 1;
+    private static final byte DONE = 2;
+    // Evento de una particion de otro nodo, retenido por si su duenio cae
+    private static final byte PARKED = 3;
+
+    // [int longitud total][byte tipo][long secuencia][payload]
+    private static final int HEADER_SIZE = 13;
+
+    private static final String SEGMENT_PREFIX = "outbox-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final ObjectMapper objectMapper;
+
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private final Map<Long, PendingEntry> pending = new HashMap<>();
+    private final Map<Long, ReportViewedEventDTO> recovered = new LinkedHashMap<>();
+    private final Map<Long, ReportViewedEventDTO> recoveredParked = new LinkedHashMap<>();
+    private Segment active;
+    private long nextSeq = 1;
+    private long writeCount;
+
+    private final Object flushLock = new Object();
+    private volatile long durableCount;
+    private volatile boolean running;
+    private boolean flushRequested;
+    private Thread flusher;
+
+    @Value("${notification.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${notification.outbox.directory:data/outbox}")
+    private String directory;
+
+    @Value("${notification.outbox.segment-size-bytes:16777216}")
+    private int segmentSize;
+
+    @Value("${notification.outbox.flush-interval-ms:20}")
+    private long flushIntervalMs;
+
+    @Value("${notification.outbox.sync-on-accept:false}")
+    private boolean syncOnAccept;
+
+    @Value("${notification.outbox.compaction-threshold:64}")
+    private int compactionThreshold;
+
+    public EventOutbox(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        if (!enabled) {
+            return;
+        }
+
+        Path dir = Paths.get(directory);
+        Files.createDirectories(dir);
+
+        try (Stream<Path> files = Files.list(dir)) {
+            List<Path> segmentFiles = files
+                    .filter(p -> p.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .filter(p -> p.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+            for (Path file : segmentFiles) {
+                recover(file);
+            }
+        }
+
+        for (PendingEntry entry : pending.values()) {
+            entry.segment.pending++;
+        }
+
+        active = segments.isEmpty() ? openSegment(0) : segments.lastEntry().getValue();
+        retireCompletedSegments();
+
+        running = true;
+        flusher = new Thread(this::flushLoop, "outbox-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+
+        log.info("Event outbox initialized - Directory: {}, Segments: {}, Pending to replay: {}, Parked: {}",
+                dir.toAbsolutePath(), segments.size(), recovered.size(), recoveredParked.size());
+    }
+
+    private void recover(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        long id = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        Segment segment = openSegment(id);
+        MappedByteBuffer buffer = segment.buffer;
+
+        int position = 0;
+        while (position + HEADER_SIZE <= segmentSize) {
+            int length = buffer.getInt(position);
+            if (length < HEADER_SIZE || position + length > segmentSize) {
+                break;
+            }
+            byte type = buffer.get(position + 4);
+            long seq = buffer.getLong(position + 5);
+
+            if (type == ACCEPTED || type == PARKED) {
+                byte[] payload = new byte[length - HEADER_SIZE];
+                buffer.get(position + HEADER_SIZE, payload);
+                try {
+                    ReportViewedEventDTO event = objectMapper.readValue(payload, ReportViewedEventDTO.class);
+                    (type == PARKED ? recoveredParked : recovered).put(seq, event);
+                    pending.put(seq, new PendingEntry(segment, position));
+                } catch (IOException e) {
+                    log.warn("Skipping unreadable outbox entry {} in {}: {}", seq, name, e.getMessage());
+                }
+            } else if (type == DONE) {
+                recovered.remove(seq);
+                recoveredParked.remove(seq);
+                pending.remove(seq);
+            }
+            nextSeq = Math.max(nextSeq, seq + 1);
+            position += length;
+        }
+        segment.position = position;
+    }
+
+    public long append(ReportViewedEventDTO event) {
+        return append(ACCEPTED, event);
+    }
+
+    public long appendParked(ReportViewedEventDTO event) {
+        return append(PARKED, event);
+    }
+
+    private long append(byte type, ReportViewedEventDTO event) {
+        if (!enabled) {
+            return -1;
+        }
+
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(event);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to serialize event for outbox", e);
+        }
+
+        long seq;
+        long target;
+        synchronized (this) {
+            seq = nextSeq++;
+            int offset = writeRecord(type, seq, payload);
+            pending.put(seq, new PendingEntry(active, offset));
+            active.pending++;
+            target = writeCount;
+        }
+
+        if (syncOnAccept) {
+            awaitDurable(target);
+        }
+        return seq;
+    }
+
+    public void markDone(long seq) {
+        if (!enabled || seq < 0) {
+            return;
+        }
+
+        synchronized (this) {
+            PendingEntry entry = pending.remove(seq);
+            if (entry == null) {
+                return;
+            }
+            writeRecord(DONE, seq, new byte[0]);
+            entry.segment.pending--;
+            if (entry.segment.pending == 0 && entry.segment != active) {
+                retireCompletedSegments();
+            }
+        }
+    }
+
+    // Eventos aceptados antes del ultimo reinicio que no alcanzaron a entregarse
+    public synchronized Map<Long, ReportViewedEventDTO> drainRecovered() {
+        Map<Long, ReportViewedEventDTO> events = new LinkedHashMap<>(recovered);
+        recovered.clear();
+        return events;
+    }
+
+    // Eventos retenidos de otros nodos; quien los recupere debe volver a evaluar el duenio
+    public synchronized Map<Long, ReportViewedEventDTO> drainRecoveredParked() {
+        Map<Long, ReportViewedEventDTO> events = new LinkedHashMap<>(recoveredParked);
+        recoveredParked.clear();
+        return events;
+    }
+
+    private int writeRecord(byte type, long seq, byte[] payload) {
+        int length = HEADER_SIZE + payload.length;
+        if (length > segmentSize) {
+            throw new IllegalStateException("Outbox record of " + length + " bytes exceeds segment size");
+        }
+        if (active.position + length > segmentSize) {
+            roll();
+        }
+
+        int offset = active.position;
+        MappedByteBuffer buffer = active.buffer;
+        buffer.put(offset + 4, type);
+        buffer.putLong(offset + 5, seq);
+        buffer.put(offset + HEADER_SIZE, payload);
+        // La longitud se escribe al final: un registro a medias nunca se lee en la recuperacion
+        buffer.putInt(offset, length);
+
+        active.position += length;
+        writeCount++;
+        return offset;
+    }
+
+    private void roll() {
+        active.buffer.force();
+        try {
+            active = openSegment(active.id + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create outbox segment", e);
+        }
+    }
+
+    private Segment openSegment(long id) throws IOException {
+        Path path = Paths.get(directory, String.format("%s%020d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        Segment segment = new Segment(id, path, channel, buffer);
+        segments.put(id, segment);
+        return segment;
+    }
+
+    // Solo se eliminan segmentos desde el mas antiguo, asi un DONE nunca se pierde antes que su ACCEPTED
+    private void retireCompletedSegments() {
+        while (!segments.isEmpty()) {
+            Segment oldest = segments.firstEntry().getValue();
+            if (oldest == active || oldest.pending > 0) {
+                return;
+            }
+            segments.remove(oldest.id);
+            try {
+                oldest.channel.close();
+                Files.deleteIfExists(oldest.path);
+            } catch (IOException e) {
+                log.warn("Failed to delete outbox segment {}: {}", oldest.path, e.getMessage());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${notification.outbox.compaction-interval-ms:60000}")
+    public synchronized void compact() {
+        if (!enabled) {
+            return;
+        }
+
+        // El segmento mas antiguo con pocas entradas pendientes se reescribe al final del log
+        Segment oldest = segments.firstEntry().getValue();
+        if (oldest == active || oldest.pending > compactionThreshold) {
+            retireCompletedSegments();
+            return;
+        }
+
+        List<Relocated> relocated = new ArrayList<>();
+        for (Map.Entry<Long, PendingEntry> entry : pending.entrySet()) {
+            PendingEntry location = entry.getValue();
+            if (location.segment != oldest) {
+                continue;
+            }
+            int length = oldest.buffer.getInt(location.offset);
+            byte[] payload = new byte[length - HEADER_SIZE];
+            oldest.buffer.get(location.offset + HEADER_SIZE, payload);
+            relocated.add(new Relocated(entry.getKey(), oldest.buffer.get(location.offset + 4), payload));
+        }
+
+        for (Relocated entry : relocated) {
+            int offset = writeRecord(entry.type, entry.seq, entry.payload);
+            pending.put(entry.seq, new PendingEntry(active, offset));
+            active.pending++;
+            oldest.pending--;
+        }
+
+        active.buffer.force();
+        retireCompletedSegments();
+
+        if (!relocated.isEmpty()) {
+            log.info("Outbox compaction relocated {} pending entries from segment {}", relocated.size(), oldest.id);
+        }
+    }
+
+    private void awaitDurable(long target) {
+        synchronized (flushLock) {
+            flushRequested = true;
+            flushLock.notifyAll();
+            while (running && durableCount < target) {
+                try {
+                    flushLock.wait(flushIntervalMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // Group commit: un solo force() cubre todos los registros escritos desde el anterior
+    private void flushLoop() {
+        while (running) {
+            synchronized (flushLock) {
+                if (!flushRequested) {
+                    try {
+                        flushLock.wait(flushIntervalMs);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                flushRequested = false;
+            }
+            flushNow();
+        }
+    }
+
+    private void flushNow() {
+        long target;
+        Segment segment;
+        synchronized (this) {
+            target = writeCount;
+            segment = active;
+        }
+        if (target == durableCount) {
+            return;
+        }
+
+        segment.buffer.force();
+
+        synchronized (flushLock) {
+            durableCount = target;
+            flushLock.notifyAll();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!enabled) {
+            return;
+        }
+
+        running = false;
+        synchronized (flushLock) {
+            flushLock.notifyAll();
+        }
+        flushNow();
+
+        synchronized (this) {
+            for (Segment segment : segments.values()) {
+                try {
+                    segment.channel.close();
+                } catch (IOException e) {
+                    log.debug("Error closing outbox segment {}: {}", segment.path, e.getMessage());
+                }
+            }
+        }
+        log.info("Event outbox closed");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    private static final class Segment {
+
+        private final long id;
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int position;
+        private int pending;
+
+        Segment(long id, Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+    }
+
+    private static final class Relocated {
+
+        private final long seq;
+        private final byte type;
+        private final byte[] payload;
+
+        Relocated(long seq, byte type, byte[] payload) {
+            this.seq = seq;
+            this.type = type;
+            this.payload = payload;
+        }
+    }
+
+    private static final class PendingEntry {
+
+        private final Segment segment;
+        private final int offset;
+
+        PendingEntry(Segment segment, int offset) {
+            this.segment = segment;
+            this.offset = offset;
+        }
+    }
+}
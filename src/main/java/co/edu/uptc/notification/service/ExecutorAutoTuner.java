@@ -0,0 +1,337 @@
+package co.edu.uptc.notification.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+// Ajusta el corePoolSize de los executors de envio y de procesamiento segun la carga medida.
+// Objetivo por ley de Little (tasa de llegada x tiempo de servicio, mas lo necesario para vaciar la cola),
+// acotado por un limite de gradiente: si la latencia SMTP sube respecto a su minimo, el relay esta saturado
+// y mas hilos solo empeoran la cola, asi que el pool se reduce en proporcion
+@Component
+public class ExecutorAutoTuner {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutorAutoTuner.class);
+
+    private static final int MAX_DECISIONS = 100;
+    private static final String EMAIL_EXECUTOR = "emailSenderExecutor";
+
+    // El minimo de latencia se relaja un poco en cada ciclo para adaptarse si el relay cambia de forma permanente
+    private static final double MIN_RTT_DRIFT = 1.01;
+
+    private final Executor emailSenderExecutor;
+    private final Executor eventProcessorExecutor;
+    private final NotificationMetrics metrics;
+    private final ReliableEmailSender reliableSender;
+    private final NotificationPipeline pipeline;
+    private final SmtpTransportPool smtpTransportPool;
+
+    private final Map<String, PoolState> pools = new LinkedHashMap<>();
+    private final Deque<Map<String, Object>> decisions = new ArrayDeque<>();
+
+    private long lastTickNanos;
+    private long prevErrors;
+    private long prevSendCount;
+    private long prevSendSumMicros;
+    private long prevConnectSumMicros;
+    private long prevRenderCount;
+    private long prevRenderSumMicros;
+    private double minSendMicros = Double.MAX_VALUE;
+
+    @Value("${notification.autotune.enabled:false}")
+    private volatile boolean enabled;
+
+    @Value("${notification.autotune.headroom:1.2}")
+    private double headroom;
+
+    @Value("${notification.autotune.max-step:2}")
+    private int maxStep;
+
+    @Value("${notification.autotune.latency-tolerance:2.0}")
+    private double latencyTolerance;
+
+    @Value("${notification.autotune.max-error-rate:0.1}")
+    private double maxErrorRate;
+
+    @Value("${notification.autotune.email.min-pool-size:2}")
+    private int emailMinPoolSize;
+
+    @Value("${notification.autotune.email.max-pool-size:20}")
+    private int emailMaxPoolSize;
+
+    @Value("${notification.autotune.event.min-pool-size:2}")
+    private int eventMinPoolSize;
+
+    @Value("${notification.autotune.event.max-pool-size:30}")
+    private int eventMaxPoolSize;
+
+    public ExecutorAutoTuner(@Qualifier("emailSenderExecutor") Executor emailSenderExecutor,
+                             @Qualifier("eventProcessorExecutor") Executor eventProcessorExecutor,
+                             NotificationMetrics metrics, ReliableEmailSender reliableSender,
+                             NotificationPipeline pipeline, SmtpTransportPool smtpTransportPool) {
+        this.emailSenderExecutor = emailSenderExecutor;
+        this.eventProcessorExecutor = eventProcessorExecutor;
+        this.metrics = metrics;
+        this.reliableSender = reliableSender;
+        this.pipeline = pipeline;
+        this.smtpTransportPool = smtpTransportPool;
+    }
+
+    @PostConstruct
+    void init() {
+        // Con hilos virtuales no hay pool que dimensionar
+        if (emailSenderExecutor instanceof ThreadPoolTaskExecutor pool) {
+            pools.put(EMAIL_EXECUTOR, new PoolState(pool, emailMinPoolSize, emailMaxPoolSize));
+        }
+        if (eventProcessorExecutor instanceof ThreadPoolTaskExecutor pool) {
+            pools.put("eventProcessorExecutor", new PoolState(pool, eventMinPoolSize, eventMaxPoolSize));
+        }
+        lastTickNanos = System.nanoTime();
+        captureBaseline();
+
+        log.info("Executor auto-tuner initialized - Enabled: {}, Pools: {}", enabled, pools.keySet());
+    }
+
+    @Scheduled(fixedDelayString = "${notification.autotune.interval-ms:10000}",
+            initialDelayString = "${notification.autotune.interval-ms:10000}")
+    public synchronized void tune() {
+        long now = System.nanoTime();
+        double seconds = (now - lastTickNanos) / 1e9;
+        lastTickNanos = now;
+
+        LatencyHistogram send = metrics.histogram(NotificationMetrics.Stage.SMTP_SEND);
+        LatencyHistogram connect = metrics.histogram(NotificationMetrics.Stage.SMTP_CONNECT);
+        LatencyHistogram render = metrics.histogram(NotificationMetrics.Stage.RENDER);
+
+        long sendCount = send.getCount() - prevSendCount;
+        long renderCount = render.getCount() - prevRenderCount;
+        long errors = reliableSender.getRetries() + reliableSender.getDeadLettered() + pipeline.getFailedSends() - prevErrors;
+        if (sendCount < 0 || renderCount < 0) {
+            // Se reinicio NotificationMetrics: este intervalo no es comparable
+            captureBaseline();
+            return;
+        }
+
+        // Tiempo de servicio de una tarea de envio: conectar (amortizado) + enviar. La espera por una conexion del
+        // pool queda fuera: es cola, no servicio, y contarla haria que mas hilos parecieran necesarios
+        double sendMicros = sendCount > 0 ? (send.getSumMicros() - prevSendSumMicros) / (double) sendCount : 0;
+        double emailTaskMicros = sendCount > 0
+                ? sendMicros + (connect.getSumMicros() - prevConnectSumMicros) / (double) sendCount
+                : 0;
+        double renderMicros = renderCount > 0 ? (render.getSumMicros() - prevRenderSumMicros) / (double) renderCount : 0;
+        double errorRate = sendCount > 0 ? errors / (double) (sendCount + errors) : 0;
+
+        if (sendCount > 0) {
+            minSendMicros = Math.min(minSendMicros * MIN_RTT_DRIFT, sendMicros);
+        }
+        captureBaseline();
+
+        if (!enabled) {
+            return;
+        }
+
+        PoolState email = pools.get(EMAIL_EXECUTOR);
+        if (email != null) {
+            // Gradiente: minimo observado con tolerancia frente a la latencia actual; <1 indica un relay saturado
+            double gradient = sendMicros > 0 && minSendMicros < Double.MAX_VALUE
+                    ? Math.min(1.0, minSendMicros * latencyTolerance / sendMicros)
+                    : 1.0;
+            adjust(EMAIL_EXECUTOR, email, seconds, emailTaskMicros, Math.max(0.5, gradient), errorRate);
+        }
+        PoolState event = pools.get("eventProcessorExecutor");
+        if (event != null) {
+            adjust("eventProcessorExecutor", event, seconds, renderMicros, 1.0, 0);
+        }
+    }
+
+    private void adjust(String name, PoolState state, double seconds, double serviceMicros, double gradient,
+                        double errorRate) {
+        ThreadPoolTaskExecutor pool = state.pool;
+        long completed = pool.getThreadPoolExecutor().getCompletedTaskCount();
+        int queued = pool.getQueueSize();
+        long completedDelta = completed - state.prevCompleted;
+        int queueDelta = queued - state.prevQueued;
+        state.prevCompleted = completed;
+        state.prevQueued = queued;
+
+        int current = pool.getCorePoolSize();
+        if (state.override != null) {
+            if (current != state.override) {
+                apply(name, state, state.override, "manual override", 0, serviceMicros);
+            }
+            return;
+        }
+
+        // Hubo trabajo pero ninguna muestra de latencia (p. ej. pool SMTP desactivado): sin W no se decide
+        if (serviceMicros <= 0 && (completedDelta > 0 || queued > 0)) {
+            return;
+        }
+
+        // Little: L = lambda * W; la cola pendiente se reparte para vaciarla en el proximo intervalo
+        double serviceSeconds = serviceMicros / 1e6;
+        double arrivalRate = (completedDelta + Math.max(0, queueDelta)) / seconds;
+        double littleTarget = (arrivalRate * serviceSeconds + queued * serviceSeconds / seconds) * headroom;
+        int target = (int) Math.ceil(littleTarget);
+        String reason = String.format("little(lambda=%.1f/s, W=%.1f ms, queue=%d)", arrivalRate, serviceMicros / 1000, queued);
+
+        if (gradient < 1.0) {
+            int gradientLimit = (int) Math.floor(current * gradient);
+            if (gradientLimit < target) {
+                target = gradientLimit;
+                reason = String.format("latency gradient %.2f", gradient);
+            }
+        }
+        if (errorRate > maxErrorRate && target > current) {
+            target = current;
+            reason = String.format("error rate %.1f%%, holding", errorRate * 100);
+        }
+
+        int next = Math.max(current - maxStep, Math.min(current + maxStep, target));
+        next = Math.max(state.minSize, Math.min(state.maxSize, next));
+        state.lastArrivalRate = arrivalRate;
+        state.lastServiceMicros = serviceMicros;
+        state.lastTarget = target;
+        if (next != current) {
+            apply(name, state, next, reason, arrivalRate, serviceMicros);
+        }
+    }
+
+    private void apply(String name, PoolState state, int requestedSize, String reason, double arrivalRate,
+                       double serviceMicros) {
+        ThreadPoolTaskExecutor pool = state.pool;
+        int previous = pool.getCorePoolSize();
+        int coreSize = Math.min(requestedSize, sizeCap(name));
+        if (coreSize != requestedSize) {
+            reason = reason + ", capped at SMTP pool limit " + coreSize;
+        }
+        if (coreSize == previous) {
+            return;
+        }
+        // El maximo se sube antes que el core (ThreadPoolExecutor rechaza core > max); por encima del core
+        // solo se crean hilos cuando la cola se llena, asi que el maximo configurado queda como margen de rafaga
+        if (coreSize > pool.getMaxPoolSize()) {
+            pool.setMaxPoolSize(coreSize);
+        }
+        pool.setCorePoolSize(coreSize);
+        if (EMAIL_EXECUTOR.equals(name) && smtpTransportPool.isEnabled()) {
+            smtpTransportPool.resize(pool.getMaxPoolSize());
+        }
+
+        Map<String, Object> decision = new LinkedHashMap<>();
+        decision.put("at", Instant.now().toString());
+        decision.put("executor", name);
+        decision.put("from", previous);
+        decision.put("to", coreSize);
+        decision.put("reason", reason);
+        decision.put("arrivalRate", Math.round(arrivalRate * 10) / 10.0);
+        decision.put("serviceTimeMs", Math.round(serviceMicros / 100) / 10.0);
+        decisions.addFirst(decision);
+        while (decisions.size() > MAX_DECISIONS) {
+            decisions.removeLast();
+        }
+
+        log.info("Auto-tuner resized {} core pool {} -> {} ({})", name, previous, coreSize, reason);
+    }
+
+    // Hilos de envio por encima de las conexiones del pool solo esperarian en borrow()
+    private int sizeCap(String name) {
+        return EMAIL_EXECUTOR.equals(name) && smtpTransportPool.isEnabled()
+                ? smtpTransportPool.getSizeLimit()
+                : Integer.MAX_VALUE;
+    }
+
+    private void captureBaseline() {
+        LatencyHistogram send = metrics.histogram(NotificationMetrics.Stage.SMTP_SEND);
+        LatencyHistogram render = metrics.histogram(NotificationMetrics.Stage.RENDER);
+        prevSendCount = send.getCount();
+        prevSendSumMicros = send.getSumMicros();
+        prevConnectSumMicros = metrics.histogram(NotificationMetrics.Stage.SMTP_CONNECT).getSumMicros();
+        prevRenderCount = render.getCount();
+        prevRenderSumMicros = render.getSumMicros();
+        prevErrors = reliableSender.getRetries() + reliableSender.getDeadLettered() + pipeline.getFailedSends();
+    }
+
+    // Fija el core de un pool y lo saca del ajuste automatico; null devuelve el control al auto-tuner
+    public synchronized boolean setOverride(String executor, Integer coreSize) {
+        PoolState state = pools.get(executor);
+        if (state == null) {
+            return false;
+        }
+        state.override = coreSize;
+        if (coreSize != null) {
+            apply(executor, state, coreSize, "manual override", 0, state.lastServiceMicros);
+        } else {
+            log.info("Auto-tuner override cleared for {}", executor);
+        }
+        return true;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        log.info("Executor auto-tuner {}", enabled ? "enabled" : "disabled");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public synchronized Map<String, Object> getPools() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        pools.forEach((name, state) -> {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("corePoolSize", state.pool.getCorePoolSize());
+            stats.put("maxPoolSize", state.pool.getMaxPoolSize());
+            stats.put("minBound", state.minSize);
+            stats.put("maxBound", Math.min(state.maxSize, sizeCap(name)));
+            stats.put("override", state.override);
+            stats.put("lastTarget", state.lastTarget);
+            stats.put("arrivalRate", Math.round(state.lastArrivalRate * 10) / 10.0);
+            stats.put("serviceTimeMs", Math.round(state.lastServiceMicros / 100) / 10.0);
+            result.put(name, stats);
+        });
+        return result;
+    }
+
+    public synchronized List<Map<String, Object>> getDecisions() {
+        return new ArrayList<>(decisions);
+    }
+
+    public synchronized double getMinSendLatencyMs() {
+        return minSendMicros == Double.MAX_VALUE ? 0 : Math.round(minSendMicros / 100) / 10.0;
+    }
+
+    private static final class PoolState {
+
+        final ThreadPoolTaskExecutor pool;
+        final int minSize;
+        final int maxSize;
+        Integer override;
+        long prevCompleted;
+        int prevQueued;
+        int lastTarget;
+        double lastArrivalRate;
+        double lastServiceMicros;
+
+        PoolState(ThreadPoolTaskExecutor pool, int minSize, int maxSize) {
+            this.pool = pool;
+            this.minSize = minSize;
+            this.maxSize = maxSize;
+            this.prevCompleted = pool.getThreadPoolExecutor().getCompletedTaskCount();
+            this.lastTarget = pool.getCorePoolSize();
+        }
+    }
+}
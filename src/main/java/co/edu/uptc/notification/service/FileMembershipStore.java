@@ -0,0 +1,85 @@
+package co.edu.uptc.notification.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Set;
+import java.util.TreeSet;
+
+// Un archivo por nodo en un directorio compartido (NFS, volumen comun) con el instante del ultimo heartbeat
+public class FileMembershipStore implements ClusterMembershipStore {
+
+    private static final String SUFFIX = ".node";
+
+    // Las entradas vencidas hace mas de este multiplo del TTL se borran (nodos que murieron sin salir)
+    private static final int CLEANUP_TTL_MULTIPLIER = 10;
+
+    private final Path directory;
+
+    public FileMembershipStore(Path directory) {
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create cluster membership directory " + directory, e);
+        }
+    }
+
+    @Override
+    public void heartbeat(String nodeId, long nowMs) {
+        Path target = directory.resolve(nodeId + SUFFIX);
+        Path tmp = directory.resolve(nodeId + SUFFIX + ".tmp");
+        try {
+            // Escritura atomica: los demas nodos nunca leen un archivo a medio escribir
+            Files.writeString(tmp, Long.toString(nowMs), StandardCharsets.US_ASCII);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write heartbeat for node " + nodeId, e);
+        }
+    }
+
+    @Override
+    public Set<String> liveMembers(long nowMs, long ttlMs) {
+        Set<String> live = new TreeSet<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String nodeId = name.substring(0, name.length() - SUFFIX.length());
+                long lastSeen = readHeartbeat(file);
+                if (lastSeen < 0) {
+                    continue;
+                }
+                if (nowMs - lastSeen <= ttlMs) {
+                    live.add(nodeId);
+                } else if (nowMs - lastSeen > ttlMs * CLEANUP_TTL_MULTIPLIER) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list cluster members in " + directory, e);
+        }
+        return live;
+    }
+
+    private static long readHeartbeat(Path file) {
+        try {
+            return Long.parseLong(Files.readString(file, StandardCharsets.US_ASCII).trim());
+        } catch (IOException | NumberFormatException e) {
+            // El nodo pudo salir entre el listado y la lectura
+            return -1;
+        }
+    }
+
+    @Override
+    public void leave(String nodeId) {
+        try {
+            Files.deleteIfExists(directory.resolve(nodeId + SUFFIX));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot remove node " + nodeId, e);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package co.edu.uptc.notification.service;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Compartido por todos los contextos de la misma JVM: sirve para probar varios nodos en un solo proceso
+public class InMemoryMembershipStore implements ClusterMembershipStore {
+
+    private static final Map<String, Long> MEMBERS = new ConcurrentHashMap<>();
+
+    @Override
+    public void heartbeat(String nodeId, long nowMs) {
+        MEMBERS.put(nodeId, nowMs);
+    }
+
+    @Override
+    public Set<String> liveMembers(long nowMs, long ttlMs) {
+        Set<String> live = new TreeSet<>();
+        MEMBERS.forEach((nodeId, lastSeen) -> {
+            if (nowMs - lastSeen <= ttlMs) {
+                live.add(nodeId);
+            }
+        });
+        return live;
+    }
+
+    @Override
+    public void leave(String nodeId) {
+        MEMBERS.remove(nodeId);
+    }
+}
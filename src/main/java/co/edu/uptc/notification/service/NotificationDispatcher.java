@@ -0,0 +1,260 @@
+package co.edu.uptc.notification.service;
+
+import co.edu.uptc.notification.dto.ReportViewedEventDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class NotificationDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private static final long REPLAY_BACKOFF_MS = 200;
+
+    public enum DispatchResult {
+        ACCEPTED,
+        DUPLICATE,
+        NOT_OWNER
+    }
+
+    private final NotificationPipeline pipeline;
+    private final ReportViewedDigestService digestService;
+    private final EventDeduplicationCache deduplicationCache;
+    private final EventOutbox outbox;
+    private final Executor taskExecutor;
+    private final ClusterMembership cluster;
+    private final EventAuditRing auditRing;
+    private final ViewAnalytics viewAnalytics;
+
+    // Eventos de otros nodos retenidos por si su duenio cae antes de entregarlos; en orden de llegada,
+    // que tambien es el orden de vencimiento
+    private final ConcurrentLinkedDeque<ParkedEvent> parked = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger parkedCount = new AtomicInteger();
+    private final AtomicLong parkedReleased = new AtomicLong();
+    private final AtomicLong parkedExpired = new AtomicLong();
+    private final AtomicLong parkedOverflow = new AtomicLong();
+    private long lastParkedScanRebalances;
+
+    // Debe cubrir member-ttl-ms mas un heartbeat: el tiempo que tarda la particion de un nodo caido en cambiar de duenio
+    @Value("${notification.cluster.failover-grace-ms:30000}")
+    private long failoverGraceMs;
+
+    @Value("${notification.cluster.max-parked:100000}")
+    private int maxParked;
+
+    public NotificationDispatcher(NotificationPipeline pipeline,
+                                  ReportViewedDigestService digestService,
+                                  EventDeduplicationCache deduplicationCache,
+                                  EventOutbox outbox,
+                                  @Qualifier("taskExecutor") Executor taskExecutor,
+                                  ClusterMembership cluster,
+                                  EventAuditRing auditRing,
+                                  ViewAnalytics viewAnalytics) {
+        this.pipeline = pipeline;
+        this.digestService = digestService;
+        this.deduplicationCache = deduplicationCache;
+        this.outbox = outbox;
+        this.taskExecutor = taskExecutor;
+        this.cluster = cluster;
+        this.auditRing = auditRing;
+        this.viewAnalytics = viewAnalytics;
+    }
+
+    public DispatchResult dispatch(ReportViewedEventDTO event) {
+        // Todas las replicas reciben el evento; solo lo entrega el nodo duenio de su particion.
+        // Los demas lo retienen: si el duenio cae, el nodo que herede la particion lo entrega
+        if (!cluster.owns(event)) {
+            park(event, outbox.appendParked(event));
+            auditRing.record(EventAuditRing.Kind.NOT_OWNER, event);
+            return DispatchResult.NOT_OWNER;
+        }
+        if (!deduplicationCache.markIfAbsent(event.getEventId())) {
+            auditRing.record(EventAuditRing.Kind.DUPLICATE, event);
+            return DispatchResult.DUPLICATE;
+        }
+
+        long seq = -1;
+        try {
+            // El evento queda en el outbox antes de responder al broker
+            seq = outbox.append(event);
+            deliver(event, seq);
+            auditRing.record(EventAuditRing.Kind.RECEIVED, event);
+            // Solo eventos aceptados: los rechazados vuelven a llegar y se contarian dos veces
+            viewAnalytics.record(event);
+            return DispatchResult.ACCEPTED;
+        } catch (RuntimeException e) {
+            auditRing.record(EventAuditRing.Kind.REJECTED, event);
+            // No se acepto: el broker reintentara, asi que no debe quedar pendiente ni marcado como visto
+            outbox.markDone(seq);
+            deduplicationCache.forget(event.getEventId());
+            throw e;
+        }
+    }
+
+    private void deliver(ReportViewedEventDTO event, long seq) {
+        if (digestService.isEnabled()) {
+            // El resumen marca la entrada como hecha cuando se envia, no al agregarla en memoria
+            digestService.accept(event, seq);
+            return;
+        }
+
+        pipeline.submit(event).whenComplete((result, error) -> {
+            if (error == null) {
+                outbox.markDone(seq);
+            } else {
+                log.warn("Event {} left pending in outbox: {}", event.getEventId(), error.getMessage());
+            }
+        });
+    }
+
+    private void park(ReportViewedEventDTO event, long seq) {
+        if (parkedCount.incrementAndGet() > maxParked) {
+            // Sin espacio se vuelve a confiar solo en el duenio actual
+            parkedCount.decrementAndGet();
+            parkedOverflow.incrementAndGet();
+            outbox.markDone(seq);
+            return;
+        }
+        parked.addLast(new ParkedEvent(event, seq, System.currentTimeMillis() + failoverGraceMs));
+    }
+
+    // Tras un cambio de vista se entregan los retenidos que ahora son de este nodo; los vencidos se descartan.
+    // Solo este metodo saca elementos de parked, asi que el iterador y peek/poll no compiten entre si
+    @Scheduled(fixedDelayString = "${notification.cluster.heartbeat-interval-ms:5000}")
+    public void releaseParkedEvents() {
+        if (parked.isEmpty()) {
+            return;
+        }
+
+        long rebalances = cluster.getRebalances();
+        if (rebalances != lastParkedScanRebalances) {
+            lastParkedScanRebalances = rebalances;
+            List<ParkedEvent> takenOver = new ArrayList<>();
+            Iterator<ParkedEvent> it = parked.iterator();
+            while (it.hasNext()) {
+                ParkedEvent entry = it.next();
+                if (cluster.isOwner(entry.event)) {
+                    it.remove();
+                    parkedCount.decrementAndGet();
+                    takenOver.add(entry);
+                }
+            }
+            if (!takenOver.isEmpty()) {
+                log.info("Delivering {} parked events from partitions this node took over", takenOver.size());
+                parkedReleased.addAndGet(takenOver.size());
+                taskExecutor.execute(() -> takenOver.forEach(entry -> takeOver(entry.seq, entry.event)));
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        ParkedEvent head;
+        while ((head = parked.peekFirst()) != null && head.expiresAt <= now) {
+            parked.pollFirst();
+            parkedCount.decrementAndGet();
+            parkedExpired.incrementAndGet();
+            outbox.markDone(head.seq);
+        }
+    }
+
+    private void takeOver(long seq, ReportViewedEventDTO event) {
+        if (!deduplicationCache.markIfAbsent(event.getEventId())) {
+            outbox.markDone(seq);
+            return;
+        }
+        auditRing.record(EventAuditRing.Kind.RECEIVED, event);
+        viewAnalytics.record(event);
+        deliverWhenAdmitted(seq, event);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void replayPendingEvents() {
+        Map<Long, ReportViewedEventDTO> recovered = outbox.drainRecovered();
+        Map<Long, ReportViewedEventDTO> recoveredParked = outbox.drainRecoveredParked();
+        if (recovered.isEmpty() && recoveredParked.isEmpty()) {
+            return;
+        }
+
+        log.info("Replaying {} pending events from outbox, {} parked for other nodes",
+                recovered.size(), recoveredParked.size());
+        taskExecutor.execute(() -> {
+            recovered.forEach(this::replay);
+            // Los retenidos se vuelven a evaluar: solo se entregan si la particion ahora es de este nodo
+            recoveredParked.forEach((seq, event) -> {
+                if (cluster.isOwner(event)) {
+                    takeOver(seq, event);
+                } else {
+                    park(event, seq);
+                }
+            });
+        });
+    }
+
+    private void replay(long seq, ReportViewedEventDTO event) {
+        deduplicationCache.markIfAbsent(event.getEventId());
+        deliverWhenAdmitted(seq, event);
+    }
+
+    private void deliverWhenAdmitted(long seq, ReportViewedEventDTO event) {
+        while (true) {
+            try {
+                deliver(event, seq);
+                return;
+            } catch (PipelineSaturatedException e) {
+                // La reproduccion espera a que el pipeline tenga capacidad en lugar de descartar eventos
+                try {
+                    Thread.sleep(REPLAY_BACKOFF_MS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to replay outbox event {}: {}", event.getEventId(), e.getMessage(), e);
+                return;
+            }
+        }
+    }
+
+    public int getParkedEvents() {
+        return parkedCount.get();
+    }
+
+    public long getParkedReleased() {
+        return parkedReleased.get();
+    }
+
+    public long getParkedExpired() {
+        return parkedExpired.get();
+    }
+
+    public long getParkedOverflow() {
+        return parkedOverflow.get();
+    }
+
+    private static final class ParkedEvent {
+
+        private final ReportViewedEventDTO event;
+        private final long seq;
+        private final long expiresAt;
+
+        ParkedEvent(ReportViewedEventDTO event, long seq, long expiresAt) {
+            this.event = event;
+            this.seq = seq;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
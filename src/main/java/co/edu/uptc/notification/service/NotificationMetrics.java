@@ -0,0 +1,104 @@
+package co.edu.uptc.notification.service;
+
+import co.edu.uptc.notification.config.CountingRejectedExecutionHandler;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+// Latencias por etapa y saturacion de los executors para dimensionar los pools con datos
+@Component
+public class NotificationMetrics {
+
+    public enum Stage {
+        ACCEPT("acceptLatency"),
+        RENDER("renderTime"),
+        SMTP_BORROW("smtpBorrowWait"),
+        SMTP_CONNECT("smtpConnectTime"),
+        SMTP_SEND("smtpSendTime"),
+        END_TO_END("eventToDelivered");
+
+        private final String metricName;
+
+        Stage(String metricName) {
+            this.metricName = metricName;
+        }
+    }
+
+    private final Map<Stage, LatencyHistogram> histograms = new EnumMap<>(Stage.class);
+    private final Map<String, Executor> executors = new LinkedHashMap<>();
+    private final long startedAt = System.currentTimeMillis();
+
+    public NotificationMetrics(@Qualifier("emailSenderExecutor") Executor emailSenderExecutor,
+                               @Qualifier("eventProcessorExecutor") Executor eventProcessorExecutor,
+                               @Qualifier("taskExecutor") Executor taskExecutor) {
+        for (Stage stage : Stage.values()) {
+            histograms.put(stage, new LatencyHistogram());
+        }
+        executors.put("emailSenderExecutor", emailSenderExecutor);
+        executors.put("eventProcessorExecutor", eventProcessorExecutor);
+        executors.put("taskExecutor", taskExecutor);
+    }
+
+    public void record(Stage stage, long nanos) {
+        histograms.get(stage).recordNanos(nanos);
+    }
+
+    public void recordSince(Stage stage, long startNanos) {
+        histograms.get(stage).recordNanos(System.nanoTime() - startNanos);
+    }
+
+    public LatencyHistogram histogram(Stage stage) {
+        return histograms.get(stage);
+    }
+
+    public Map<String, Object> getLatencies() {
+        Map<String, Object> latencies = new LinkedHashMap<>();
+        histograms.forEach((stage, histogram) -> latencies.put(stage.metricName, histogram.snapshot()));
+        return latencies;
+    }
+
+    public Map<String, Object> getExecutors() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        executors.forEach((name, executor) -> result.put(name, describe(executor)));
+        return result;
+    }
+
+    private Map<String, Object> describe(Executor executor) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        if (!(executor instanceof ThreadPoolTaskExecutor pool)) {
+            // Hilos virtuales: no hay pool ni cola que medir
+            stats.put("mode", "virtual");
+            return stats;
+        }
+
+        ThreadPoolExecutor threadPool = pool.getThreadPoolExecutor();
+        stats.put("mode", "platform");
+        stats.put("corePoolSize", pool.getCorePoolSize());
+        stats.put("maxPoolSize", pool.getMaxPoolSize());
+        stats.put("poolSize", pool.getPoolSize());
+        stats.put("largestPoolSize", threadPool.getLargestPoolSize());
+        stats.put("activeThreads", pool.getActiveCount());
+        stats.put("queueDepth", pool.getQueueSize());
+        stats.put("queueCapacity", pool.getQueueCapacity());
+        stats.put("completedTasks", threadPool.getCompletedTaskCount());
+        if (threadPool.getRejectedExecutionHandler() instanceof CountingRejectedExecutionHandler handler) {
+            stats.put("rejectionPolicy", handler.getPolicy());
+            stats.put("rejections", handler.getRejected());
+        }
+        return stats;
+    }
+
+    public long getUptimeMs() {
+        return System.currentTimeMillis() - startedAt;
+    }
+
+    public void reset() {
+        histograms.values().forEach(LatencyHistogram::reset);
+    }
+}
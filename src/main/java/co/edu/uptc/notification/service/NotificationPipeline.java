@@ -0,0 +1,205 @@
+package co.edu.uptc.notification.service;
+
+import co.edu.uptc.notification.dto.ReportViewedDigestDTO;
+import co.edu.uptc.notification.dto.ReportViewedEventDTO;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// ingest -> render -> fan-out -> send, cada etapa en su executor con cola acotada
+@Service
+public class NotificationPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationPipeline.class);
+
+    private final EmailNotificationService emailService;
+    private final Executor eventProcessorExecutor;
+    private final ReliableEmailSender reliableSender;
+    private final NotificationMetrics metrics;
+    private final EventAuditRing auditRing;
+    private final PriorityLanes priorityLanes;
+    private final RecipientRouter recipientRouter;
+
+    private final AtomicLong rejectedEvents = new AtomicLong();
+    private final AtomicLong failedSends = new AtomicLong();
+
+    private Semaphore inFlight;
+    private int reservedPermits;
+
+    @Value("${notification.pipeline.max-in-flight:100}")
+    private int maxInFlight;
+
+    @Value("${notification.pipeline.retry-after-seconds:5}")
+    private int retryAfterSeconds;
+
+    public NotificationPipeline(EmailNotificationService emailService,
+                                @Qualifier("eventProcessorExecutor") Executor eventProcessorExecutor,
+                                ReliableEmailSender reliableSender,
+                                NotificationMetrics metrics,
+                                EventAuditRing auditRing,
+                                PriorityLanes priorityLanes,
+                                RecipientRouter recipientRouter) {
+        this.emailService = emailService;
+        this.eventProcessorExecutor = eventProcessorExecutor;
+        this.reliableSender = reliableSender;
+        this.metrics = metrics;
+        this.auditRing = auditRing;
+        this.priorityLanes = priorityLanes;
+        this.recipientRouter = recipientRouter;
+    }
+
+    @PostConstruct
+    void init() {
+        inFlight = new Semaphore(maxInFlight);
+        reservedPermits = priorityLanes.reservedPermits(maxInFlight);
+        log.info("Notification pipeline initialized - Max in flight: {}, Reserved for priority lanes: {}",
+                maxInFlight, reservedPermits);
+    }
+
+    public CompletableFuture<Void> submit(ReportViewedEventDTO event) {
+        long acceptedAt = System.nanoTime();
+        PriorityLane lane = priorityLanes.classify(event);
+        CompletableFuture<Void> completion = run(() -> emailService.renderReportViewed(event),
+                recipientRouter.route(event), true, lane);
+        completion.whenComplete((result, error) -> {
+            if (error == null) {
+                metrics.recordSince(NotificationMetrics.Stage.END_TO_END, acceptedAt);
+                priorityLanes.recordEndToEnd(lane, acceptedAt);
+            }
+        });
+        return completion;
+    }
+
+    // Los resumenes son pocos y no deben perderse: no pasan por el control de admision.
+    // Los destinatarios ya vienen resueltos por RecipientRouter para los eventos agrupados
+    public CompletableFuture<Void> submitDigest(ReportViewedDigestDTO digest, String[] recipients) {
+        return run(() -> emailService.renderDigest(digest), recipients, false, PriorityLane.NORMAL);
+    }
+
+    private CompletableFuture<Void> run(Supplier<RenderedEmail> render, String[] recipients,
+                                        boolean admissionControlled, PriorityLane lane) {
+        if (!emailService.isEmailEnabled()) {
+            log.debug("Email notifications disabled, skipping");
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // Ningun destinatario suscrito a este evento: no se renderiza ni se envia nada
+        if (recipients == null || recipients.length == 0) {
+            log.debug("No recipients for notification, skipping");
+            return CompletableFuture.completedFuture(null);
+        }
+
+        if (admissionControlled && !admit(lane)) {
+            rejectedEvents.incrementAndGet();
+            throw new PipelineSaturatedException("Notification pipeline saturated", retryAfterSeconds);
+        }
+
+        // La tarea de render lleva el carril para que la cola del executor la ubique
+        Executor laneExecutor = task -> eventProcessorExecutor.execute(PriorityLane.tag(lane, task));
+        CompletableFuture<Void> completion;
+        try {
+            completion = CompletableFuture.supplyAsync(() -> timedRender(render), laneExecutor)
+                    .thenCompose(email -> fanOut(email.withLane(lane), recipients));
+        } catch (RejectedExecutionException e) {
+            if (admissionControlled) {
+                inFlight.release();
+            }
+            rejectedEvents.incrementAndGet();
+            throw new PipelineSaturatedException("Event processor queue full", retryAfterSeconds);
+        }
+
+        if (admissionControlled) {
+            completion.whenComplete((result, error) -> inFlight.release());
+        }
+        return completion;
+    }
+
+    // El trafico NORMAL no puede ocupar los ultimos permisos: quedan para URGENT y HIGH durante una rafaga
+    private boolean admit(PriorityLane lane) {
+        if (!inFlight.tryAcquire()) {
+            return false;
+        }
+        if (lane == PriorityLane.NORMAL && inFlight.availablePermits() < reservedPermits) {
+            inFlight.release();
+            return false;
+        }
+        return true;
+    }
+
+    private RenderedEmail timedRender(Supplier<RenderedEmail> render) {
+        long start = System.nanoTime();
+        try {
+            return render.get();
+        } finally {
+            metrics.recordSince(NotificationMetrics.Stage.RENDER, start);
+        }
+    }
+
+    private CompletableFuture<Void> fanOut(RenderedEmail email, String[] recipients) {
+        if (emailService.isBccFanOut()) {
+            return send(email, () -> emailService.sendBcc(recipients, email), recipients);
+        }
+
+        byte[] encodedMessage;
+        try {
+            encodedMessage = emailService.encode(email);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<?>[] sends = new CompletableFuture<?>[recipients.length];
+        for (int i = 0; i < recipients.length; i++) {
+            String recipient = recipients[i];
+            sends[i] = send(email, () -> emailService.sendEncoded(recipient, encodedMessage), new String[]{recipient});
+        }
+
+        // El detalle por destinatario queda en EventAuditRing, no en el log
+        return CompletableFuture.allOf(sends);
+    }
+
+    private CompletableFuture<Void> send(RenderedEmail email, ReliableEmailSender.SendTask task, String[] recipients) {
+        // Reintentos, breaker y dead letters viven en ReliableEmailSender; aqui solo se cuentan los fallos inesperados
+        return reliableSender.send(email, recipients, task).exceptionally(error -> {
+            failedSends.incrementAndGet();
+            auditRing.record(EventAuditRing.Kind.FAILED, email.getEventId(), recipients.length);
+            log.error("Failed to send email to {} for event {}: {}",
+                    String.join(",", recipients), email.getEventId(), error.getMessage(), error);
+            return null;
+        });
+    }
+
+    // Reenvio de dead letters: el HTML ya esta renderizado, solo se repite el envio
+    public CompletableFuture<Void> redeliver(RenderedEmail email, String[] recipients) {
+        return fanOut(email, recipients);
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public int getInFlight() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+
+    public long getRejectedEvents() {
+        return rejectedEvents.get();
+    }
+
+    public long getFailedSends() {
+        return failedSends.get();
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
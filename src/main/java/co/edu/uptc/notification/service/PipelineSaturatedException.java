@@ -0,0 +1,15 @@
+package co.edu.uptc.notification.service;
+
+public class PipelineSaturatedException extends RuntimeException {
+
+    private final int retryAfterSeconds;
+
+    public PipelineSaturatedException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,42 @@
+package co.edu.uptc.notification.service;
+
+// Carriles de prioridad en orden descendente; NORMAL es el carril por defecto de cualquier tarea sin clasificar
+public enum PriorityLane {
+    URGENT,
+    HIGH,
+    NORMAL;
+
+    public interface Prioritized {
+        PriorityLane getLane();
+    }
+
+    public static PriorityLane of(Runnable task) {
+        return task instanceof Prioritized prioritized ? prioritized.getLane() : NORMAL;
+    }
+
+    // Marca una tarea con su carril para que la cola del executor la ubique
+    public static Runnable tag(PriorityLane lane, Runnable task) {
+        return new LaneTask(lane, task);
+    }
+
+    private static final class LaneTask implements Runnable, Prioritized {
+
+        private final PriorityLane lane;
+        private final Runnable task;
+
+        LaneTask(PriorityLane lane, Runnable task) {
+            this.lane = lane;
+            this.task = task;
+        }
+
+        @Override
+        public PriorityLane getLane() {
+            return lane;
+        }
+
+        @Override
+        public void run() {
+            task.run();
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package co.edu.uptc.notification.service;
+
+import co.edu.uptc.notification.config.PriorityLaneTaskExecutor;
+import co.edu.uptc.notification.dto.ReportViewedEventDTO;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Collectors;
+
+// Clasifica cada evento en un carril segun reportType, totalComplaints y source, y mide la latencia por carril
+@Component
+public class PriorityLanes {
+
+    private static final Logger log = LoggerFactory.getLogger(PriorityLanes.class);
+
+    private static final PriorityLane[] LANES = PriorityLane.values();
+
+    private final Executor emailSenderExecutor;
+    private final Executor eventProcessorExecutor;
+    private final SendScheduler sendScheduler;
+
+    private final Map<PriorityLane, Rule> rules = new EnumMap<>(PriorityLane.class);
+    private final Map<PriorityLane, LatencyHistogram> endToEnd = new EnumMap<>(PriorityLane.class);
+    private final AtomicLongArray classified = new AtomicLongArray(LANES.length);
+
+    @Value("${notification.priority.enabled:true}")
+    private boolean enabled;
+
+    @Value("${notification.priority.max-wait-ms:5000}")
+    private long maxWaitMs;
+
+    @Value("${notification.priority.normal-reserve:0.2}")
+    private double normalReserve;
+
+    @Value("${notification.priority.urgent.min-total-complaints:200}")
+    private int urgentMinComplaints;
+
+    @Value("${notification.priority.urgent.report-types:}")
+    private String[] urgentReportTypes;
+
+    @Value("${notification.priority.urgent.sources:}")
+    private String[] urgentSources;
+
+    @Value("${notification.priority.high.min-total-complaints:50}")
+    private int highMinComplaints;
+
+    @Value("${notification.priority.high.report-types:}")
+    private String[] highReportTypes;
+
+    @Value("${notification.priority.high.sources:}")
+    private String[] highSources;
+
+    public PriorityLanes(@Qualifier("emailSenderExecutor") Executor emailSenderExecutor,
+                         @Qualifier("eventProcessorExecutor") Executor eventProcessorExecutor,
+                         SendScheduler sendScheduler) {
+        this.emailSenderExecutor = emailSenderExecutor;
+        this.eventProcessorExecutor = eventProcessorExecutor;
+        this.sendScheduler = sendScheduler;
+    }
+
+    @PostConstruct
+    void init() {
+        rules.put(PriorityLane.URGENT, new Rule(urgentMinComplaints, urgentReportTypes, urgentSources));
+        rules.put(PriorityLane.HIGH, new Rule(highMinComplaints, highReportTypes, highSources));
+        for (PriorityLane lane : LANES) {
+            endToEnd.put(lane, new LatencyHistogram());
+        }
+
+        log.info("Priority lanes initialized - Enabled: {}, Urgent: {}, High: {}, Max wait: {} ms",
+                enabled, rules.get(PriorityLane.URGENT), rules.get(PriorityLane.HIGH), maxWaitMs);
+    }
+
+    // Gana el carril mas alto cuya regla coincide; cualquier criterio de la regla basta
+    public PriorityLane classify(ReportViewedEventDTO event) {
+        PriorityLane lane = PriorityLane.NORMAL;
+        if (enabled) {
+            if (rules.get(PriorityLane.URGENT).matches(event)) {
+                lane = PriorityLane.URGENT;
+            } else if (rules.get(PriorityLane.HIGH).matches(event)) {
+                lane = PriorityLane.HIGH;
+            }
+        }
+        classified.incrementAndGet(lane.ordinal());
+        return lane;
+    }
+
+    public void recordEndToEnd(PriorityLane lane, long startNanos) {
+        endToEnd.get(lane).recordNanos(System.nanoTime() - startNanos);
+    }
+
+    // Permisos del pipeline que el trafico NORMAL no puede ocupar, reservados para URGENT y HIGH
+    public int reservedPermits(int maxInFlight) {
+        return enabled ? (int) Math.floor(maxInFlight * Math.max(0, Math.min(1, normalReserve))) : 0;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Map<String, Object> getRules() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        rules.forEach((lane, rule) -> result.put(lane.name(), rule.toMap()));
+        result.put("maxWaitMs", maxWaitMs);
+        result.put("normalReserve", normalReserve);
+        return result;
+    }
+
+    public Map<String, Object> getLaneStats() {
+        Map<String, Object> lanes = new LinkedHashMap<>();
+        for (PriorityLane lane : LANES) {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("classified", classified.get(lane.ordinal()));
+            stats.put("eventToDelivered", endToEnd.get(lane).snapshot());
+            lanes.put(lane.name(), stats);
+        }
+        return lanes;
+    }
+
+    // Profundidad y espera por carril en cada cola que recorre un evento
+    public Map<String, Object> getQueues() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("eventProcessorExecutor", describe(eventProcessorExecutor));
+        result.put("sendScheduler", sendScheduler.isEnabled() ? sendScheduler.getLaneStats() : Map.of("mode", "disabled"));
+        result.put("emailSenderExecutor", describe(emailSenderExecutor));
+        return result;
+    }
+
+    private Object describe(Executor executor) {
+        // Hilos virtuales o carriles desactivados: la cola es FIFO unica
+        return executor instanceof PriorityLaneTaskExecutor pool ? pool.getLaneStats() : Map.of("mode", "fifo");
+    }
+
+    public void reset() {
+        endToEnd.values().forEach(LatencyHistogram::reset);
+    }
+
+    private static final class Rule {
+
+        private final int minTotalComplaints;
+        private final Set<String> reportTypes;
+        private final Set<String> sources;
+
+        Rule(int minTotalComplaints, String[] reportTypes, String[] sources) {
+            this.minTotalComplaints = minTotalComplaints;
+            this.reportTypes = normalize(reportTypes);
+            this.sources = normalize(sources);
+        }
+
+        private static Set<String> normalize(String[] values) {
+            return Arrays.stream(values)
+                    .map(String::trim)
+                    .filter(value -> !value.isEmpty())
+                    .map(String::toUpperCase)
+                    .collect(Collectors.toUnmodifiableSet());
+        }
+
+        // min-total-complaints <= 0 desactiva el umbral
+        boolean matches(ReportViewedEventDTO event) {
+            return (minTotalComplaints > 0 && event.getTotalComplaints() >= minTotalComplaints)
+                    || (event.getReportType() != null && reportTypes.contains(event.getReportType().toUpperCase()))
+                    || (event.getSource() != null && sources.contains(event.getSource().toUpperCase()));
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("minTotalComplaints", minTotalComplaints);
+            map.put("reportTypes", reportTypes);
+            map.put("sources", sources);
+            return map;
+        }
+
+        @Override
+        public String toString() {
+            return toMap().toString();
+        }
+    }
+}
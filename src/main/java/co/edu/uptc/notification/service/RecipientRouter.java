@@ -0,0 +1,228 @@
+package co.edu.uptc.notification.service;
+
+import co.edu.uptc.notification.dto.RecipientRuleDTO;
+import co.edu.uptc.notification.dto.ReportViewedEventDTO;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Decide a quien va cada evento segun las reglas de suscripcion; sin reglas se mantiene el envio a todos los admins.
+// Las reglas viven en un archivo JSON que se recarga en caliente al cambiar o mediante la API
+@Component
+public class RecipientRouter {
+
+    private static final Logger log = LoggerFactory.getLogger(RecipientRouter.class);
+
+    private static final TypeReference<List<RecipientRuleDTO>> RULES_TYPE = new TypeReference<>() {
+    };
+
+    private final EmailNotificationService emailService;
+    private final ObjectMapper objectMapper;
+
+    private final AtomicLong routedEvents = new AtomicLong();
+    private final AtomicLong unmatchedEvents = new AtomicLong();
+    private final AtomicLong recipientsSkipped = new AtomicLong();
+
+    private volatile RecipientRuleIndex index = RecipientRuleIndex.EMPTY;
+    private volatile List<RecipientRuleDTO> rules = List.of();
+    private volatile long loadedAt;
+    private long fileModifiedAt;
+    private Path file;
+
+    @Value("${notification.routing.enabled:true}")
+    private boolean enabled;
+
+    @Value("${notification.routing.rules-file:data/routing-rules.json}")
+    private String rulesFile;
+
+    // admins = los eventos sin regla que coincida van a todos los admins; drop = no se envian
+    @Value("${notification.routing.unmatched:admins}")
+    private String unmatched;
+
+    public RecipientRouter(EmailNotificationService emailService, ObjectMapper objectMapper) {
+        this.emailService = emailService;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    void init() {
+        file = Paths.get(rulesFile);
+        if (enabled && Files.exists(file)) {
+            try {
+                reload();
+            } catch (IOException | IllegalArgumentException e) {
+                // Un archivo invalido no debe impedir el arranque: se sigue enviando a todos los admins
+                log.error("Cannot load routing rules from {}: {}", file.toAbsolutePath(), e.getMessage());
+            }
+        }
+
+        log.info("Recipient router initialized - Enabled: {}, Rules: {}, Unmatched: {}, File: {}",
+                enabled, index.getRuleCount(), unmatched, file.toAbsolutePath());
+    }
+
+    public String[] route(ReportViewedEventDTO event) {
+        String[] admins = emailService.getAdminEmails();
+        RecipientRuleIndex current = index;
+        if (!enabled || current.getRuleCount() == 0) {
+            return admins;
+        }
+
+        routedEvents.incrementAndGet();
+        String[] recipients = current.match(event.getReportType(), event.getSource(), event.getTotalComplaints());
+        if (recipients.length == 0) {
+            unmatchedEvents.incrementAndGet();
+            if ("admins".equalsIgnoreCase(unmatched)) {
+                return admins;
+            }
+        }
+        if (admins != null) {
+            recipientsSkipped.addAndGet(Math.max(0, admins.length - recipients.length));
+        }
+        return recipients;
+    }
+
+    // Recarga si el archivo cambio desde la ultima lectura (p. ej. editado a mano o distribuido por despliegue)
+    @Scheduled(fixedDelayString = "${notification.routing.reload-interval-ms:10000}",
+            initialDelayString = "${notification.routing.reload-interval-ms:10000}")
+    public void reloadIfChanged() {
+        if (!enabled || !Files.exists(file)) {
+            return;
+        }
+        try {
+            if (Files.getLastModifiedTime(file).toMillis() != modifiedAt()) {
+                reload();
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            log.error("Cannot reload routing rules from {}, keeping {} previous rules: {}",
+                    file.toAbsolutePath(), index.getRuleCount(), e.getMessage());
+        }
+    }
+
+    public synchronized int reload() throws IOException {
+        long modified = Files.getLastModifiedTime(file).toMillis();
+        List<RecipientRuleDTO> loaded = objectMapper.readValue(file.toFile(), RULES_TYPE);
+        apply(loaded);
+        fileModifiedAt = modified;
+        log.info("Routing rules loaded - Rules: {}, Recipients: {}", index.getRuleCount(), index.getRecipientCount());
+        return index.getRuleCount();
+    }
+
+    // Reemplaza las reglas en caliente y las persiste con escritura atomica
+    public synchronized int replaceRules(List<RecipientRuleDTO> newRules) throws IOException {
+        apply(newRules);
+
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) {
+            Files.createDirectories(dir);
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(tmp.toFile(), rules);
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        fileModifiedAt = Files.getLastModifiedTime(file).toMillis();
+
+        log.info("Routing rules replaced - Rules: {}, Recipients: {}", index.getRuleCount(), index.getRecipientCount());
+        return index.getRuleCount();
+    }
+
+    private void apply(List<RecipientRuleDTO> newRules) {
+        List<RecipientRuleDTO> validated = new ArrayList<>();
+        if (newRules != null) {
+            for (int i = 0; i < newRules.size(); i++) {
+                validated.add(validate(newRules.get(i), i));
+            }
+        }
+        // Se construye completo antes de publicarlo: los hilos que enrutan nunca ven un indice a medias
+        RecipientRuleIndex built = new RecipientRuleIndex(validated);
+        rules = List.copyOf(validated);
+        index = built;
+        loadedAt = System.currentTimeMillis();
+    }
+
+    private RecipientRuleDTO validate(RecipientRuleDTO rule, int position) {
+        if (rule == null) {
+            throw new IllegalArgumentException("Rule " + position + " is empty");
+        }
+        String recipient = rule.getRecipient();
+        if (recipient == null || !recipient.contains("@")) {
+            throw new IllegalArgumentException("Rule " + position + " has an invalid recipient: " + recipient);
+        }
+        Integer min = rule.getMinTotalComplaints();
+        Integer max = rule.getMaxTotalComplaints();
+        if ((min != null && min < 0) || (max != null && max < 0) || (min != null && max != null && min > max)) {
+            throw new IllegalArgumentException("Rule " + position + " has an invalid totalComplaints range: "
+                    + min + ".." + max);
+        }
+        return rule;
+    }
+
+    private synchronized long modifiedAt() {
+        return fileModifiedAt;
+    }
+
+    public String[] preview(String reportType, String source, int totalComplaints) {
+        return index.match(reportType, source, totalComplaints);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public List<RecipientRuleDTO> getRules() {
+        return rules;
+    }
+
+    public int getRuleCount() {
+        return index.getRuleCount();
+    }
+
+    public int getRecipientCount() {
+        return index.getRecipientCount();
+    }
+
+    public int getSegmentCount() {
+        return index.getSegmentCount();
+    }
+
+    public int getIndexedReportTypes() {
+        return index.getIndexedReportTypes();
+    }
+
+    public int getIndexedSources() {
+        return index.getIndexedSources();
+    }
+
+    public String getLoadedAt() {
+        return loadedAt > 0 ? Instant.ofEpochMilli(loadedAt).toString() : null;
+    }
+
+    public String getUnmatched() {
+        return unmatched;
+    }
+
+    public long getRoutedEvents() {
+        return routedEvents.get();
+    }
+
+    public long getUnmatchedEvents() {
+        return unmatchedEvents.get();
+    }
+
+    public long getRecipientsSkipped() {
+        return recipientsSkipped.get();
+    }
+}
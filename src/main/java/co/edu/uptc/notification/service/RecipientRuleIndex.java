@@ -0,0 +1,162 @@
+package co.edu.uptc.notification.service;
+
+import co.edu.uptc.notification.dto.RecipientRuleDTO;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+// Indice inmutable de reglas: cada regla es un bit. reportType y source se resuelven con un hash que ya incluye
+// las reglas comodin, y el rango de totalComplaints con una tabla de segmentos elementales (busqueda binaria).
+// Un evento coincide con AND de tres bitsets, sin recorrer las reglas. reportType y source se comparan en
+// mayusculas, igual que los carriles de PriorityLanes
+final class RecipientRuleIndex {
+
+    static final RecipientRuleIndex EMPTY = new RecipientRuleIndex(List.of());
+
+    private final int ruleCount;
+    private final int words;
+    private final String[] recipients;
+    private final int[] ruleRecipient;
+
+    private final Map<String, long[]> byReportType = new HashMap<>();
+    private final long[] anyReportType;
+    private final Map<String, long[]> bySource = new HashMap<>();
+    private final long[] anySource;
+
+    // segmentBits[i] cubre [bounds[i-1], bounds[i]); el segmento 0 va desde -infinito
+    private final long[] bounds;
+    private final long[][] segmentBits;
+
+    RecipientRuleIndex(List<RecipientRuleDTO> rules) {
+        ruleCount = rules.size();
+        words = (ruleCount + 63) >>> 6;
+        ruleRecipient = new int[ruleCount];
+
+        Map<String, Integer> recipientIds = new LinkedHashMap<>();
+        anyReportType = new long[words];
+        anySource = new long[words];
+        TreeSet<Long> boundSet = new TreeSet<>();
+        long[] lows = new long[ruleCount];
+        long[] highs = new long[ruleCount];
+
+        for (int rule = 0; rule < ruleCount; rule++) {
+            RecipientRuleDTO dto = rules.get(rule);
+            ruleRecipient[rule] = recipientIds.computeIfAbsent(dto.getRecipient().trim(), r -> recipientIds.size());
+            index(byReportType, anyReportType, dto.getReportTypes(), rule);
+            index(bySource, anySource, dto.getSources(), rule);
+
+            lows[rule] = dto.getMinTotalComplaints() != null ? dto.getMinTotalComplaints() : Long.MIN_VALUE;
+            highs[rule] = dto.getMaxTotalComplaints() != null ? dto.getMaxTotalComplaints() + 1L : Long.MAX_VALUE;
+            if (dto.getMinTotalComplaints() != null) {
+                boundSet.add(lows[rule]);
+            }
+            if (dto.getMaxTotalComplaints() != null) {
+                boundSet.add(highs[rule]);
+            }
+        }
+        recipients = recipientIds.keySet().toArray(new String[0]);
+
+        // Las reglas comodin coinciden con cualquier valor: se pliegan en cada entrada del hash
+        byReportType.values().forEach(bits -> or(bits, anyReportType));
+        bySource.values().forEach(bits -> or(bits, anySource));
+
+        bounds = boundSet.stream().mapToLong(Long::longValue).toArray();
+        segmentBits = new long[bounds.length + 1][words];
+        for (int segment = 0; segment <= bounds.length; segment++) {
+            long start = segment == 0 ? Long.MIN_VALUE : bounds[segment - 1];
+            for (int rule = 0; rule < ruleCount; rule++) {
+                if (lows[rule] <= start && start < highs[rule]) {
+                    segmentBits[segment][rule >>> 6] |= 1L << rule;
+                }
+            }
+        }
+    }
+
+    private void index(Map<String, long[]> index, long[] any, List<String> values, int rule) {
+        boolean constrained = false;
+        if (values != null) {
+            for (String value : values) {
+                if (value != null && !value.isBlank()) {
+                    index.computeIfAbsent(value.trim().toUpperCase(), v -> new long[words])[rule >>> 6] |= 1L << rule;
+                    constrained = true;
+                }
+            }
+        }
+        if (!constrained) {
+            any[rule >>> 6] |= 1L << rule;
+        }
+    }
+
+    private static void or(long[] target, long[] source) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] |= source[i];
+        }
+    }
+
+    // Destinatarios distintos cuyas reglas coinciden, en el orden en que aparecen en el archivo
+    String[] match(String reportType, String source, int totalComplaints) {
+        if (ruleCount == 0) {
+            return new String[0];
+        }
+        long[] typeBits = reportType != null
+                ? byReportType.getOrDefault(reportType.toUpperCase(), anyReportType) : anyReportType;
+        long[] sourceBits = source != null ? bySource.getOrDefault(source.toUpperCase(), anySource) : anySource;
+        long[] rangeBits = segmentBits[segmentOf(totalComplaints)];
+
+        long[] matched = new long[(recipients.length + 63) >>> 6];
+        int count = 0;
+        for (int w = 0; w < words; w++) {
+            long bits = typeBits[w] & sourceBits[w] & rangeBits[w];
+            while (bits != 0) {
+                int recipient = ruleRecipient[(w << 6) + Long.numberOfTrailingZeros(bits)];
+                long mask = 1L << recipient;
+                if ((matched[recipient >>> 6] & mask) == 0) {
+                    matched[recipient >>> 6] |= mask;
+                    count++;
+                }
+                bits &= bits - 1;
+            }
+        }
+
+        String[] result = new String[count];
+        int next = 0;
+        for (int w = 0; w < matched.length; w++) {
+            long bits = matched[w];
+            while (bits != 0) {
+                result[next++] = recipients[(w << 6) + Long.numberOfTrailingZeros(bits)];
+                bits &= bits - 1;
+            }
+        }
+        return result;
+    }
+
+    // Numero de limites <= value
+    private int segmentOf(long value) {
+        int position = Arrays.binarySearch(bounds, value);
+        return position >= 0 ? position + 1 : -position - 1;
+    }
+
+    int getRuleCount() {
+        return ruleCount;
+    }
+
+    int getRecipientCount() {
+        return recipients.length;
+    }
+
+    int getSegmentCount() {
+        return segmentBits.length;
+    }
+
+    int getIndexedReportTypes() {
+        return byReportType.size();
+    }
+
+    int getIndexedSources() {
+        return bySource.size();
+    }
+}
@@ -0,0 +1,220 @@
+package co.edu.uptc.notification.service;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.AddressException;
+import org.eclipse.angus.mail.smtp.SMTPSendFailedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Reintentos con backoff exponencial y jitter, circuit breaker y dead letters alrededor de cada envio
+@Component
+public class ReliableEmailSender {
+
+    private static final Logger log = LoggerFactory.getLogger(ReliableEmailSender.class);
+
+    private final SendScheduler sendScheduler;
+    private final SmtpCircuitBreaker circuitBreaker;
+    private final DeadLetterStore deadLetterStore;
+    private final TaskScheduler taskScheduler;
+    private final EventAuditRing auditRing;
+
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong saturationRetries = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+
+    @Value("${notification.delivery.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${notification.delivery.initial-backoff-ms:1000}")
+    private long initialBackoffMs;
+
+    @Value("${notification.delivery.max-backoff-ms:60000}")
+    private long maxBackoffMs;
+
+    @Value("${notification.delivery.max-delivery-ms:900000}")
+    private long maxDeliveryMs;
+
+    public ReliableEmailSender(SendScheduler sendScheduler, SmtpCircuitBreaker circuitBreaker,
+                               DeadLetterStore deadLetterStore,
+                               @Qualifier("deliveryRetryScheduler") TaskScheduler taskScheduler,
+                               EventAuditRing auditRing) {
+        this.sendScheduler = sendScheduler;
+        this.circuitBreaker = circuitBreaker;
+        this.deadLetterStore = deadLetterStore;
+        this.taskScheduler = taskScheduler;
+        this.auditRing = auditRing;
+    }
+
+    // Completa normalmente cuando el correo se entrega o queda guardado como dead letter
+    public CompletableFuture<Void> send(RenderedEmail email, String[] recipients, SendTask task) {
+        Delivery delivery = new Delivery(email, recipients, task);
+        attempt(delivery);
+        return delivery.result;
+    }
+
+    private void attempt(Delivery delivery) {
+        if (!circuitBreaker.allowRequest()) {
+            // Relay caido: no se ocupa un hilo de envio, se espera a que el breaker vuelva a probar
+            if (delivery.isExpired(maxDeliveryMs)) {
+                deadLetter(delivery, "SMTP circuit open");
+            } else {
+                later(delivery, Math.max(circuitBreaker.millisUntilRetry(), initialBackoffMs));
+            }
+            return;
+        }
+
+        delivery.attempts++;
+        sendScheduler.schedule(delivery.recipients, () -> {
+            try {
+                delivery.task.run();
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, delivery.email.getLane()).whenComplete((result, error) -> {
+            if (error == null) {
+                circuitBreaker.recordSuccess();
+                auditRing.record(EventAuditRing.Kind.SENT, delivery.email.getEventId(), delivery.recipients.length);
+                delivery.result.complete(null);
+                return;
+            }
+
+            Throwable cause = unwrap(error);
+            if (!isTransient(cause)) {
+                // Error permanente (p. ej. direccion rechazada): no dice nada de la salud del relay
+                circuitBreaker.releaseTrial();
+                deadLetter(delivery, cause.getMessage());
+                return;
+            }
+
+            if (isLocalSaturation(cause)) {
+                // Executor, cola del scheduler o pool llenos: se reintenta sin culpar al relay
+                circuitBreaker.releaseTrial();
+                saturationRetries.incrementAndGet();
+            } else {
+                circuitBreaker.recordFailure();
+            }
+            if (delivery.attempts >= maxAttempts || delivery.isExpired(maxDeliveryMs)) {
+                deadLetter(delivery, cause.getMessage());
+                return;
+            }
+
+            long delay = backoff(delivery.attempts);
+            retries.incrementAndGet();
+            log.warn("Transient failure sending to {} (attempt {}/{}), retrying in {} ms: {}",
+                    String.join(",", delivery.recipients), delivery.attempts, maxAttempts, delay, cause.getMessage());
+            later(delivery, delay);
+        });
+    }
+
+    private void later(Delivery delivery, long delayMs) {
+        taskScheduler.schedule(() -> attempt(delivery), Instant.now().plusMillis(delayMs));
+    }
+
+    // Full jitter: aleatorio entre 0 y min(max, inicial * 2^(intento-1))
+    private long backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private void deadLetter(Delivery delivery, String reason) {
+        long id = deadLetterStore.store(delivery.email, delivery.recipients, delivery.attempts, reason);
+        deadLettered.incrementAndGet();
+        auditRing.record(EventAuditRing.Kind.DEAD_LETTERED, delivery.email.getEventId(), delivery.attempts);
+        log.error("Email to {} for event {} moved to dead letters (id {}) after {} attempts: {}",
+                String.join(",", delivery.recipients), delivery.email.getEventId(), id, delivery.attempts, reason);
+        delivery.result.complete(null);
+    }
+
+    private Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    static boolean isTransient(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SMTPSendFailedException smtp) {
+                return smtp.getReturnCode() >= 400 && smtp.getReturnCode() < 500;
+            }
+            if (cause instanceof AddressException || cause instanceof SendFailedException) {
+                return false;
+            }
+            if (cause instanceof IOException) {
+                return true;
+            }
+        }
+        if (isLocalSaturation(error)) {
+            return true;
+        }
+        // Conexiones rechazadas, errores de protocolo...
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MessagingException || cause instanceof MailException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Contrapresion propia del servicio: no dice nada de la salud del servidor SMTP
+    static boolean isLocalSaturation(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RejectedExecutionException || cause instanceof SmtpPoolExhaustedException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public long getRetries() {
+        return retries.get();
+    }
+
+    public long getSaturationRetries() {
+        return saturationRetries.get();
+    }
+
+    public long getDeadLettered() {
+        return deadLettered.get();
+    }
+
+    @FunctionalInterface
+    public interface SendTask {
+        void run() throws Exception;
+    }
+
+    private static final class Delivery {
+
+        private final RenderedEmail email;
+        private final String[] recipients;
+        private final SendTask task;
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+        private final long startedAt = System.currentTimeMillis();
+        private int attempts;
+
+        Delivery(RenderedEmail email, String[] recipients, SendTask task) {
+            this.email = email;
+            this.recipients = recipients;
+            this.task = task;
+        }
+
+        boolean isExpired(long maxDeliveryMs) {
+            return System.currentTimeMillis() - startedAt >= maxDeliveryMs;
+        }
+    }
+}
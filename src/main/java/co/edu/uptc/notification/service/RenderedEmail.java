@@ -0,0 +1,41 @@
+package co.edu.uptc.notification.service;
+
+public class RenderedEmail {
+
+    private final String eventId;
+    private final String subject;
+    private final String htmlContent;
+    private final PriorityLane lane;
+
+    public RenderedEmail(String eventId, String subject, String htmlContent) {
+        this(eventId, subject, htmlContent, PriorityLane.NORMAL);
+    }
+
+    public RenderedEmail(String eventId, String subject, String htmlContent, PriorityLane lane) {
+        this.eventId = eventId;
+        this.subject = subject;
+        this.htmlContent = htmlContent;
+        this.lane = lane;
+    }
+
+    // Inmutable: el carril que decide el pipeline se asigna sobre una copia
+    public RenderedEmail withLane(PriorityLane lane) {
+        return lane == this.lane ? this : new RenderedEmail(eventId, subject, htmlContent, lane);
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public String getHtmlContent() {
+        return htmlContent;
+    }
+
+    public PriorityLane getLane() {
+        return lane;
+    }
+}
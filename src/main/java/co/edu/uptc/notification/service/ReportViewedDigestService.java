@@ -0,0 +1,221 @@
+package co.edu.uptc.notification.service;
+
+import co.edu.uptc.notification.dto.ReportViewedDigestDTO;
+import co.edu.uptc.notification.dto.ReportViewedEventDTO;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class ReportViewedDigestService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportViewedDigestService.class);
+
+    private static final long SHUTDOWN_FLUSH_TIMEOUT_SECONDS = 30;
+
+    private final NotificationPipeline pipeline;
+    private final EventOutbox outbox;
+    private final RecipientRouter recipientRouter;
+    private final Map<String, DigestBucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong eventsCoalesced = new AtomicLong();
+    private final AtomicLong digestsSent = new AtomicLong();
+
+    private volatile long currentWindow = -1;
+
+    @Value("${notification.digest.enabled:false}")
+    private boolean enabled;
+
+    @Value("${notification.digest.window-mode:tumbling}")
+    private String windowMode;
+
+    @Value("${notification.digest.window-ms:60000}")
+    private long windowMs;
+
+    @Value("${notification.digest.max-span-ms:300000}")
+    private long maxSpanMs;
+
+    @Value("${notification.digest.max-keys:1000}")
+    private int maxKeys;
+
+    public ReportViewedDigestService(NotificationPipeline pipeline, EventOutbox outbox,
+                                     RecipientRouter recipientRouter) {
+        this.pipeline = pipeline;
+        this.outbox = outbox;
+        this.recipientRouter = recipientRouter;
+    }
+
+    // seq es la entrada del outbox; queda pendiente hasta que el resumen que la contiene se envie
+    public void accept(ReportViewedEventDTO event, long seq) {
+        String key = keyOf(event);
+
+        if (buckets.size() >= maxKeys && !buckets.containsKey(key)) {
+            // Memoria acotada: si se llena la tabla se adelanta el envio de los resumenes abiertos
+            log.warn("Digest key limit ({}) reached, flushing open digests early", maxKeys);
+            flushAll(false);
+        }
+
+        // Las reglas dependen tambien de totalComplaints: el resumen va a la union de los destinatarios de sus eventos
+        String[] recipients = recipientRouter.route(event);
+        long now = System.currentTimeMillis();
+        buckets.compute(key, (k, bucket) -> {
+            if (bucket == null) {
+                bucket = new DigestBucket(event.getReportType(), event.getSource(), now);
+            }
+            bucket.add(event, seq, recipients, now);
+            return bucket;
+        });
+        eventsCoalesced.incrementAndGet();
+    }
+
+    @Scheduled(fixedDelayString = "${notification.digest.tick-ms:1000}")
+    public void flushDueDigests() {
+        if (!enabled || buckets.isEmpty()) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+
+        if ("sliding".equalsIgnoreCase(windowMode)) {
+            // Ventana deslizante: el resumen se cierra tras window-ms sin eventos o al llegar a max-span-ms
+            buckets.forEach((key, bucket) -> {
+                if (now - bucket.lastSeenAt >= windowMs || now - bucket.openedAt >= maxSpanMs) {
+                    flush(key, false);
+                }
+            });
+            return;
+        }
+
+        long window = now / windowMs;
+        if (currentWindow == -1) {
+            currentWindow = window;
+        } else if (window != currentWindow) {
+            currentWindow = window;
+            flushAll(false);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        if (!buckets.isEmpty()) {
+            log.info("Flushing {} open digests before shutdown", buckets.size());
+            flushAll(true);
+        }
+    }
+
+    private void flushAll(boolean synchronous) {
+        for (String key : buckets.keySet()) {
+            flush(key, synchronous);
+        }
+    }
+
+    private void flush(String key, boolean synchronous) {
+        DigestBucket bucket = buckets.remove(key);
+        if (bucket == null) {
+            return;
+        }
+
+        ReportViewedDigestDTO digest = bucket.toDigest();
+        String[] recipients = bucket.recipients.toArray(new String[0]);
+        digestsSent.incrementAndGet();
+
+        try {
+            CompletableFuture<Void> sent = pipeline.submitDigest(digest, recipients).whenComplete((result, error) -> {
+                if (error == null) {
+                    bucket.seqs.forEach(outbox::markDone);
+                } else {
+                    log.warn("Digest for reportType {} left {} events pending in outbox: {}",
+                            digest.getReportType(), bucket.seqs.size(), error.getMessage());
+                }
+            });
+            if (synchronous) {
+                sent.get(SHUTDOWN_FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            }
+        } catch (Exception e) {
+            log.error("Failed to send digest for reportType {}: {}", digest.getReportType(), e.getMessage(), e);
+        }
+    }
+
+    private String keyOf(ReportViewedEventDTO event) {
+        return event.getReportType() + "|" + event.getSource();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getOpenDigests() {
+        return buckets.size();
+    }
+
+    public long getEventsCoalesced() {
+        return eventsCoalesced.get();
+    }
+
+    public long getDigestsSent() {
+        return digestsSent.get();
+    }
+
+    private static class DigestBucket {
+
+        private final String reportType;
+        private final String source;
+        private final long openedAt;
+        private final List<Long> seqs = new ArrayList<>();
+        private final LinkedHashSet<String> recipients = new LinkedHashSet<>();
+        private volatile long lastSeenAt;
+        private long count;
+        private LocalDateTime first;
+        private LocalDateTime last;
+        private int maxTotalComplaints;
+
+        DigestBucket(String reportType, String source, long openedAt) {
+            this.reportType = reportType;
+            this.source = source;
+            this.openedAt = openedAt;
+        }
+
+        void add(ReportViewedEventDTO event, long seq, String[] eventRecipients, long now) {
+            if (seq >= 0) {
+                seqs.add(seq);
+            }
+            if (eventRecipients != null) {
+                Collections.addAll(recipients, eventRecipients);
+            }
+            LocalDateTime timestamp = event.getTimestamp() != null ? event.getTimestamp() : LocalDateTime.now();
+            if (first == null || timestamp.isBefore(first)) {
+                first = timestamp;
+            }
+            if (last == null || timestamp.isAfter(last)) {
+                last = timestamp;
+            }
+            maxTotalComplaints = Math.max(maxTotalComplaints, event.getTotalComplaints());
+            lastSeenAt = now;
+            count++;
+        }
+
+        ReportViewedDigestDTO toDigest() {
+            ReportViewedDigestDTO digest = new ReportViewedDigestDTO();
+            digest.setReportType(reportType);
+            digest.setSource(source);
+            digest.setEventCount(count);
+            digest.setFirstTimestamp(first);
+            digest.setLastTimestamp(last);
+            digest.setMaxTotalComplaints(maxTotalComplaints);
+            return digest;
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package co.edu.uptc.notification.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Cola de envios frente a JavaMailSender: reparte las rafagas segun las cuotas del proveedor SMTP.
+// Hay una cola por carril; los tokens se ofrecen primero a URGENT y HIGH, salvo que una cabeza lleve mas de
+// max-wait-ms esperando, en cuyo caso se atiende antes para no dejar sin servicio a los carriles bajos
+@Component
+public class SendScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(SendScheduler.class);
+
+    private static final long MINUTE_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final long DAY_NANOS = TimeUnit.DAYS.toNanos(1);
+    private static final long IDLE_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+    private static final long REJECTED_RETRY_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final int MAX_SCAN = 64;
+
+    private final Executor emailSenderExecutor;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition workAvailable = lock.newCondition();
+    private final Map<PriorityLane, Deque<ScheduledSend>> queues = new EnumMap<>(PriorityLane.class);
+    private final Map<PriorityLane, LatencyHistogram> queueWaits = new EnumMap<>(PriorityLane.class);
+    private int queued;
+    private final AtomicLong delayedSends = new AtomicLong();
+    private final AtomicLong rejectedSends = new AtomicLong();
+
+    private TokenBucket globalPerMinute;
+    private TokenBucket globalPerDay;
+    private TokenBucket senderPerMinute;
+    private Map<String, TokenBucket> recipientBuckets;
+
+    private volatile boolean running;
+    private Thread dispatcher;
+
+    @Value("${notification.rate.enabled:true}")
+    private boolean enabled;
+
+    @Value("${notification.rate.global.per-minute:60}")
+    private long globalPerMinuteLimit;
+
+    @Value("${notification.rate.global.per-day:2000}")
+    private long globalPerDayLimit;
+
+    @Value("${notification.rate.sender.per-minute:60}")
+    private long senderPerMinuteLimit;
+
+    @Value("${notification.rate.recipient.per-minute:20}")
+    private long recipientPerMinuteLimit;
+
+    @Value("${notification.rate.burst:20}")
+    private long burst;
+
+    @Value("${notification.rate.max-tracked-recipients:10000}")
+    private int maxTrackedRecipients;
+
+    @Value("${notification.rate.max-queue:10000}")
+    private int maxQueue;
+
+    @Value("${notification.priority.max-wait-ms:5000}")
+    private long maxWaitMs;
+
+    public SendScheduler(@Qualifier("emailSenderExecutor") Executor emailSenderExecutor) {
+        this.emailSenderExecutor = emailSenderExecutor;
+        for (PriorityLane lane : PriorityLane.values()) {
+            queues.put(lane, new ArrayDeque<>());
+            queueWaits.put(lane, new LatencyHistogram());
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        globalPerMinute = new TokenBucket(Math.min(burst, globalPerMinuteLimit), globalPerMinuteLimit, MINUTE_NANOS);
+        globalPerDay = new TokenBucket(globalPerDayLimit, globalPerDayLimit, DAY_NANOS);
+        senderPerMinute = new TokenBucket(Math.min(burst, senderPerMinuteLimit), senderPerMinuteLimit, MINUTE_NANOS);
+        recipientBuckets = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, TokenBucket> eldest) {
+                return size() > maxTrackedRecipients;
+            }
+        };
+
+        if (enabled) {
+            running = true;
+            dispatcher = new Thread(this::dispatchLoop, "send-scheduler");
+            dispatcher.setDaemon(true);
+            dispatcher.start();
+        }
+
+        log.info("Send scheduler initialized - Enabled: {}, Global: {}/min {}/day, Sender: {}/min, Recipient: {}/min",
+                enabled, globalPerMinuteLimit, globalPerDayLimit, senderPerMinuteLimit, recipientPerMinuteLimit);
+    }
+
+    // Un envio a N destinatarios consume N tokens globales y de remitente, y uno por destinatario.
+    // Un BCC mas grande que la rafaga sale con el balde lleno y deja deuda; uno mas grande que la cuota diaria
+    // no podria salir nunca y se rechaza
+    public CompletableFuture<Void> schedule(String[] recipients, Runnable send) {
+        return schedule(recipients, send, PriorityLane.NORMAL);
+    }
+
+    public CompletableFuture<Void> schedule(String[] recipients, Runnable send, PriorityLane lane) {
+        if (!enabled) {
+            try {
+                return CompletableFuture.runAsync(send, task -> emailSenderExecutor.execute(PriorityLane.tag(lane, task)));
+            } catch (RejectedExecutionException e) {
+                // Executor lleno: se entrega como futuro fallido para que ReliableEmailSender reintente
+                rejectedSends.incrementAndGet();
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        if (recipients.length > globalPerDay.getCapacity()) {
+            rejectedSends.incrementAndGet();
+            return CompletableFuture.failedFuture(new IllegalArgumentException(
+                    "Send to " + recipients.length + " recipients exceeds the daily quota (" + globalPerDayLimit + ")"));
+        }
+
+        ScheduledSend scheduled = new ScheduledSend(recipients, send, lane, System.nanoTime());
+        lock.lock();
+        try {
+            if (queued >= maxQueue) {
+                rejectedSends.incrementAndGet();
+                return CompletableFuture.failedFuture(
+                        new RejectedExecutionException("Send queue full (" + maxQueue + ")"));
+            }
+            queues.get(lane).addLast(scheduled);
+            queued++;
+            workAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+        return scheduled.completion;
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            lock.lock();
+            try {
+                long waitNanos = dispatchEligible();
+                workAvailable.awaitNanos(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Devuelve cuanto esperar hasta que el siguiente envio pueda tener tokens
+    private long dispatchEligible() {
+        long now = System.nanoTime();
+        long waitNanos = IDLE_WAIT_NANOS;
+        int scanned = 0;
+
+        for (PriorityLane lane : scanOrder(now)) {
+            Iterator<ScheduledSend> it = queues.get(lane).iterator();
+            while (it.hasNext() && scanned++ < MAX_SCAN) {
+                ScheduledSend scheduled = it.next();
+                int cost = scheduled.recipients.length;
+
+                long globalWait = Math.max(
+                        Math.max(globalPerMinute.nanosUntilAvailable(cost, now), globalPerDay.nanosUntilAvailable(cost, now)),
+                        senderPerMinute.nanosUntilAvailable(cost, now));
+                if (globalWait > 0) {
+                    // Sin cupo global ningun envio posterior puede salir
+                    markDelayed(scheduled);
+                    return Math.min(waitNanos, globalWait);
+                }
+
+                long recipientWait = 0;
+                for (String recipient : scheduled.recipients) {
+                    recipientWait = Math.max(recipientWait, recipientBucket(recipient).nanosUntilAvailable(1, now));
+                }
+                if (recipientWait > 0) {
+                    markDelayed(scheduled);
+                    waitNanos = Math.min(waitNanos, recipientWait);
+                    continue;
+                }
+
+                try {
+                    emailSenderExecutor.execute(scheduled);
+                } catch (RejectedExecutionException e) {
+                    // Executor lleno: el envio sigue en cola y se reintenta en breve
+                    return REJECTED_RETRY_NANOS;
+                }
+
+                it.remove();
+                queued--;
+                queueWaits.get(lane).recordNanos(now - scheduled.enqueuedAt);
+                globalPerMinute.consume(cost, now);
+                globalPerDay.consume(cost, now);
+                senderPerMinute.consume(cost, now);
+                for (String recipient : scheduled.recipients) {
+                    recipientBucket(recipient).consume(1, now);
+                }
+            }
+        }
+
+        return queued == 0 ? IDLE_WAIT_NANOS : Math.max(waitNanos, TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    // Carriles cuya cabeza supero max-wait-ms primero (la mas antigua antes), luego por prioridad
+    private PriorityLane[] scanOrder(long now) {
+        PriorityLane[] order = PriorityLane.values();
+        long maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        long[] agedSince = new long[order.length];
+        for (PriorityLane lane : order) {
+            ScheduledSend head = queues.get(lane).peekFirst();
+            agedSince[lane.ordinal()] = head != null && now - head.enqueuedAt > maxWaitNanos
+                    ? head.enqueuedAt : Long.MAX_VALUE;
+        }
+        Arrays.sort(order, Comparator.comparingLong((PriorityLane lane) -> agedSince[lane.ordinal()])
+                .thenComparingInt(Enum::ordinal));
+        return order;
+    }
+
+    private void markDelayed(ScheduledSend scheduled) {
+        if (!scheduled.delayed) {
+            scheduled.delayed = true;
+            delayedSends.incrementAndGet();
+        }
+    }
+
+    private TokenBucket recipientBucket(String recipient) {
+        return recipientBuckets.computeIfAbsent(recipient, r ->
+                new TokenBucket(Math.min(burst, recipientPerMinuteLimit), recipientPerMinuteLimit, MINUTE_NANOS));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+        }
+
+        lock.lock();
+        try {
+            if (queued > 0) {
+                log.warn("Send scheduler stopped with {} queued sends", queued);
+            }
+            for (Deque<ScheduledSend> queue : queues.values()) {
+                for (ScheduledSend scheduled : queue) {
+                    scheduled.completion.completeExceptionally(new IllegalStateException("Send scheduler stopped"));
+                }
+                queue.clear();
+            }
+            queued = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> getLaneStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            queues.forEach((lane, queue) -> {
+                Map<String, Object> laneStats = new LinkedHashMap<>();
+                laneStats.put("depth", queue.size());
+                laneStats.put("queueWait", queueWaits.get(lane).snapshot());
+                stats.put(lane.name(), laneStats);
+            });
+        } finally {
+            lock.unlock();
+        }
+        return stats;
+    }
+
+    public int getTrackedRecipients() {
+        lock.lock();
+        try {
+            return recipientBuckets.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getGlobalMinuteTokens() {
+        return (long) globalPerMinute.getTokens();
+    }
+
+    public long getGlobalDayTokens() {
+        return (long) globalPerDay.getTokens();
+    }
+
+    public long getSenderTokens() {
+        return (long) senderPerMinute.getTokens();
+    }
+
+    public long getDelayedSends() {
+        return delayedSends.get();
+    }
+
+    public long getRejectedSends() {
+        return rejectedSends.get();
+    }
+
+    private static final class ScheduledSend implements Runnable, PriorityLane.Prioritized {
+
+        private final String[] recipients;
+        private final Runnable send;
+        private final PriorityLane lane;
+        private final long enqueuedAt;
+        private final CompletableFuture<Void> completion = new CompletableFuture<>();
+        private boolean delayed;
+
+        ScheduledSend(String[] recipients, Runnable send, PriorityLane lane, long enqueuedAt) {
+            this.recipients = recipients;
+            this.send = send;
+            this.lane = lane;
+            this.enqueuedAt = enqueuedAt;
+        }
+
+        @Override
+        public PriorityLane getLane() {
+            return lane;
+        }
+
+        @Override
+        public void run() {
+            try {
+                send.run();
+                completion.complete(null);
+            } catch (Throwable e) {
+                completion.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package co.edu.uptc.notification.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class SmtpCircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(SmtpCircuitBreaker.class);
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final AtomicLong timesOpened = new AtomicLong();
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    @Value("${notification.delivery.circuit.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${notification.delivery.circuit.open-ms:30000}")
+    private long openMs;
+
+    // En HALF_OPEN solo se deja pasar un envio de prueba a la vez
+    public synchronized boolean allowRequest() {
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openMs) {
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+            log.info("SMTP circuit breaker half-open, probing relay");
+        }
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (state == State.HALF_OPEN && !trialInFlight) {
+            trialInFlight = true;
+            return true;
+        }
+        return false;
+    }
+
+    public synchronized void recordSuccess() {
+        if (state != State.CLOSED) {
+            log.info("SMTP circuit breaker closed, relay recovered");
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+            trialInFlight = false;
+            timesOpened.incrementAndGet();
+            log.warn("SMTP circuit breaker opened after {} consecutive failures", consecutiveFailures);
+        }
+    }
+
+    public synchronized void releaseTrial() {
+        trialInFlight = false;
+    }
+
+    public synchronized long millisUntilRetry() {
+        if (state != State.OPEN) {
+            return 0;
+        }
+        return Math.max(0, openMs - (System.currentTimeMillis() - openedAt));
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    public long getTimesOpened() {
+        return timesOpened.get();
+    }
+}
@@ -0,0 +1,15 @@
+package co.edu.uptc.notification.service;
+
+import jakarta.mail.MessagingException;
+
+// Ningun permiso del pool se libero a tiempo: es saturacion local, no un fallo del servidor SMTP
+public class SmtpPoolExhaustedException extends MessagingException {
+
+    public SmtpPoolExhaustedException(String message) {
+        super(message);
+    }
+
+    public SmtpPoolExhaustedException(String message, Exception cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,326 @@
+package co.edu.uptc.notification.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class SmtpTransportPool {
+
+    private static final Logger log = LoggerFactory.getLogger(SmtpTransportPool.class);
+
+    private final JavaMailSenderImpl mailSender;
+    private final Executor emailSenderExecutor;
+    private final DownstreamConcurrencyLimiter limiter;
+    private final NotificationMetrics metrics;
+
+    private final BlockingDeque<PooledTransport> idle = new LinkedBlockingDeque<>();
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final AtomicLong connectionsCreated = new AtomicLong();
+    private final AtomicLong connectionsEvicted = new AtomicLong();
+
+    private ResizableSemaphore permits;
+    private volatile int maxSize;
+
+    @Value("${notification.smtp.pool.enabled:true}")
+    private boolean enabled;
+
+    @Value("${notification.smtp.pool.max-size:0}")
+    private int configuredMaxSize;
+
+    @Value("${notification.smtp.pool.max-messages-per-connection:100}")
+    private int maxMessagesPerConnection;
+
+    @Value("${notification.smtp.pool.idle-timeout-ms:60000}")
+    private long idleTimeoutMs;
+
+    @Value("${notification.smtp.pool.validation-interval-ms:15000}")
+    private long validationIntervalMs;
+
+    @Value("${notification.smtp.pool.borrow-timeout-ms:10000}")
+    private long borrowTimeoutMs;
+
+    public SmtpTransportPool(JavaMailSenderImpl mailSender,
+                             @Qualifier("emailSenderExecutor") Executor emailSenderExecutor,
+                             DownstreamConcurrencyLimiter limiter,
+                             NotificationMetrics metrics) {
+        this.mailSender = mailSender;
+        this.emailSenderExecutor = emailSenderExecutor;
+        this.limiter = limiter;
+        this.metrics = metrics;
+    }
+
+    @PostConstruct
+    void init() {
+        // Por defecto una conexion por hilo de envio: nunca hay mas envios concurrentes que hilos
+        maxSize = configuredMaxSize > 0 ? configuredMaxSize : resolveExecutorMaxSize();
+        permits = new ResizableSemaphore(maxSize);
+
+        log.info("SMTP transport pool initialized - Enabled: {}, Max: {}, Max messages/connection: {}",
+                enabled, maxSize, maxMessagesPerConnection);
+    }
+
+    private int resolveExecutorMaxSize() {
+        if (emailSenderExecutor instanceof ThreadPoolTaskExecutor executor) {
+            return Math.min(executor.getMaxPoolSize(), getSizeLimit());
+        }
+        // Hilos virtuales: el pool se dimensiona con el limite de concurrencia SMTP
+        return getSizeLimit();
+    }
+
+    // Tope para resize(): el max-size configurado o, si no hay, el limite de concurrencia SMTP
+    public int getSizeLimit() {
+        return configuredMaxSize > 0 ? configuredMaxSize : limiter.getLimit(DownstreamConcurrencyLimiter.Downstream.SMTP);
+    }
+
+    // Acompania los cambios de tamanio del executor de envio (auto-tuner u override manual).
+    // Al reducir, los envios en curso devuelven sus permisos de mas al terminar y no se reponen
+    public synchronized int resize(int requestedSize) {
+        int size = Math.max(1, Math.min(requestedSize, getSizeLimit()));
+        int delta = size - maxSize;
+        if (delta == 0) {
+            return size;
+        }
+        if (delta > 0) {
+            permits.release(delta);
+        } else {
+            permits.reducePermits(-delta);
+            PooledTransport surplus;
+            while (idle.size() > size && (surplus = idle.pollLast()) != null) {
+                close(surplus);
+            }
+        }
+        log.info("SMTP transport pool resized {} -> {}", maxSize, size);
+        maxSize = size;
+        return size;
+    }
+
+    public void send(MimeMessage message) throws MessagingException {
+        if (!enabled) {
+            sendUnpooled(message);
+            return;
+        }
+
+        if (message.getSentDate() == null) {
+            message.setSentDate(new Date());
+        }
+        message.saveChanges();
+
+        sendEncoded(message);
+    }
+
+    public void sendEncoded(MimeMessage message) throws MessagingException {
+        if (!enabled) {
+            sendUnpooled(message);
+            return;
+        }
+
+        long borrowStart = System.nanoTime();
+        PooledTransport pooled = borrow();
+        metrics.recordSince(NotificationMetrics.Stage.SMTP_BORROW, borrowStart);
+
+        long sendStart = System.nanoTime();
+        boolean reusable = false;
+        try {
+            pooled.transport.sendMessage(message, message.getAllRecipients());
+            pooled.messagesSent++;
+            reusable = true;
+        } catch (SendFailedException e) {
+            // Destinatario rechazado: la conexion sigue siendo valida
+            reusable = true;
+            throw e;
+        } finally {
+            metrics.recordSince(NotificationMetrics.Stage.SMTP_SEND, sendStart);
+            release(pooled, reusable);
+        }
+    }
+
+    private void sendUnpooled(MimeMessage message) throws MessagingException {
+        try {
+            limiter.call(DownstreamConcurrencyLimiter.Downstream.SMTP, () -> {
+                // Sin pool cada envio abre su propia conexion, asi que el tiempo incluye el connect
+                long start = System.nanoTime();
+                try {
+                    mailSender.send(message);
+                } finally {
+                    metrics.recordSince(NotificationMetrics.Stage.SMTP_SEND, start);
+                }
+                return null;
+            });
+        } catch (MessagingException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new MessagingException("Failed to send email", e);
+        }
+    }
+
+    private PooledTransport borrow() throws MessagingException {
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new SmtpPoolExhaustedException("Timed out waiting for a pooled SMTP connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SmtpPoolExhaustedException("Interrupted waiting for a pooled SMTP connection", e);
+        }
+
+        try {
+            PooledTransport pooled;
+            while ((pooled = idle.pollFirst()) != null) {
+                if (isUsable(pooled, System.currentTimeMillis())) {
+                    return pooled;
+                }
+                close(pooled);
+                connectionsEvicted.incrementAndGet();
+            }
+            return connect();
+        } catch (MessagingException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void release(PooledTransport pooled, boolean reusable) {
+        try {
+            if (reusable && pooled.messagesSent < maxMessagesPerConnection) {
+                pooled.lastUsed = System.currentTimeMillis();
+                idle.offerFirst(pooled);
+            } else {
+                close(pooled);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private boolean isUsable(PooledTransport pooled, long now) {
+        if (pooled.messagesSent >= maxMessagesPerConnection || now - pooled.lastUsed > idleTimeoutMs) {
+            return false;
+        }
+        if (now - pooled.lastValidated < validationIntervalMs) {
+            return true;
+        }
+        // isConnected() envia un NOOP al servidor
+        boolean connected = pooled.transport.isConnected();
+        pooled.lastValidated = now;
+        return connected;
+    }
+
+    private PooledTransport connect() throws MessagingException {
+        long start = System.nanoTime();
+        Transport transport = mailSender.getSession().getTransport(mailSender.getProtocol());
+        transport.connect(mailSender.getHost(), mailSender.getPort(),
+                mailSender.getUsername(), mailSender.getPassword());
+        metrics.recordSince(NotificationMetrics.Stage.SMTP_CONNECT, start);
+
+        openConnections.incrementAndGet();
+        connectionsCreated.incrementAndGet();
+        log.debug("Opened pooled SMTP connection to {}:{}", mailSender.getHost(), mailSender.getPort());
+        return new PooledTransport(transport);
+    }
+
+    private void close(PooledTransport pooled) {
+        openConnections.decrementAndGet();
+        try {
+            pooled.transport.close();
+        } catch (MessagingException e) {
+            log.debug("Error closing pooled SMTP connection: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${notification.smtp.pool.eviction-interval-ms:30000}")
+    public void evictIdleConnections() {
+        long now = System.currentTimeMillis();
+        for (PooledTransport pooled : idle.toArray(new PooledTransport[0])) {
+            // Se saca del deque antes de validar para no compartir la conexion con un envio
+            if (!idle.removeFirstOccurrence(pooled)) {
+                continue;
+            }
+            if (isUsable(pooled, now)) {
+                idle.offerLast(pooled);
+            } else {
+                close(pooled);
+                connectionsEvicted.incrementAndGet();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        PooledTransport pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            close(pooled);
+        }
+        log.info("SMTP transport pool closed");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int getOpenConnections() {
+        return openConnections.get();
+    }
+
+    public int getIdleConnections() {
+        return idle.size();
+    }
+
+    public long getConnectionsCreated() {
+        return connectionsCreated.get();
+    }
+
+    public long getConnectionsEvicted() {
+        return connectionsEvicted.get();
+    }
+
+    private static final class ResizableSemaphore extends Semaphore {
+
+        ResizableSemaphore(int permits) {
+            super(permits, true);
+        }
+
+        @Override
+        protected void reducePermits(int reduction) {
+            super.reducePermits(reduction);
+        }
+    }
+
+    private static class PooledTransport {
+
+        private final Transport transport;
+        private int messagesSent;
+        private long lastUsed;
+        private long lastValidated;
+
+        PooledTransport(Transport transport) {
+            this.transport = transport;
+            this.lastUsed = System.currentTimeMillis();
+            this.lastValidated = this.lastUsed;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package co.edu.uptc.notification.service;
+
+public class TokenBucket {
+
+    private final double capacity;
+    private final double refillPerNano;
+    private double tokens;
+    private long lastRefill;
+
+    public TokenBucket(long capacity, long tokensPerPeriod, long periodNanos) {
+        this.capacity = capacity;
+        this.refillPerNano = (double) tokensPerPeriod / periodNanos;
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    public synchronized boolean hasTokens(int count, long now) {
+        refill(now);
+        return tokens >= count;
+    }
+
+    // Un costo mayor que la capacidad deja el balance en negativo: los siguientes consumos esperan a saldarlo
+    public synchronized void consume(int count, long now) {
+        refill(now);
+        tokens -= count;
+    }
+
+    // Un costo mayor que la capacidad solo espera a que el balde este lleno; si no, nunca estaria disponible
+    public synchronized long nanosUntilAvailable(int count, long now) {
+        refill(now);
+        double required = Math.min(count, capacity);
+        if (tokens >= required) {
+            return 0;
+        }
+        return (long) Math.ceil((required - tokens) / refillPerNano);
+    }
+
+    public long getCapacity() {
+        return (long) capacity;
+    }
+
+    public synchronized double getTokens() {
+        refill(System.nanoTime());
+        return tokens;
+    }
+
+    private void refill(long now) {
+        if (now > lastRefill) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerNano);
+            lastRefill = now;
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package co.edu.uptc.notification.service;
+
+import co.edu.uptc.notification.dto.ReportViewedEventDTO;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Agregados en vivo de las vistas por reportType/source: conteos, distribucion de totalComplaints y tasas en
+// ventanas de un minuto (buckets de 1 s), una hora (1 min) y un dia (1 h). Cada serie tiene anillos de tamanio fijo
+// divididos en franjas por hilo: escribir es un par de incrementos atomicos sin locks ni objetos nuevos, y consultar
+// recorre solo los buckets de la ventana
+@Component
+public class ViewAnalytics {
+
+    private static final Logger log = LoggerFactory.getLogger(ViewAnalytics.class);
+
+    private static final String UNKNOWN = "UNKNOWN";
+    private static final String OTHER = "OTHER";
+
+    // Limites inferiores de cada rango de totalComplaints; el primer rango es 0
+    private static final int[] COMPLAINT_BOUNDS = {1, 10, 50, 100, 200, 500, 1000};
+    private static final String[] COMPLAINT_LABELS = {"0", "1-9", "10-49", "50-99", "100-199", "200-499", "500-999", "1000+"};
+    private static final int HISTOGRAM_SIZE = COMPLAINT_LABELS.length;
+
+    // Cada franja cuesta 144 celdas x 11 longs (~12 KB) por serie y se reserva al crearla: con el tope de 8 franjas
+    // son ~100 KB por serie, ~26 MB con max-series=256, sin importar cuantos nucleos tenga la maquina
+    private static final int MAX_STRIPES = 8;
+
+    public enum Window {
+        MINUTE(1_000, 60),
+        HOUR(60_000, 60),
+        DAY(3_600_000, 24);
+
+        private final long bucketMs;
+        private final int buckets;
+
+        Window(long bucketMs, int buckets) {
+            this.bucketMs = bucketMs;
+            this.buckets = buckets;
+        }
+    }
+
+    private static final Window[] WINDOWS = Window.values();
+
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, Series>> series = new ConcurrentHashMap<>();
+    private final AtomicInteger seriesCount = new AtomicInteger();
+    private final long startedAt = System.currentTimeMillis();
+
+    private Series overflow;
+    private int stripeMask;
+
+    @Value("${notification.analytics.enabled:true}")
+    private boolean enabled;
+
+    // Pares reportType/source distintos; los que sobran se acumulan en OTHER/OTHER
+    @Value("${notification.analytics.max-series:256}")
+    private int maxSeries;
+
+    // 0 = segun los nucleos disponibles, hasta MAX_STRIPES
+    @Value("${notification.analytics.stripes:0}")
+    private int stripes;
+
+    @PostConstruct
+    void init() {
+        int requested = stripes > 0 ? stripes : Runtime.getRuntime().availableProcessors();
+        stripes = Integer.highestOneBit(Math.max(1, Math.min(MAX_STRIPES, requested) * 2 - 1));
+        stripeMask = stripes - 1;
+        overflow = new Series(OTHER, OTHER, stripes);
+
+        log.info("View analytics initialized - Enabled: {}, Max series: {}, Stripes: {}", enabled, maxSeries, stripes);
+    }
+
+    public void record(ReportViewedEventDTO event) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Series target = seriesFor(event.getReportType(), event.getSource());
+        int complaints = Math.max(0, event.getTotalComplaints());
+        int bucket = complaintBucket(complaints);
+        int stripe = stripe();
+        for (Ring ring : target.rings) {
+            ring.add(stripe, now, complaints, bucket);
+        }
+    }
+
+    private Series seriesFor(String reportType, String source) {
+        String type = reportType != null ? reportType : UNKNOWN;
+        String src = source != null ? source : UNKNOWN;
+
+        // Camino comun sin lambdas: dos get sobre strings que ya vienen canonicalizados del deserializador
+        ConcurrentHashMap<String, Series> bySource = series.get(type);
+        if (bySource != null) {
+            Series existing = bySource.get(src);
+            if (existing != null) {
+                return existing;
+            }
+        }
+        if (seriesCount.get() >= maxSeries) {
+            return overflow;
+        }
+        // El cupo se reserva con CAS antes de crear la serie: dos hilos con pares nuevos no pueden pasarse del limite
+        Series created = series.computeIfAbsent(type, t -> new ConcurrentHashMap<>())
+                .computeIfAbsent(src, s -> reserveSeriesSlot() ? new Series(type, src, stripes) : null);
+        return created != null ? created : overflow;
+    }
+
+    private boolean reserveSeriesSlot() {
+        while (true) {
+            int current = seriesCount.get();
+            if (current >= maxSeries) {
+                return false;
+            }
+            if (seriesCount.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private int stripe() {
+        long id = Thread.currentThread().getId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 40) & stripeMask;
+    }
+
+    private static int complaintBucket(int complaints) {
+        int bucket = 0;
+        while (bucket < COMPLAINT_BOUNDS.length && complaints >= COMPLAINT_BOUNDS[bucket]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    // groupBy: series (reportType + source), reportType, source o none; reportType/source filtran
+    public Map<String, Object> query(Window window, String groupBy, String reportType, String source,
+                                     boolean timeline) {
+        long now = System.currentTimeMillis();
+        Map<String, Totals> groups = new LinkedHashMap<>();
+        Totals overall = new Totals(window);
+
+        List<Series> selected = new ArrayList<>();
+        series.values().forEach(bySource -> selected.addAll(bySource.values()));
+        selected.add(overflow);
+        for (Series candidate : selected) {
+            if ((reportType != null && !reportType.equals(candidate.reportType))
+                    || (source != null && !source.equals(candidate.source))) {
+                continue;
+            }
+            Totals totals = new Totals(window);
+            candidate.rings[window.ordinal()].sumInto(totals, now);
+            if (totals.views == 0) {
+                continue;
+            }
+            overall.merge(totals);
+            String key = switch (groupBy) {
+                case "reportType" -> candidate.reportType;
+                case "source" -> candidate.source;
+                case "none" -> "all";
+                default -> candidate.reportType + "/" + candidate.source;
+            };
+            groups.computeIfAbsent(key, k -> new Totals(window)).merge(totals);
+        }
+
+        // Al arrancar la ventana aun no esta completa: la tasa se calcula sobre lo transcurrido
+        long windowMs = window.bucketMs * window.buckets;
+        double coveredMinutes = Math.max(1_000, Math.min(windowMs, now - startedAt)) / 60_000.0;
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        groups.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue().views, a.getValue().views))
+                .forEach(entry -> rows.add(entry.getValue().toMap(entry.getKey(), coveredMinutes, timeline)));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("window", window);
+        result.put("bucketMs", window.bucketMs);
+        result.put("buckets", window.buckets);
+        result.put("groupBy", groupBy);
+        result.put("at", Instant.ofEpochMilli(now).toString());
+        result.put("total", overall.toMap("all", coveredMinutes, timeline));
+        result.put("groups", rows);
+        return result;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getSeriesCount() {
+        return seriesCount.get();
+    }
+
+    public int getMaxSeries() {
+        return maxSeries;
+    }
+
+    public int getStripes() {
+        return stripes;
+    }
+
+    private static final class Series {
+
+        final String reportType;
+        final String source;
+        final Ring[] rings = new Ring[WINDOWS.length];
+
+        Series(String reportType, String source, int stripes) {
+            this.reportType = reportType;
+            this.source = source;
+            for (Window window : WINDOWS) {
+                rings[window.ordinal()] = new Ring(window, stripes);
+            }
+        }
+    }
+
+    // Celda = franja * buckets + bucket; epochs guarda a que periodo pertenece el contenido de cada celda
+    private static final class Ring {
+
+        final Window window;
+        final int buckets;
+        final int stripes;
+        final AtomicLongArray epochs;
+        final AtomicLongArray views;
+        final AtomicLongArray complaintSums;
+        final AtomicLongArray histogram;
+
+        Ring(Window window, int stripes) {
+            this.window = window;
+            this.buckets = window.buckets;
+            this.stripes = stripes;
+            int cells = stripes * buckets;
+            epochs = new AtomicLongArray(cells);
+            for (int i = 0; i < cells; i++) {
+                epochs.set(i, -1);
+            }
+            views = new AtomicLongArray(cells);
+            complaintSums = new AtomicLongArray(cells);
+            histogram = new AtomicLongArray(cells * HISTOGRAM_SIZE);
+        }
+
+        void add(int stripe, long nowMs, int complaints, int complaintBucket) {
+            long epoch = nowMs / window.bucketMs;
+            int cell = stripe * buckets + (int) (epoch % buckets);
+
+            long seen = epochs.get(cell);
+            if (seen < epoch && epochs.compareAndSet(cell, seen, epoch)) {
+                // Nuevo periodo: quien gana el CAS limpia la celda. Un incremento concurrente de la misma franja
+                // justo en el cambio de periodo puede perderse; es el precio de no usar locks
+                views.set(cell, 0);
+                complaintSums.set(cell, 0);
+                for (int i = 0; i < HISTOGRAM_SIZE; i++) {
+                    histogram.set(cell * HISTOGRAM_SIZE + i, 0);
+                }
+            }
+
+            views.incrementAndGet(cell);
+            complaintSums.addAndGet(cell, complaints);
+            histogram.incrementAndGet(cell * HISTOGRAM_SIZE + complaintBucket);
+        }
+
+        void sumInto(Totals totals, long nowMs) {
+            long current = nowMs / window.bucketMs;
+            for (int stripe = 0; stripe < stripes; stripe++) {
+                for (int bucket = 0; bucket < buckets; bucket++) {
+                    int cell = stripe * buckets + bucket;
+                    long epoch = epochs.get(cell);
+                    long age = current - epoch;
+                    if (epoch < 0 || age < 0 || age >= buckets) {
+                        continue;
+                    }
+                    long count = views.get(cell);
+                    totals.views += count;
+                    totals.complaintSum += complaintSums.get(cell);
+                    totals.timeline[buckets - 1 - (int) age] += count;
+                    for (int i = 0; i < HISTOGRAM_SIZE; i++) {
+                        totals.histogram[i] += histogram.get(cell * HISTOGRAM_SIZE + i);
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class Totals {
+
+        long views;
+        long complaintSum;
+        final long[] histogram = new long[HISTOGRAM_SIZE];
+        // Vistas por bucket, del mas antiguo al actual
+        final long[] timeline;
+
+        Totals(Window window) {
+            timeline = new long[window.buckets];
+        }
+
+        void merge(Totals other) {
+            views += other.views;
+            complaintSum += other.complaintSum;
+            for (int i = 0; i < HISTOGRAM_SIZE; i++) {
+                histogram[i] += other.histogram[i];
+            }
+            for (int i = 0; i < timeline.length; i++) {
+                timeline[i] += other.timeline[i];
+            }
+        }
+
+        Map<String, Object> toMap(String key, double coveredMinutes, boolean includeTimeline) {
+            Map<String, Object> distribution = new LinkedHashMap<>();
+            for (int i = 0; i < HISTOGRAM_SIZE; i++) {
+                distribution.put(COMPLAINT_LABELS[i], histogram[i]);
+            }
+
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("key", key);
+            map.put("views", views);
+            map.put("viewsPerMinute", Math.round(views / coveredMinutes * 100) / 100.0);
+            map.put("meanTotalComplaints", views > 0 ? Math.round((double) complaintSum / views * 100) / 100.0 : 0);
+            map.put("complaintDistribution", distribution);
+            if (includeTimeline) {
+                map.put("timeline", timeline);
+            }
+            return map;
+        }
+    }
+}
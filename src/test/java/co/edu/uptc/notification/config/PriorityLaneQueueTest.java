@@ -0,0 +1,130 @@
+package co.edu.uptc.notification.config;
+
+import co.edu.uptc.notification.service.PriorityLane;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PriorityLaneQueueTest {
+
+    private static final long NO_AGING_MS = 60_000;
+
+    private static PriorityLaneQueue queue(int laneCapacity, long maxWaitMs) {
+        Map<PriorityLane, Integer> weights = new EnumMap<>(PriorityLane.class);
+        weights.put(PriorityLane.URGENT, 4);
+        weights.put(PriorityLane.HIGH, 2);
+        weights.put(PriorityLane.NORMAL, 1);
+        return new PriorityLaneQueue(laneCapacity, weights, maxWaitMs);
+    }
+
+    private static Runnable task(PriorityLane lane, List<String> log, String name) {
+        return PriorityLane.tag(lane, () -> log.add(name));
+    }
+
+    // Despachos por carril, indexados por ordinal
+    private static int[] dispatch(PriorityLaneQueue queue, int count) {
+        int[] counts = new int[PriorityLane.values().length];
+        for (int i = 0; i < count; i++) {
+            counts[PriorityLane.of(queue.poll()).ordinal()]++;
+        }
+        return counts;
+    }
+
+    @Test
+    void servesLanesInProportionToWeight() {
+        PriorityLaneQueue queue = queue(100, NO_AGING_MS);
+        List<String> log = new ArrayList<>();
+        for (int i = 0; i < 70; i++) {
+            for (PriorityLane lane : PriorityLane.values()) {
+                assertTrue(queue.offer(task(lane, log, lane.name())));
+            }
+        }
+
+        // Round-robin suave: cada ciclo de 7 despachos reparte exactamente 4/2/1
+        int[] firstCycle = dispatch(queue, 7);
+        assertEquals(4, firstCycle[PriorityLane.URGENT.ordinal()]);
+        assertEquals(2, firstCycle[PriorityLane.HIGH.ordinal()]);
+        assertEquals(1, firstCycle[PriorityLane.NORMAL.ordinal()]);
+
+        int[] next = dispatch(queue, 63);
+        assertEquals(36, next[PriorityLane.URGENT.ordinal()]);
+        assertEquals(18, next[PriorityLane.HIGH.ordinal()]);
+        assertEquals(9, next[PriorityLane.NORMAL.ordinal()]);
+    }
+
+    @Test
+    void emptyLanesGiveTheirShareToTheOthers() {
+        PriorityLaneQueue queue = queue(100, NO_AGING_MS);
+        List<String> log = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            queue.offer(task(PriorityLane.HIGH, log, "high"));
+            queue.offer(task(PriorityLane.NORMAL, log, "normal"));
+        }
+
+        int[] counts = dispatch(queue, 30);
+        assertEquals(20, counts[PriorityLane.HIGH.ordinal()]);
+        assertEquals(10, counts[PriorityLane.NORMAL.ordinal()]);
+    }
+
+    @Test
+    void keepsFifoOrderWithinALane() {
+        PriorityLaneQueue queue = queue(100, NO_AGING_MS);
+        List<String> log = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            queue.offer(task(PriorityLane.NORMAL, log, "n" + i));
+        }
+
+        List<Runnable> drained = new ArrayList<>();
+        assertEquals(5, queue.drainTo(drained));
+        drained.forEach(Runnable::run);
+        assertEquals(List.of("n0", "n1", "n2", "n3", "n4"), log);
+        assertNull(queue.poll());
+    }
+
+    @Test
+    void boundsEachLaneIndependently() {
+        PriorityLaneQueue queue = queue(2, NO_AGING_MS);
+        List<String> log = new ArrayList<>();
+
+        assertTrue(queue.offer(task(PriorityLane.NORMAL, log, "n0")));
+        assertTrue(queue.offer(() -> log.add("untagged")));
+        // Las tareas sin carril van a NORMAL, que ya esta lleno
+        assertFalse(queue.offer(task(PriorityLane.NORMAL, log, "n2")));
+        assertTrue(queue.offer(task(PriorityLane.URGENT, log, "u0")));
+
+        assertEquals(3, queue.size());
+        assertEquals(3, queue.remainingCapacity());
+        @SuppressWarnings("unchecked")
+        Map<String, Object> normal = (Map<String, Object>) queue.getLaneStats().get("NORMAL");
+        assertEquals(1L, normal.get("rejected"));
+
+        queue.poll();
+        queue.poll();
+        assertTrue(queue.offer(task(PriorityLane.NORMAL, log, "n3")));
+    }
+
+    @Test
+    void agedTasksJumpAheadOfHeavierLanes() throws InterruptedException {
+        PriorityLaneQueue queue = queue(100, 0);
+        List<String> log = new ArrayList<>();
+        queue.offer(task(PriorityLane.NORMAL, log, "normal"));
+        Thread.sleep(2);
+        queue.offer(task(PriorityLane.URGENT, log, "urgent"));
+        Thread.sleep(2);
+
+        queue.poll().run();
+        queue.poll().run();
+        assertEquals(List.of("normal", "urgent"), log);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> normal = (Map<String, Object>) queue.getLaneStats().get("NORMAL");
+        assertEquals(1L, normal.get("agedDispatches"));
+    }
+}
@@ -0,0 +1,90 @@
+package co.edu.uptc.notification.controller;
+
+import co.edu.uptc.notification.config.EventEncodingConfiguration;
+import co.edu.uptc.notification.dto.ReportViewedEventDTO;
+import co.edu.uptc.notification.service.NotificationDispatcher;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Contexto completo: comprueba que los convertidores CBOR y Smile de EventEncodingConfiguration quedan registrados
+@SpringBootTest
+@AutoConfigureMockMvc
+class EventConsumerControllerTest {
+
+    private static final String ENDPOINT = "/api/notifications/events/report-viewed";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockitoBean
+    private NotificationDispatcher dispatcher;
+
+    @Test
+    void acceptsACborEvent() throws Exception {
+        when(dispatcher.dispatch(any())).thenReturn(NotificationDispatcher.DispatchResult.ACCEPTED);
+        byte[] body = objectMapper.copyWith(new CBORFactory()).writeValueAsBytes(event("cbor-1"));
+
+        mockMvc.perform(post(ENDPOINT).contentType(MediaType.APPLICATION_CBOR).content(body)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.eventId").value("cbor-1"));
+
+        assertDispatched("cbor-1");
+    }
+
+    @Test
+    void acceptsASmileEvent() throws Exception {
+        when(dispatcher.dispatch(any())).thenReturn(NotificationDispatcher.DispatchResult.ACCEPTED);
+        byte[] body = objectMapper.copyWith(new SmileFactory()).writeValueAsBytes(event("smile-1"));
+
+        mockMvc.perform(post(ENDPOINT).contentType(EventEncodingConfiguration.APPLICATION_SMILE_VALUE).content(body)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.eventId").value("smile-1"));
+
+        assertDispatched("smile-1");
+    }
+
+    private void assertDispatched(String eventId) {
+        ArgumentCaptor<ReportViewedEventDTO> captor = ArgumentCaptor.forClass(ReportViewedEventDTO.class);
+        verify(dispatcher).dispatch(captor.capture());
+        ReportViewedEventDTO event = captor.getValue();
+        assertEquals(eventId, event.getEventId());
+        assertEquals(LocalDateTime.of(2025, 11, 3, 14, 25, 7), event.getTimestamp());
+        assertEquals(42, event.getTotalComplaints());
+        assertEquals("report-service", event.getSource());
+    }
+
+    private static ReportViewedEventDTO event(String eventId) {
+        ReportViewedEventDTO event = new ReportViewedEventDTO();
+        event.setEventId(eventId);
+        event.setEventType("REPORT_VIEWED");
+        event.setTimestamp(LocalDateTime.of(2025, 11, 3, 14, 25, 7));
+        event.setTotalComplaints(42);
+        event.setReportType("REPORTE_MENSUAL");
+        event.setSource("report-service");
+        return event;
+    }
+}
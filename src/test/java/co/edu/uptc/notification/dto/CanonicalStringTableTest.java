@@ -0,0 +1,68 @@
+package co.edu.uptc.notification.dto;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CanonicalStringTableTest {
+
+    private static String intern(CanonicalStringTable table, String value) {
+        // Relleno alrededor del texto: la tabla debe respetar offset y length del buffer del parser
+        char[] buffer = ("##" + value + "##").toCharArray();
+        return table.intern(buffer, 2, value.length());
+    }
+
+    @Test
+    void returnsTheSameInstanceForRepeatedText() {
+        CanonicalStringTable table = new CanonicalStringTable(64);
+
+        String first = intern(table, "REPORTE_GENERAL");
+        String second = intern(table, "REPORTE_GENERAL");
+
+        assertEquals("REPORTE_GENERAL", first);
+        assertSame(first, second);
+        assertEquals("REPORTE_ANUAL", intern(table, "REPORTE_ANUAL"));
+        assertEquals("", intern(table, ""));
+        assertEquals(3, table.size());
+    }
+
+    @Test
+    void stopsAdmittingValuesOnceHalfFull() {
+        // 16 de capacidad pedida: 32 slots, admite hasta 16 valores
+        CanonicalStringTable table = new CanonicalStringTable(16);
+        String[] values = new String[200];
+        String[] stored = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = "value-" + i;
+            stored[i] = intern(table, values[i]);
+        }
+        assertEquals(16, table.size());
+
+        int canonical = 0;
+        for (int i = 0; i < values.length; i++) {
+            String again = intern(table, values[i]);
+            assertEquals(values[i], again);
+            if (again == stored[i]) {
+                canonical++;
+            }
+        }
+        // Solo los admitidos se reutilizan; el resto sigue funcionando pero sin crecer la tabla
+        assertEquals(16, canonical);
+        assertEquals(16, table.size());
+    }
+
+    @Test
+    void longValuesAreNeverStored() {
+        CanonicalStringTable table = new CanonicalStringTable(64);
+        String longValue = "x".repeat(65);
+
+        String first = intern(table, longValue);
+        String second = intern(table, longValue);
+
+        assertEquals(longValue, first);
+        assertNotSame(first, second);
+        assertEquals(0, table.size());
+    }
+}
@@ -0,0 +1,153 @@
+package co.edu.uptc.notification.dto;
+
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ReportViewedEventDeserializerTest {
+
+    // Misma configuracion que el ObjectMapper de Spring Boot (JavaTimeModule incluido)
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectReader eventReader = objectMapper.readerFor(ReportViewedEventDTO.class);
+    private final ObjectReader reflectiveReader = objectMapper.copy()
+            .addMixIn(ReportViewedEventDTO.class, ReflectiveBinding.class)
+            .readerFor(ReportViewedEventDTO.class);
+
+    @Test
+    void matchesReflectiveBindingForTheBrokerPayload() throws Exception {
+        assertParity("""
+                {"eventId":"evt-1","eventType":"REPORT_VIEWED","ipAddress":"190.24.10.15",
+                 "timestamp":"2025-11-03T14:25:07","userAgent":"Mozilla/5.0","totalComplaints":42,
+                 "reportType":"REPORTE_MENSUAL","source":"report-service"}""");
+    }
+
+    @Test
+    void matchesReflectiveBindingForLooseInput() throws Exception {
+        // Timestamp como arreglo, totalComplaints como texto y campos desconocidos anidados
+        assertParity("""
+                {"meta":{"tags":["a",{"b":[1,2]}],"n":null},"eventId":"evt-2",
+                 "timestamp":[2025,3,14,9,26,53],"totalComplaints":" 17 ","extra":[{"x":{}}],
+                 "reportType":"REPORTE_GENERAL","source":null}""");
+        assertParity("""
+                {"eventId":null,"timestamp":null,"totalComplaints":null,"userAgent":"curl/8.0"}""");
+        assertParity("{}");
+    }
+
+    @Test
+    void rejectsInvalidValuesLikeReflectiveBinding() {
+        String badCount = "{\"eventId\":\"evt-3\",\"totalComplaints\":\"many\"}";
+        assertThrows(InvalidFormatException.class, () -> reflectiveReader.readValue(badCount));
+        assertThrows(InvalidFormatException.class, () -> eventReader.readValue(badCount));
+
+        String badDate = "{\"eventId\":\"evt-3\",\"timestamp\":\"2025-13-01T10:00:00\"}";
+        assertThrows(InvalidFormatException.class, () -> reflectiveReader.readValue(badDate));
+        assertThrows(InvalidFormatException.class, () -> eventReader.readValue(badDate));
+    }
+
+    @Test
+    void adjustsOutOfRangeDaysLikeTheJsonFormatPattern() throws Exception {
+        // El patron del @JsonFormat resuelve en modo SMART: el 30 de febrero pasa a ser el ultimo dia del mes
+        assertParity("{\"eventId\":\"evt-4\",\"timestamp\":\"2025-02-30T10:00:00\"}");
+        assertEquals(LocalDateTime.of(2025, 2, 28, 10, 0), read("2025-02-30T10:00:00").getTimestamp());
+    }
+
+    @Test
+    void sharesTimestampsWithinTheSameSecond() throws Exception {
+        ReportViewedEventDTO first = read("2025-06-01T08:15:42");
+        ReportViewedEventDTO second = read("2025-06-01T08:15:42");
+
+        assertEquals(LocalDateTime.of(2025, 6, 1, 8, 15, 42), first.getTimestamp());
+        assertSame(first.getTimestamp(), second.getTimestamp());
+    }
+
+    @Test
+    void reusedSlotNeverReturnsAnotherMinute() throws Exception {
+        // Mismo segundo (mismo slot) en minutos distintos: el slot se reemplaza, no se confunde
+        ReportViewedEventDTO earlier = read("2025-06-01T08:15:23");
+        ReportViewedEventDTO later = read("2025-06-01T08:16:23");
+        ReportViewedEventDTO again = read("2025-06-01T08:15:23");
+
+        assertEquals(LocalDateTime.of(2025, 6, 1, 8, 15, 23), earlier.getTimestamp());
+        assertEquals(LocalDateTime.of(2025, 6, 1, 8, 16, 23), later.getTimestamp());
+        assertEquals(earlier.getTimestamp(), again.getTimestamp());
+        assertNotSame(earlier.getTimestamp(), again.getTimestamp());
+    }
+
+    @Test
+    void canonicalizesLowCardinalityFields() throws Exception {
+        ReportViewedEventDTO first = eventReader.readValue(
+                "{\"eventType\":\"REPORT_VIEWED\",\"reportType\":\"REPORTE_ANUAL\",\"source\":\"portal\"}");
+        ReportViewedEventDTO second = eventReader.readValue(
+                "{\"source\":\"portal\",\"reportType\":\"REPORTE_ANUAL\",\"eventType\":\"REPORT_VIEWED\"}");
+
+        assertSame(first.getEventType(), second.getEventType());
+        assertSame(first.getReportType(), second.getReportType());
+        assertSame(first.getSource(), second.getSource());
+    }
+
+    @Test
+    void decodesCborAndSmileThroughTheTextBuffer() throws Exception {
+        ReportViewedEventDTO event = sampleEvent();
+        ReportViewedEventDTO fromJson = eventReader.readValue(objectMapper.writeValueAsBytes(event));
+
+        for (ObjectMapper binary : new ObjectMapper[]{
+                objectMapper.copyWith(new CBORFactory()), objectMapper.copyWith(new SmileFactory())}) {
+            ReportViewedEventDTO decoded = binary.readerFor(ReportViewedEventDTO.class)
+                    .readValue(binary.writeValueAsBytes(event));
+
+            assertSameEvent(fromJson, decoded);
+            // Los parsers binarios tambien exponen getTextCharacters: los valores salen de la misma tabla canonica
+            assertSame(fromJson.getReportType(), decoded.getReportType());
+            assertSame(fromJson.getSource(), decoded.getSource());
+        }
+    }
+
+    private void assertParity(String json) throws Exception {
+        assertSameEvent(reflectiveReader.readValue(json), eventReader.readValue(json));
+    }
+
+    private ReportViewedEventDTO read(String timestamp) throws Exception {
+        return eventReader.readValue("{\"eventId\":\"evt\",\"timestamp\":\"" + timestamp + "\"}");
+    }
+
+    private static void assertSameEvent(ReportViewedEventDTO expected, ReportViewedEventDTO actual) {
+        assertEquals(expected.getEventId(), actual.getEventId());
+        assertEquals(expected.getEventType(), actual.getEventType());
+        assertEquals(expected.getIpAddress(), actual.getIpAddress());
+        assertEquals(expected.getTimestamp(), actual.getTimestamp());
+        assertEquals(expected.getUserAgent(), actual.getUserAgent());
+        assertEquals(expected.getTotalComplaints(), actual.getTotalComplaints());
+        assertEquals(expected.getReportType(), actual.getReportType());
+        assertEquals(expected.getSource(), actual.getSource());
+    }
+
+    private static ReportViewedEventDTO sampleEvent() {
+        ReportViewedEventDTO event = new ReportViewedEventDTO();
+        event.setEventId("evt-000001");
+        event.setEventType("REPORT_VIEWED");
+        event.setIpAddress("190.24.10.15");
+        event.setTimestamp(LocalDateTime.of(2025, 11, 3, 14, 25, 7));
+        event.setUserAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64)");
+        event.setTotalComplaints(42);
+        event.setReportType("REPORTE_MENSUAL");
+        event.setSource("report-service");
+        return event;
+    }
+
+    @JsonDeserialize(using = JsonDeserializer.None.class)
+    private abstract static class ReflectiveBinding {
+    }
+}
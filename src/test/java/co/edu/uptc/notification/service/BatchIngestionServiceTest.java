@@ -0,0 +1,110 @@
+package co.edu.uptc.notification.service;
+
+import co.edu.uptc.notification.config.EventEncodingConfiguration;
+import co.edu.uptc.notification.dto.BatchIngestionResultDTO;
+import co.edu.uptc.notification.dto.ReportViewedEventDTO;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BatchIngestionServiceTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final List<ReportViewedEventDTO> dispatched = new ArrayList<>();
+    private BatchIngestionService service;
+
+    @BeforeEach
+    void setUp() {
+        NotificationDispatcher dispatcher = mock(NotificationDispatcher.class);
+        when(dispatcher.dispatch(any())).thenAnswer(invocation -> {
+            dispatched.add(invocation.getArgument(0));
+            return NotificationDispatcher.DispatchResult.ACCEPTED;
+        });
+        service = new BatchIngestionService(dispatcher, objectMapper);
+    }
+
+    @Test
+    void ingestsACborSequence() throws Exception {
+        // CBOR sequence (RFC 8742): valores raiz concatenados, sin arreglo que los envuelva
+        byte[] body = sequence(objectMapper.copyWith(new CBORFactory()), event("c1"), event("c2"), event("c3"));
+
+        BatchIngestionResultDTO result = service.ingest(new ByteArrayInputStream(body), MediaType.APPLICATION_CBOR);
+
+        assertAllAccepted(result, "c1", "c2", "c3");
+    }
+
+    @Test
+    void ingestsASmileStream() throws Exception {
+        byte[] body = sequence(objectMapper.copyWith(new SmileFactory()), event("s1"), event("s2"));
+
+        BatchIngestionResultDTO result = service.ingest(new ByteArrayInputStream(body),
+                MediaType.valueOf(EventEncodingConfiguration.APPLICATION_SMILE_VALUE));
+
+        assertAllAccepted(result, "s1", "s2");
+    }
+
+    @Test
+    void ingestsABinaryArrayLikeAJsonArray() throws Exception {
+        ObjectMapper cbor = objectMapper.copyWith(new CBORFactory());
+        byte[] body = cbor.writeValueAsBytes(List.of(event("a1"), event("a2")));
+
+        BatchIngestionResultDTO result = service.ingest(new ByteArrayInputStream(body), MediaType.APPLICATION_CBOR);
+
+        assertAllAccepted(result, "a1", "a2");
+    }
+
+    private void assertAllAccepted(BatchIngestionResultDTO result, String... eventIds) {
+        assertEquals(eventIds.length, result.getReceived());
+        assertEquals(eventIds.length, result.getAccepted());
+        assertEquals(0, result.getRejected());
+        assertFalse(result.isTruncated());
+        assertEquals(eventIds.length, dispatched.size());
+        for (int i = 0; i < eventIds.length; i++) {
+            ReportViewedEventDTO event = dispatched.get(i);
+            assertEquals(eventIds[i], event.getEventId());
+            assertEquals(LocalDateTime.of(2025, 11, 3, 14, 25, 7), event.getTimestamp());
+            assertEquals(42, event.getTotalComplaints());
+            assertEquals("REPORTE_MENSUAL", event.getReportType());
+        }
+    }
+
+    private static byte[] sequence(ObjectMapper mapper, ReportViewedEventDTO... events) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (JsonGenerator generator = mapper.createGenerator(bytes)) {
+            for (ReportViewedEventDTO event : events) {
+                mapper.writeValue(generator, event);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static ReportViewedEventDTO event(String eventId) {
+        ReportViewedEventDTO event = new ReportViewedEventDTO();
+        event.setEventId(eventId);
+        event.setEventType("REPORT_VIEWED");
+        event.setIpAddress("190.24.10.15");
+        event.setTimestamp(LocalDateTime.of(2025, 11, 3, 14, 25, 7));
+        event.setUserAgent("Mozilla/5.0");
+        event.setTotalComplaints(42);
+        event.setReportType("REPORTE_MENSUAL");
+        event.setSource("report-service");
+        return event;
+    }
+}
@@ -0,0 +1,181 @@
+package co.edu.uptc.notification.service;
+
+import co.edu.uptc.notification.dto.ReportViewedEventDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClusterMembershipTest {
+
+    private static final int KEYS = 3000;
+
+    // El store en memoria es estatico: cada test saca a sus nodos al terminar
+    private final InMemoryMembershipStore store = new InMemoryMembershipStore();
+    private final List<String> nodeIds = new ArrayList<>();
+
+    @AfterEach
+    void leaveAll() {
+        nodeIds.forEach(store::leave);
+    }
+
+    @Test
+    void everyKeyHasExactlyOneOwnerAgreedByAllNodes() {
+        ClusterMembership a = join("test-node-a");
+        ClusterMembership b = join("test-node-b");
+        ClusterMembership c = join("test-node-c");
+        refreshAll(a, b, c);
+        assertEquals(List.of("test-node-a", "test-node-b", "test-node-c"), a.getMembers());
+
+        Map<String, Integer> perNode = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            ReportViewedEventDTO event = event("evt-" + i);
+            int owners = (a.isOwner(event) ? 1 : 0) + (b.isOwner(event) ? 1 : 0) + (c.isOwner(event) ? 1 : 0);
+            assertEquals(1, owners, "owners of " + event.getEventId());
+            assertEquals(a.ownerOf(event.getEventId()), c.ownerOf(event.getEventId()));
+            perNode.merge(a.ownerOf(event.getEventId()), 1, Integer::sum);
+        }
+        // Reparto aproximadamente uniforme: ningun nodo se queda con menos de la mitad de su tercio
+        perNode.values().forEach(count -> assertTrue(count > KEYS / 6, "unbalanced: " + perNode));
+    }
+
+    @Test
+    void joiningNodeOnlyTakesKeysFromOthers() {
+        ClusterMembership a = join("test-node-a");
+        ClusterMembership b = join("test-node-b");
+        refreshAll(a, b);
+        Map<String, String> before = owners(a);
+        long rebalancesBefore = a.getRebalances();
+
+        ClusterMembership c = join("test-node-c");
+        refreshAll(a, b, c);
+        assertEquals(rebalancesBefore + 1, a.getRebalances());
+
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String key = "evt-" + i;
+            String now = a.ownerOf(key);
+            if (!now.equals(before.get(key))) {
+                // Las claves que cambian de duenio solo pueden ir al nodo nuevo
+                assertEquals("test-node-c", now);
+                moved++;
+            }
+        }
+        assertTrue(moved > KEYS / 6 && moved < KEYS / 2, "moved " + moved);
+    }
+
+    @Test
+    void leavingNodeOnlyReleasesItsOwnKeys() {
+        ClusterMembership a = join("test-node-a");
+        ClusterMembership b = join("test-node-b");
+        ClusterMembership c = join("test-node-c");
+        refreshAll(a, b, c);
+        Map<String, String> before = owners(a);
+
+        c.leave();
+        refreshAll(a, b);
+        assertEquals(List.of("test-node-a", "test-node-b"), a.getMembers());
+
+        for (int i = 0; i < KEYS; i++) {
+            String key = "evt-" + i;
+            if (!"test-node-c".equals(before.get(key))) {
+                assertEquals(before.get(key), a.ownerOf(key), "stable owner of " + key);
+            }
+        }
+    }
+
+    @Test
+    void parkedEventsOfACrashedNodeAreTakenOverByOneSurvivor() {
+        ClusterMembership a = join("test-node-a");
+        ClusterMembership b = join("test-node-b");
+        ClusterMembership c = join("test-node-c");
+        refreshAll(a, b, c);
+
+        // Lo que a y b retienen (owns == false) porque le toca a c
+        List<ReportViewedEventDTO> parkedByA = new ArrayList<>();
+        List<ReportViewedEventDTO> parkedByB = new ArrayList<>();
+        for (int i = 0; i < KEYS; i++) {
+            ReportViewedEventDTO event = event("evt-" + i);
+            if (!a.owns(event) && "test-node-c".equals(a.ownerOf(event.getEventId()))) {
+                parkedByA.add(event);
+            }
+            if (!b.owns(event) && "test-node-c".equals(b.ownerOf(event.getEventId()))) {
+                parkedByB.add(event);
+            }
+        }
+        assertEquals(parkedByA.size(), parkedByB.size());
+        assertFalse(parkedByA.isEmpty());
+
+        // c cae sin avisar: su ultimo heartbeat queda fuera del TTL
+        store.heartbeat("test-node-c", System.currentTimeMillis() - 60_000);
+        long rebalancesBefore = a.getRebalances();
+        refreshAll(a, b);
+        assertEquals(rebalancesBefore + 1, a.getRebalances());
+
+        int takenByA = 0;
+        for (ReportViewedEventDTO event : parkedByA) {
+            // El mismo evento retenido en ambos nodos se entrega en exactamente uno
+            assertTrue(a.isOwner(event) ^ b.isOwner(event), "single taker for " + event.getEventId());
+            takenByA += a.isOwner(event) ? 1 : 0;
+        }
+        assertTrue(takenByA > 0 && takenByA < parkedByA.size(), "taken by a: " + takenByA);
+    }
+
+    @Test
+    void reportTypePartitionKeepsAReportOnOneNode() {
+        ClusterMembership a = join("test-node-a");
+        ClusterMembership b = join("test-node-b");
+        ReflectionTestUtils.setField(a, "partitionKey", "reportType");
+        ReflectionTestUtils.setField(b, "partitionKey", "reportType");
+        refreshAll(a, b);
+
+        ReportViewedEventDTO first = event("evt-1");
+        ReportViewedEventDTO second = event("evt-2");
+        first.setReportType("REPORTE_ANUAL");
+        second.setReportType("REPORTE_ANUAL");
+
+        assertEquals(a.isOwner(first), a.isOwner(second));
+        assertTrue(a.isOwner(first) ^ b.isOwner(first));
+        // Sin clave no hay particion: todos los nodos lo entregan
+        assertTrue(a.isOwner(event("evt-3")) && b.isOwner(event("evt-3")));
+    }
+
+    private ClusterMembership join(String nodeId) {
+        ClusterMembership membership = new ClusterMembership(store);
+        ReflectionTestUtils.setField(membership, "enabled", true);
+        ReflectionTestUtils.setField(membership, "nodeId", nodeId);
+        ReflectionTestUtils.setField(membership, "partitionKey", "eventId");
+        ReflectionTestUtils.setField(membership, "memberTtlMs", 15_000L);
+        nodeIds.add(nodeId);
+        membership.init();
+        return membership;
+    }
+
+    private static void refreshAll(ClusterMembership... memberships) {
+        for (ClusterMembership membership : memberships) {
+            membership.refresh();
+        }
+    }
+
+    private static Map<String, String> owners(ClusterMembership membership) {
+        Map<String, String> owners = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            owners.put("evt-" + i, membership.ownerOf("evt-" + i));
+        }
+        return owners;
+    }
+
+    private static ReportViewedEventDTO event(String eventId) {
+        ReportViewedEventDTO event = new ReportViewedEventDTO();
+        event.setEventId(eventId);
+        return event;
+    }
+}
@@ -0,0 +1,95 @@
+package co.edu.uptc.notification.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeadLetterStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void truncatedRecordIsDiscardedBeforeAppending() throws Exception {
+        DeadLetterStore store = open();
+        store.store(email("e1"), new String[]{"a@example.com"}, 5, "550 rejected");
+        store.store(email("e2"), new String[]{"b@example.com"}, 5, "550 rejected");
+        store.shutdown();
+
+        // Simula una caida a mitad de un registro: tipo, id y parte del timestamp
+        Path file = directory.resolve("dead-letters.log");
+        Files.write(file, new byte[]{1, 0, 0, 0, 0, 0, 0, 0, 3, 0, 0}, StandardOpenOption.APPEND);
+
+        DeadLetterStore recovered = open();
+        assertEquals(2, recovered.size());
+        recovered.store(email("e3"), new String[]{"c@example.com"}, 5, "550 rejected");
+        recovered.shutdown();
+
+        DeadLetterStore reopened = open();
+        assertEquals(3, reopened.size());
+        List<DeadLetterStore.Replay> replays = reopened.takeForReplay(List.of());
+        assertEquals("e3", replays.get(2).getEmail().getEventId());
+        assertEquals("<p>e3</p>", replays.get(2).getEmail().getHtmlContent());
+        reopened.shutdown();
+    }
+
+    @Test
+    void resolvedEntriesStayResolvedAfterRestart() throws Exception {
+        DeadLetterStore store = open();
+        long first = store.store(email("e1"), new String[]{"a@example.com"}, 5, "timeout");
+        store.store(email("e2"), new String[]{"b@example.com"}, 5, "timeout");
+        store.takeForReplay(List.of(first));
+        store.shutdown();
+
+        DeadLetterStore reopened = open();
+        assertEquals(1, reopened.size());
+        assertEquals("e2", reopened.list(10).get(0).getEventId());
+        reopened.shutdown();
+    }
+
+    @Test
+    void oversizedFieldsAreCappedInsteadOfTearingTheRecord() throws Exception {
+        // Una lista BCC de mas de 64 KB y un asunto multibyte que tampoco cabe en un writeUTF
+        String[] recipients = new String[5000];
+        for (int i = 0; i < recipients.length; i++) {
+            recipients[i] = "bcc" + i + "@example.com";
+        }
+        RenderedEmail huge = new RenderedEmail("e1", "\u00f1".repeat(40_000), "<p>e1</p>");
+
+        DeadLetterStore store = open();
+        store.store(huge, recipients, 5, "552 too many recipients");
+        store.store(email("e2"), new String[]{"b@example.com"}, 5, "550 rejected");
+        store.shutdown();
+
+        DeadLetterStore reopened = open();
+        assertEquals(2, reopened.size());
+        List<DeadLetterStore.Replay> replays = reopened.takeForReplay(List.of());
+        String[] kept = replays.get(0).getRecipients();
+        assertTrue(kept.length > 0 && kept.length < recipients.length);
+        assertTrue(String.join(",", kept).length() <= 65535);
+        assertEquals(recipients[kept.length - 1], kept[kept.length - 1]);
+        assertEquals(32767, replays.get(0).getEmail().getSubject().length());
+        assertEquals("e2", replays.get(1).getEmail().getEventId());
+        reopened.shutdown();
+    }
+
+    private DeadLetterStore open() throws Exception {
+        DeadLetterStore store = new DeadLetterStore();
+        ReflectionTestUtils.setField(store, "directory", directory.toString());
+        ReflectionTestUtils.setField(store, "maxEntries", 100);
+        store.init();
+        return store;
+    }
+
+    private static RenderedEmail email(String eventId) {
+        return new RenderedEmail(eventId, "Subject " + eventId, "<p>" + eventId + "</p>");
+    }
+}
@@ -0,0 +1,113 @@
+package co.edu.uptc.notification.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventDeduplicationCacheTest {
+
+    private static EventDeduplicationCache cache(int capacity, long ttlMs) {
+        EventDeduplicationCache cache = new EventDeduplicationCache();
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "capacity", capacity);
+        ReflectionTestUtils.setField(cache, "ttlMs", ttlMs);
+        cache.init();
+        return cache;
+    }
+
+    @Test
+    void detectsDuplicatesUntilForgotten() {
+        EventDeduplicationCache cache = cache(4096, 60_000);
+
+        assertTrue(cache.markIfAbsent("evt-1"));
+        assertFalse(cache.markIfAbsent("evt-1"));
+        cache.forget("evt-1");
+        assertTrue(cache.markIfAbsent("evt-1"));
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    void expiredEntriesAreNotDuplicates() throws InterruptedException {
+        EventDeduplicationCache cache = cache(4096, 5);
+
+        assertTrue(cache.markIfAbsent("evt-1"));
+        Thread.sleep(20);
+        assertTrue(cache.markIfAbsent("evt-1"));
+        assertEquals(0, cache.getEvictions());
+    }
+
+    @Test
+    void capacityRoundsUpToPowerOfTwoPerStripe() {
+        assertEquals(64 * 32, cache(1, 60_000).getCapacity());
+        assertEquals(64 * 1024, cache(50_000, 60_000).getCapacity());
+    }
+
+    @Test
+    void overflowEvictsButKeepsTheLatestIds() {
+        EventDeduplicationCache cache = cache(1, 60_000);
+        int inserted = cache.getCapacity() * 4;
+
+        for (int i = 0; i < inserted; i++) {
+            assertTrue(cache.markIfAbsent("evt-" + i));
+        }
+
+        // Con cuatro veces la capacidad alguna ventana de sondeo tiene que llenarse
+        assertTrue(cache.getEvictions() >= inserted - cache.getCapacity());
+        assertFalse(cache.markIfAbsent("evt-" + (inserted - 1)));
+    }
+
+    @Test
+    void fingerprintsSpreadAcrossAllStripes() {
+        int[] perStripe = new int[64];
+        int ids = 64 * 1000;
+        for (int i = 0; i < ids; i++) {
+            perStripe[(int) (EventDeduplicationCache.fingerprint("evt-" + i) >>> 58)]++;
+        }
+        for (int count : perStripe) {
+            assertTrue(count > 800 && count < 1200, "uneven stripe: " + count);
+        }
+    }
+
+    @Test
+    void concurrentRedeliveriesAreAcceptedOnce() throws InterruptedException {
+        EventDeduplicationCache cache = cache(65_536, 60_000);
+        int threads = 8;
+        int ids = 5_000;
+        AtomicInteger accepted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < ids; i++) {
+                    if (cache.markIfAbsent("evt-" + i)) {
+                        accepted.incrementAndGet();
+                    }
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(ids, accepted.get());
+        assertEquals(ids, cache.getMisses());
+        assertEquals((long) ids * (threads - 1), cache.getHits());
+    }
+}
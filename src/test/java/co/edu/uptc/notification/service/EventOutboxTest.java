@@ -0,0 +1,175 @@
+package co.edu.uptc.notification.service;
+
+import co.edu.uptc.notification.dto.ReportViewedEventDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventOutboxTest {
+
+    // Un evento serializado ocupa ~230 bytes: caben unos cuatro por segmento
+    private static final int SEGMENT_SIZE = 1024;
+
+    @TempDir
+    Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final List<EventOutbox> opened = new ArrayList<>();
+
+    @AfterEach
+    void close() {
+        opened.forEach(EventOutbox::shutdown);
+    }
+
+    @Test
+    void markDoneClearsPendingEntries() throws Exception {
+        EventOutbox outbox = open();
+
+        long first = outbox.append(event("e1"));
+        long second = outbox.append(event("e2"));
+        long third = outbox.append(event("e3"));
+        assertTrue(first < second && second < third);
+        assertEquals(3, outbox.getPendingCount());
+
+        outbox.markDone(second);
+        outbox.markDone(second);
+        assertEquals(2, outbox.getPendingCount());
+    }
+
+    @Test
+    void replaysOnlyPendingEventsAfterRestart() throws Exception {
+        EventOutbox outbox = open();
+        long first = outbox.append(event("e1"));
+        long second = outbox.append(event("e2"));
+        outbox.markDone(first);
+        outbox.shutdown();
+
+        EventOutbox restarted = open();
+        Map<Long, ReportViewedEventDTO> recovered = restarted.drainRecovered();
+
+        assertEquals(1, recovered.size());
+        assertEquals("e2", recovered.get(second).getEventId());
+        assertEquals(LocalDateTime.of(2025, 3, 1, 10, 30), recovered.get(second).getTimestamp());
+        assertTrue(restarted.drainRecovered().isEmpty());
+        // Las secuencias siguen creciendo despues del reinicio
+        assertTrue(restarted.append(event("e3")) > second);
+    }
+
+    @Test
+    void replaysPendingEventsAcrossSegmentRoll() throws Exception {
+        EventOutbox outbox = open();
+        List<Long> seqs = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            seqs.add(outbox.append(event("e" + i)));
+        }
+        assertTrue(outbox.getSegmentCount() > 3, "20 events should span several segments");
+
+        // Quedan pendientes uno del primer segmento y uno del ultimo
+        for (int i = 1; i < 19; i++) {
+            outbox.markDone(seqs.get(i));
+        }
+        outbox.shutdown();
+
+        Map<Long, ReportViewedEventDTO> recovered = open().drainRecovered();
+        assertEquals(List.of(seqs.get(0), seqs.get(19)), new ArrayList<>(recovered.keySet()));
+        assertEquals("e0", recovered.get(seqs.get(0)).getEventId());
+        assertEquals("e19", recovered.get(seqs.get(19)).getEventId());
+    }
+
+    @Test
+    void completedSegmentsAreRetired() throws Exception {
+        EventOutbox outbox = open();
+        List<Long> seqs = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            seqs.add(outbox.append(event("e" + i)));
+        }
+        int segments = outbox.getSegmentCount();
+
+        seqs.forEach(outbox::markDone);
+
+        assertEquals(0, outbox.getPendingCount());
+        assertTrue(outbox.getSegmentCount() < segments);
+    }
+
+    @Test
+    void compactionRelocatesPendingEntriesAndKeepsThemReplayable() throws Exception {
+        EventOutbox outbox = open();
+        List<Long> seqs = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            seqs.add(outbox.append(event("e" + i)));
+        }
+        // Solo e0 sigue pendiente en el segmento mas antiguo; el resto se completa
+        for (int i = 1; i < 12; i++) {
+            outbox.markDone(seqs.get(i));
+        }
+        int segments = outbox.getSegmentCount();
+
+        outbox.compact();
+
+        assertTrue(outbox.getSegmentCount() < segments, "the oldest segment should be retired after compaction");
+        assertEquals(1, outbox.getPendingCount());
+        outbox.shutdown();
+
+        Map<Long, ReportViewedEventDTO> recovered = open().drainRecovered();
+        assertEquals(1, recovered.size());
+        assertEquals("e0", recovered.get(seqs.get(0)).getEventId());
+    }
+
+    @Test
+    void parkedEventsAreRecoveredSeparatelyEvenAfterCompaction() throws Exception {
+        EventOutbox outbox = open();
+        long parked = outbox.appendParked(event("p0"));
+        List<Long> seqs = new ArrayList<>();
+        for (int i = 1; i < 12; i++) {
+            seqs.add(outbox.append(event("e" + i)));
+        }
+        seqs.subList(1, seqs.size()).forEach(outbox::markDone);
+
+        outbox.compact();
+        outbox.shutdown();
+
+        EventOutbox restarted = open();
+        Map<Long, ReportViewedEventDTO> recovered = restarted.drainRecovered();
+        Map<Long, ReportViewedEventDTO> recoveredParked = restarted.drainRecoveredParked();
+        assertEquals(List.of(seqs.get(0)), new ArrayList<>(recovered.keySet()));
+        assertEquals(List.of(parked), new ArrayList<>(recoveredParked.keySet()));
+        assertEquals("p0", recoveredParked.get(parked).getEventId());
+    }
+
+    private EventOutbox open() throws Exception {
+        EventOutbox outbox = new EventOutbox(objectMapper);
+        ReflectionTestUtils.setField(outbox, "enabled", true);
+        ReflectionTestUtils.setField(outbox, "directory", directory.toString());
+        ReflectionTestUtils.setField(outbox, "segmentSize", SEGMENT_SIZE);
+        ReflectionTestUtils.setField(outbox, "flushIntervalMs", 5L);
+        ReflectionTestUtils.setField(outbox, "syncOnAccept", false);
+        ReflectionTestUtils.setField(outbox, "compactionThreshold", 64);
+        outbox.init();
+        opened.add(outbox);
+        return outbox;
+    }
+
+    private static ReportViewedEventDTO event(String eventId) {
+        ReportViewedEventDTO event = new ReportViewedEventDTO();
+        event.setEventId(eventId);
+        event.setEventType("REPORT_VIEWED");
+        event.setIpAddress("10.0.0.1");
+        event.setTimestamp(LocalDateTime.of(2025, 3, 1, 10, 30));
+        event.setUserAgent("JUnit");
+        event.setTotalComplaints(42);
+        event.setReportType("REPORTE_GENERAL");
+        event.setSource("test");
+        return event;
+    }
+}
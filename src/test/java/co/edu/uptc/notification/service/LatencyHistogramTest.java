@@ -0,0 +1,66 @@
+package co.edu.uptc.notification.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    // El ultimo bucket absorbe todo lo que pasa de 2^41 us
+    private static final int LAST_BUCKET = LatencyHistogram.bucketIndex(Long.MAX_VALUE);
+
+    @Test
+    void upperBoundsRoundTripToTheirBucket() {
+        for (int i = 0; i <= LAST_BUCKET; i++) {
+            long upper = LatencyHistogram.bucketUpperBound(i);
+            assertEquals(i, LatencyHistogram.bucketIndex(upper), "upper bound of bucket " + i);
+            if (i < LAST_BUCKET) {
+                // Buckets contiguos: el valor siguiente al limite abre el proximo bucket
+                assertEquals(i + 1, LatencyHistogram.bucketIndex(upper + 1), "value after bucket " + i);
+            }
+        }
+    }
+
+    @Test
+    void firstBucketsAreExact() {
+        for (int micros = 0; micros < 16; micros++) {
+            assertEquals(micros, LatencyHistogram.bucketIndex(micros));
+            assertEquals(micros, LatencyHistogram.bucketUpperBound(micros));
+        }
+        assertEquals(16, LatencyHistogram.bucketIndex(16));
+    }
+
+    @Test
+    void upperBoundStaysWithinSixPercent() {
+        for (long micros = 16; micros < (1L << 41); micros = micros * 3 / 2 + 7) {
+            long upper = LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(micros));
+            assertTrue(upper >= micros, "upper bound below value " + micros);
+            assertTrue(upper - micros <= micros / 16, "bucket too wide for " + micros);
+        }
+    }
+
+    @Test
+    void valuesPastTheRangeLandInTheLastBucket() {
+        assertEquals(LAST_BUCKET, LatencyHistogram.bucketIndex(1L << 41));
+        assertEquals(LAST_BUCKET, LatencyHistogram.bucketIndex(1L << 50));
+        assertEquals((1L << 41) - 1, LatencyHistogram.bucketUpperBound(LAST_BUCKET));
+    }
+
+    @Test
+    void percentilesAreCappedAtTheObservedMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int ms = 1; ms <= 1000; ms++) {
+            histogram.recordNanos(ms * 1_000_000L);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        long p50 = histogram.percentileMicros(50);
+        assertTrue(p50 >= 500_000 && p50 <= 500_000 + 500_000 / 16, "p50 " + p50);
+        assertEquals(1_000_000, histogram.percentileMicros(100));
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.percentileMicros(99));
+    }
+}
@@ -0,0 +1,93 @@
+package co.edu.uptc.notification.service;
+
+import co.edu.uptc.notification.dto.RecipientRuleDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RecipientRuleIndexTest {
+
+    @Test
+    void wildcardRulesAreFoldedIntoEveryIndexedValue() {
+        RecipientRuleIndex index = new RecipientRuleIndex(List.of(
+                rule("anual@example.com", List.of("REPORTE_ANUAL"), null, null, null),
+                rule("todo@example.com", null, null, null, null),
+                rule("portal@example.com", List.of(), List.of("portal"), null, null)));
+
+        assertArrayEquals(new String[]{"anual@example.com", "todo@example.com"},
+                index.match("REPORTE_ANUAL", "report-service", 0));
+        assertArrayEquals(new String[]{"anual@example.com", "todo@example.com", "portal@example.com"},
+                index.match("REPORTE_ANUAL", "portal", 0));
+        // Un valor que no esta en el hash solo coincide con las reglas comodin
+        assertArrayEquals(new String[]{"todo@example.com"}, index.match("REPORTE_MENSUAL", "otro", 0));
+        assertArrayEquals(new String[]{"todo@example.com"}, index.match(null, null, 0));
+    }
+
+    @Test
+    void reportTypeAndSourceIgnoreCaseLikePriorityLanes() {
+        RecipientRuleIndex index = new RecipientRuleIndex(List.of(
+                rule("anual@example.com", List.of(" reporte_anual "), List.of("Portal"), null, null)));
+
+        assertArrayEquals(new String[]{"anual@example.com"}, index.match("REPORTE_ANUAL", "PORTAL", 0));
+        assertArrayEquals(new String[]{"anual@example.com"}, index.match("Reporte_Anual", "portal", 0));
+        assertEquals(0, index.match("REPORTE_MENSUAL", "portal", 0).length);
+    }
+
+    @Test
+    void rangeSegmentsIncludeBothBoundaries() {
+        RecipientRuleIndex index = new RecipientRuleIndex(List.of(
+                rule("medio@example.com", null, null, 10, 20),
+                rule("alto@example.com", null, null, 21, null),
+                rule("bajo@example.com", null, null, null, 9)));
+
+        assertArrayEquals(new String[]{"bajo@example.com"}, index.match(null, null, Integer.MIN_VALUE));
+        assertArrayEquals(new String[]{"bajo@example.com"}, index.match(null, null, 9));
+        assertArrayEquals(new String[]{"medio@example.com"}, index.match(null, null, 10));
+        assertArrayEquals(new String[]{"medio@example.com"}, index.match(null, null, 20));
+        assertArrayEquals(new String[]{"alto@example.com"}, index.match(null, null, 21));
+        assertArrayEquals(new String[]{"alto@example.com"}, index.match(null, null, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void extremeBoundsDoNotOverflow() {
+        RecipientRuleIndex index = new RecipientRuleIndex(List.of(
+                rule("max@example.com", null, null, Integer.MAX_VALUE, Integer.MAX_VALUE),
+                rule("min@example.com", null, null, Integer.MIN_VALUE, Integer.MIN_VALUE)));
+
+        assertArrayEquals(new String[]{"max@example.com"}, index.match(null, null, Integer.MAX_VALUE));
+        assertArrayEquals(new String[]{"min@example.com"}, index.match(null, null, Integer.MIN_VALUE));
+        assertEquals(0, index.match(null, null, 0).length);
+    }
+
+    @Test
+    void recipientsMatchedByManyRulesAreReturnedOnce() {
+        // Mas de 64 reglas para cruzar palabras del bitset
+        List<RecipientRuleDTO> rules = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            rules.add(rule(i % 3 == 0 ? "a@example.com" : " b@example.com ", null, null, i, null));
+        }
+        rules.add(rule("c@example.com", List.of("REPORTE_ANUAL"), null, null, null));
+        RecipientRuleIndex index = new RecipientRuleIndex(rules);
+
+        assertEquals(151, index.getRuleCount());
+        assertEquals(3, index.getRecipientCount());
+        assertArrayEquals(new String[]{"a@example.com", "b@example.com", "c@example.com"},
+                index.match("REPORTE_ANUAL", null, 149));
+        assertArrayEquals(new String[]{"a@example.com"}, index.match(null, null, 0));
+    }
+
+    private static RecipientRuleDTO rule(String recipient, List<String> reportTypes, List<String> sources,
+                                         Integer min, Integer max) {
+        RecipientRuleDTO rule = new RecipientRuleDTO();
+        rule.setRecipient(recipient);
+        rule.setReportTypes(reportTypes);
+        rule.setSources(sources);
+        rule.setMinTotalComplaints(min);
+        rule.setMaxTotalComplaints(max);
+        return rule;
+    }
+}
@@ -0,0 +1,241 @@
+package co.edu.uptc.notification.service;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.AddressException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.Trigger;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReliableEmailSenderTest {
+
+    private static final String[] RECIPIENTS = {"admin@example.com"};
+
+    @TempDir
+    Path directory;
+
+    private final ManualScheduler retries = new ManualScheduler();
+    private SendScheduler sendScheduler;
+    private SmtpCircuitBreaker circuitBreaker;
+    private DeadLetterStore deadLetterStore;
+    private ReliableEmailSender sender;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // Scheduler de cuotas desactivado y executor en linea: cada intento corre en el hilo del test
+        sendScheduler = new SendScheduler(Runnable::run);
+        ReflectionTestUtils.setField(sendScheduler, "enabled", false);
+        sendScheduler.init();
+
+        circuitBreaker = new SmtpCircuitBreaker();
+        ReflectionTestUtils.setField(circuitBreaker, "failureThreshold", 2);
+        ReflectionTestUtils.setField(circuitBreaker, "openMs", 60_000L);
+
+        deadLetterStore = new DeadLetterStore();
+        ReflectionTestUtils.setField(deadLetterStore, "directory", directory.toString());
+        ReflectionTestUtils.setField(deadLetterStore, "maxEntries", 100);
+        deadLetterStore.init();
+
+        EventAuditRing auditRing = new EventAuditRing();
+        ReflectionTestUtils.setField(auditRing, "capacity", 1024);
+        auditRing.init();
+
+        sender = new ReliableEmailSender(sendScheduler, circuitBreaker, deadLetterStore, retries, auditRing);
+        ReflectionTestUtils.setField(sender, "maxAttempts", 3);
+        ReflectionTestUtils.setField(sender, "initialBackoffMs", 100L);
+        ReflectionTestUtils.setField(sender, "maxBackoffMs", 1_000L);
+        ReflectionTestUtils.setField(sender, "maxDeliveryMs", 60_000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        deadLetterStore.shutdown();
+        sendScheduler.shutdown();
+    }
+
+    @Test
+    void localBackpressureIsRetriedWithoutBlamingTheRelay() {
+        Throwable queueFull = new RejectedExecutionException("Send queue full (10000)");
+        Throwable poolTimeout = new CompletionException(
+                new SmtpPoolExhaustedException("Timed out waiting for a pooled SMTP connection"));
+
+        assertTrue(ReliableEmailSender.isTransient(queueFull));
+        assertTrue(ReliableEmailSender.isLocalSaturation(queueFull));
+        assertTrue(ReliableEmailSender.isTransient(poolTimeout));
+        assertTrue(ReliableEmailSender.isLocalSaturation(poolTimeout));
+    }
+
+    @Test
+    void connectionFailuresCountAgainstTheRelay() {
+        Throwable refused = new MessagingException("Could not connect to SMTP host");
+
+        assertTrue(ReliableEmailSender.isTransient(refused));
+        assertFalse(ReliableEmailSender.isLocalSaturation(refused));
+    }
+
+    @Test
+    void transientFailureIsRetriedUntilDelivered() {
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<Void> result = sender.send(email("e1"), RECIPIENTS, () -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new MessagingException("421 try again later");
+            }
+        });
+
+        assertFalse(result.isDone());
+        assertEquals(1, retries.pending());
+        retries.runNext();
+
+        assertTrue(result.isDone());
+        assertEquals(2, calls.get());
+        assertEquals(1, sender.getRetries());
+        assertEquals(0, deadLetterStore.size());
+        assertEquals(SmtpCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void retriesStopAtMaxAttemptsAndDeadLetter() {
+        // Umbral alto para que el breaker no intervenga en este caso
+        ReflectionTestUtils.setField(circuitBreaker, "failureThreshold", 100);
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<Void> result = sender.send(email("e2"), RECIPIENTS, () -> {
+            calls.incrementAndGet();
+            throw new MessagingException("451 local error");
+        });
+
+        retries.runAll();
+
+        assertEquals(3, calls.get());
+        assertEquals(2, sender.getRetries());
+        assertTrue(result.isDone());
+        assertFalse(result.isCompletedExceptionally());
+        assertEquals(1, deadLetterStore.size());
+        assertEquals(1, sender.getDeadLettered());
+        assertEquals("e2", deadLetterStore.list(10).get(0).getEventId());
+    }
+
+    @Test
+    void expiredDeliveryIsDeadLetteredWithoutRetrying() {
+        ReflectionTestUtils.setField(sender, "maxDeliveryMs", 0L);
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<Void> result = sender.send(email("e3"), RECIPIENTS, () -> {
+            calls.incrementAndGet();
+            throw new MessagingException("421 try again later");
+        });
+
+        assertEquals(1, calls.get());
+        assertEquals(0, retries.pending());
+        assertTrue(result.isDone());
+        assertEquals(1, deadLetterStore.size());
+    }
+
+    @Test
+    void permanentFailureIsDeadLetteredImmediately() {
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<Void> result = sender.send(email("e4"), RECIPIENTS, () -> {
+            calls.incrementAndGet();
+            throw new AddressException("Illegal address", "not-an-address");
+        });
+
+        assertEquals(1, calls.get());
+        assertEquals(0, retries.pending());
+        assertTrue(result.isDone());
+        assertEquals(1, deadLetterStore.size());
+        // Una direccion invalida no dice nada de la salud del relay
+        assertEquals(0, circuitBreaker.getConsecutiveFailures());
+    }
+
+    @Test
+    void openCircuitDefersSendsWithoutCallingTheRelay() {
+        AtomicInteger calls = new AtomicInteger();
+        ReliableEmailSender.SendTask failing = () -> {
+            calls.incrementAndGet();
+            throw new MessagingException("Could not connect to SMTP host");
+        };
+        sender.send(email("e5"), RECIPIENTS, failing);
+        sender.send(email("e6"), RECIPIENTS, failing);
+        assertEquals(SmtpCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(2, calls.get());
+
+        AtomicInteger held = new AtomicInteger();
+        CompletableFuture<Void> result = sender.send(email("e7"), RECIPIENTS, held::incrementAndGet);
+
+        // Con el circuito abierto el envio espera en el scheduler de reintentos sin ocupar un hilo de envio
+        assertEquals(0, held.get());
+        assertFalse(result.isDone());
+        assertEquals(3, retries.pending());
+    }
+
+    private static RenderedEmail email(String eventId) {
+        return new RenderedEmail(eventId, "Subject " + eventId, "<p>" + eventId + "</p>");
+    }
+
+    // Scheduler manual: los reintentos quedan en cola hasta que el test los ejecuta
+    private static final class ManualScheduler implements TaskScheduler {
+
+        private final Deque<Runnable> tasks = new ArrayDeque<>();
+
+        int pending() {
+            return tasks.size();
+        }
+
+        void runNext() {
+            tasks.removeFirst().run();
+        }
+
+        void runAll() {
+            while (!tasks.isEmpty()) {
+                runNext();
+            }
+        }
+
+        @Override
+        public ScheduledFuture<?> schedule(Runnable task, Instant startTime) {
+            tasks.addLast(task);
+            return null;
+        }
+
+        @Override
+        public ScheduledFuture<?> schedule(Runnable task, Trigger trigger) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, Instant startTime, Duration period) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, Duration period) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, Instant startTime, Duration delay) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, Duration delay) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package co.edu.uptc.notification.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SendSchedulerTest {
+
+    private SendScheduler scheduler;
+
+    @AfterEach
+    void stop() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    void bccLargerThanBurstIsSentWithFullBucket() throws Exception {
+        scheduler = scheduler(Runnable::run, true);
+        AtomicInteger sent = new AtomicInteger();
+
+        CompletableFuture<Void> bcc = scheduler.schedule(recipients("admin", 50), sent::incrementAndGet,
+                PriorityLane.NORMAL);
+        bcc.get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, sent.get());
+        assertEquals(0, scheduler.getQueueDepth());
+        assertEquals(0, scheduler.getDelayedSends());
+    }
+
+    @Test
+    void sendLargerThanDailyQuotaIsRejected() {
+        scheduler = scheduler(Runnable::run, true);
+
+        CompletableFuture<Void> send = scheduler.schedule(recipients("user", 2001), () -> { }, PriorityLane.NORMAL);
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> send.get(1, TimeUnit.SECONDS));
+        assertTrue(error.getCause() instanceof IllegalArgumentException);
+        assertEquals(1, scheduler.getRejectedSends());
+    }
+
+    @Test
+    void disabledSchedulerReportsFullExecutorAsFailedFuture() {
+        Executor full = task -> {
+            throw new RejectedExecutionException("queue full");
+        };
+        scheduler = scheduler(full, false);
+
+        CompletableFuture<Void> send = scheduler.schedule(recipients("user", 1), () -> { }, PriorityLane.HIGH);
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> send.get(1, TimeUnit.SECONDS));
+        assertTrue(error.getCause() instanceof RejectedExecutionException);
+        assertEquals(1, scheduler.getRejectedSends());
+    }
+
+    private static SendScheduler scheduler(Executor executor, boolean enabled) {
+        SendScheduler scheduler = new SendScheduler(executor);
+        ReflectionTestUtils.setField(scheduler, "enabled", enabled);
+        ReflectionTestUtils.setField(scheduler, "globalPerMinuteLimit", 60L);
+        ReflectionTestUtils.setField(scheduler, "globalPerDayLimit", 2000L);
+        ReflectionTestUtils.setField(scheduler, "senderPerMinuteLimit", 60L);
+        ReflectionTestUtils.setField(scheduler, "recipientPerMinuteLimit", 20L);
+        ReflectionTestUtils.setField(scheduler, "burst", 20L);
+        ReflectionTestUtils.setField(scheduler, "maxTrackedRecipients", 10_000);
+        ReflectionTestUtils.setField(scheduler, "maxQueue", 100);
+        ReflectionTestUtils.setField(scheduler, "maxWaitMs", 5000L);
+        scheduler.init();
+        return scheduler;
+    }
+
+    private static String[] recipients(String prefix, int count) {
+        String[] recipients = new String[count];
+        for (int i = 0; i < count; i++) {
+            recipients[i] = prefix + i + "@example.com";
+        }
+        return recipients;
+    }
+}
@@ -0,0 +1,76 @@
+package co.edu.uptc.notification.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SmtpCircuitBreakerTest {
+
+    private static SmtpCircuitBreaker breaker(int failureThreshold, long openMs) {
+        SmtpCircuitBreaker breaker = new SmtpCircuitBreaker();
+        ReflectionTestUtils.setField(breaker, "failureThreshold", failureThreshold);
+        ReflectionTestUtils.setField(breaker, "openMs", openMs);
+        return breaker;
+    }
+
+    @Test
+    void opensAfterConsecutiveFailuresOnly() {
+        SmtpCircuitBreaker breaker = breaker(3, 60_000);
+
+        breaker.recordFailure();
+        breaker.recordFailure();
+        breaker.recordSuccess();
+        breaker.recordFailure();
+        breaker.recordFailure();
+        assertEquals(SmtpCircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest());
+
+        breaker.recordFailure();
+        assertEquals(SmtpCircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+        assertTrue(breaker.millisUntilRetry() > 0);
+        assertEquals(1, breaker.getTimesOpened());
+    }
+
+    @Test
+    void halfOpenLetsExactlyOneTrialThrough() {
+        SmtpCircuitBreaker breaker = breaker(1, 0);
+        breaker.recordFailure();
+
+        assertTrue(breaker.allowRequest());
+        assertEquals(SmtpCircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+        assertFalse(breaker.allowRequest());
+
+        // Un error permanente o local libera la prueba sin decidir nada sobre el relay
+        breaker.releaseTrial();
+        assertTrue(breaker.allowRequest());
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    void failedTrialReopensAndSuccessfulTrialCloses() throws InterruptedException {
+        SmtpCircuitBreaker breaker = breaker(2, 20);
+        breaker.recordFailure();
+        breaker.recordFailure();
+        assertFalse(breaker.allowRequest());
+
+        Thread.sleep(40);
+        assertTrue(breaker.allowRequest());
+        breaker.recordFailure();
+        assertEquals(SmtpCircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+        assertEquals(2, breaker.getTimesOpened());
+
+        Thread.sleep(40);
+        assertTrue(breaker.allowRequest());
+        breaker.recordSuccess();
+        assertEquals(SmtpCircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0, breaker.getConsecutiveFailures());
+        assertTrue(breaker.allowRequest());
+        assertTrue(breaker.allowRequest());
+    }
+}
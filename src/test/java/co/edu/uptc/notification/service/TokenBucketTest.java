@@ -0,0 +1,55 @@
+package co.edu.uptc.notification.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+
+    private static final long MINUTE_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final long SECOND_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void refillsAtConfiguredRate() {
+        TokenBucket bucket = new TokenBucket(10, 60, MINUTE_NANOS);
+        long start = System.nanoTime();
+
+        bucket.consume(10, start);
+        assertEquals(SECOND_NANOS, bucket.nanosUntilAvailable(1, start), 1_000);
+        assertEquals(5 * SECOND_NANOS, bucket.nanosUntilAvailable(5, start), 1_000);
+        assertEquals(0, bucket.nanosUntilAvailable(1, start + SECOND_NANOS));
+        assertEquals(4 * SECOND_NANOS, bucket.nanosUntilAvailable(5, start + SECOND_NANOS), 1_000);
+    }
+
+    @Test
+    void refillNeverExceedsCapacity() {
+        TokenBucket bucket = new TokenBucket(10, 60, MINUTE_NANOS);
+        long start = System.nanoTime();
+
+        assertTrue(bucket.hasTokens(10, start + MINUTE_NANOS));
+        bucket.consume(10, start + MINUTE_NANOS);
+        // Tras una hora inactivo solo se recupera la capacidad, no 3600 tokens
+        assertTrue(bucket.hasTokens(10, start + 61 * MINUTE_NANOS));
+        bucket.consume(10, start + 61 * MINUTE_NANOS);
+        assertTrue(bucket.nanosUntilAvailable(1, start + 61 * MINUTE_NANOS) > 0);
+    }
+
+    @Test
+    void costLargerThanCapacityWaitsForFullBucketAndLeavesDebt() {
+        TokenBucket bucket = new TokenBucket(20, 60, MINUTE_NANOS);
+        long start = System.nanoTime();
+
+        bucket.consume(5, start);
+        // 50 tokens nunca caben en un balde de 20: basta con esperar a que se llene
+        assertEquals(5 * SECOND_NANOS, bucket.nanosUntilAvailable(50, start), 1_000);
+        assertEquals(0, bucket.nanosUntilAvailable(50, start + 5 * SECOND_NANOS));
+
+        bucket.consume(50, start + 5 * SECOND_NANOS);
+        // Deuda de 30 tokens: el siguiente envio espera a saldarla y a tener su propio token
+        assertEquals(31 * SECOND_NANOS, bucket.nanosUntilAvailable(1, start + 5 * SECOND_NANOS), 1_000);
+        assertEquals(0, bucket.nanosUntilAvailable(1, start + 36 * SECOND_NANOS));
+    }
+}